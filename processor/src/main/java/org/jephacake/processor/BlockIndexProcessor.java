@@ -0,0 +1,152 @@
+package org.jephacake.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Generates {@code org.jephacake.block.GeneratedBlockIndex} from every class annotated with
+ * {@code @org.jephacake.block.RegisterBlock}, so startup registers blocks with straight constructor calls instead of
+ * scanning the classpath or reflecting.
+ *
+ * Ids are stable across builds: the processor reads the id file given by {@code -Ablocks.idFile=<path>}
+ * (class name = id, checked into the repo), gives each new block the next free id and writes the file back.
+ * Ids of blocks that were removed stay reserved so old saves never load as a different block.
+ */
+@SupportedAnnotationTypes(BlockIndexProcessor.ANNOTATION)
+@SupportedOptions(BlockIndexProcessor.ID_FILE_OPTION)
+public class BlockIndexProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "org.jephacake.block.RegisterBlock";
+    static final String ID_FILE_OPTION = "blocks.idFile";
+    private static final String BLOCK_CLASS = "org.jephacake.block.Block";
+    private static final String INDEX_PACKAGE = "org.jephacake.block";
+    private static final String INDEX_CLASS = "GeneratedBlockIndex";
+    private static final int FIRST_ID = 2; // 0 = air, 1 = debug
+
+    private final Set<String> blocks = new TreeSet<>(); // binary names, sorted so new ids are deterministic
+    private final List<Element> origins = new ArrayList<>();
+    private boolean written;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        if (annotation == null || written) return true;
+        for (TypeElement type : ElementFilter.typesIn(round.getElementsAnnotatedWith(annotation))) {
+            if (validate(type)) {
+                blocks.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+                origins.add(type);
+            }
+        }
+        // every hand-written block is seen in the first round; writing then lets the index itself be compiled
+        if (!blocks.isEmpty()) {
+            written = true;
+            try {
+                writeIndex(assignIds());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write block index: " + e);
+            }
+        }
+        return true;
+    }
+
+    /** Registered blocks are constructed directly, so they must be concrete, public Blocks with a public no-arg constructor. */
+    private boolean validate(TypeElement type) {
+        Messager log = processingEnv.getMessager();
+        TypeMirror block = processingEnv.getElementUtils().getTypeElement(BLOCK_CLASS).asType();
+        if (!processingEnv.getTypeUtils().isAssignable(type.asType(), block)) {
+            log.printMessage(Diagnostic.Kind.ERROR, "@RegisterBlock class must extend " + BLOCK_CLASS, type);
+            return false;
+        }
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)
+                || type.getNestingKind() != NestingKind.TOP_LEVEL) {
+            log.printMessage(Diagnostic.Kind.ERROR, "@RegisterBlock class must be public, concrete and top-level", type);
+            return false;
+        }
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC)) return true;
+        }
+        log.printMessage(Diagnostic.Kind.ERROR, "@RegisterBlock class needs a public no-arg constructor", type);
+        return false;
+    }
+
+    /** Existing ids from the id file, plus fresh ones for new blocks (written back if anything was added). */
+    private Map<String, Integer> assignIds() throws IOException {
+        String option = processingEnv.getOptions().get(ID_FILE_OPTION);
+        Path file = option == null ? null : Path.of(option);
+        Properties stored = new Properties();
+        if (file != null && Files.exists(file)) {
+            try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                stored.load(r);
+            }
+        } else if (file == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "No -A" + ID_FILE_OPTION + " given; block ids will not be stable across builds");
+        }
+
+        TreeMap<String, Integer> ids = new TreeMap<>();
+        int next = FIRST_ID;
+        for (String name : stored.stringPropertyNames()) {
+            int id = Integer.parseInt(stored.getProperty(name).trim());
+            ids.put(name, id);
+            next = Math.max(next, id + 1);
+        }
+
+        boolean added = false;
+        for (String name : blocks) {
+            if (!ids.containsKey(name)) {
+                ids.put(name, next++);
+                added = true;
+            }
+        }
+
+        if (added && file != null) {
+            // sorted by id, so the file reads as the registration history
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(ids.entrySet());
+            entries.sort(Map.Entry.comparingByValue());
+            StringBuilder sb = new StringBuilder("# Block ids assigned by BlockIndexProcessor. Never edit or reuse an id:\n"
+                    + "# saved worlds store these numbers. Entries for removed blocks stay reserved.\n");
+            for (Map.Entry<String, Integer> e : entries) sb.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+            Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+        }
+        return ids;
+    }
+
+    private void writeIndex(Map<String, Integer> ids) throws IOException {
+        List<String> ordered = new ArrayList<>(blocks);
+        ordered.sort(Comparator.comparingInt(ids::get));
+
+        JavaFileObject source = processingEnv.getFiler().createSourceFile(
+                INDEX_PACKAGE + "." + INDEX_CLASS, origins.toArray(new Element[0]));
+        try (PrintWriter out = new PrintWriter(source.openWriter())) {
+            out.println("package " + INDEX_PACKAGE + ";");
+            out.println();
+            out.println("import javax.annotation.processing.Generated;");
+            out.println();
+            out.println("/** Every {@link RegisterBlock} class with its persisted id. Generated at build time; do not edit. */");
+            out.println("@Generated(\"" + getClass().getName() + "\")");
+            out.println("final class " + INDEX_CLASS + " {");
+            out.println("    private " + INDEX_CLASS + "() {}");
+            out.println();
+            out.println("    static void registerAll() {");
+            for (String name : ordered) {
+                out.println("        BlockRegistry.registerWithId(" + ids.get(name) + ", " + name.replace('$', '.') + "::new);");
+            }
+            out.println("    }");
+            out.println("}");
+        }
+    }
+}
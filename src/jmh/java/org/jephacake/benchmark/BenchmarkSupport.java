@@ -0,0 +1,54 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.renderer.TextureAtlas;
+import org.jephacake.world.World;
+import org.jephacake.world.WorldGenerator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Shared headless setup for the benchmarks. Builds the CPU side of the texture atlas and registers blocks once per JVM.
+ * Nothing in here touches GLFW or OpenGL.
+ */
+final class BenchmarkSupport {
+    /** Fixed seed so every run (and every version) benchmarks identical terrain. */
+    static final long SEED = 0x5EEDL;
+
+    private static TextureAtlas atlas;
+
+    private BenchmarkSupport() {}
+
+    static synchronized TextureAtlas init() throws IOException {
+        if (atlas == null) {
+            atlas = TextureAtlas.buildFromPackage("org/jephacake/assets/textures");
+            BlockRegistry.init();
+            BlockRegistry.resolveTextures(atlas::getTileIndex, atlas::getUVRect);
+        }
+        return atlas;
+    }
+
+    /** Generator names used by the {@code @Param} fields: "flat", "stress" and "terrain" (see {@link WorldGenerator#named}). */
+    static WorldGenerator generator(String name) {
+        return WorldGenerator.named(name, SEED);
+    }
+
+    static File tempSaveFile() throws IOException {
+        File f = File.createTempFile("spacegame-bench", ".dat");
+        f.delete(); // World treats a missing file as a fresh world
+        f.deleteOnExit();
+        return f;
+    }
+
+    /** Load every chunk within {@code radius} of the origin chunk. */
+    static void loadCube(World world, int radius) {
+        for (int x = -radius; x <= radius; x++) {
+            for (int y = -radius; y <= radius; y++) {
+                for (int z = -radius; z <= radius; z++) {
+                    world.loadOrGenerateChunk(x, y, z);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.renderer.BlockSnapshot;
+import org.jephacake.renderer.ChunkMesher;
+import org.jephacake.renderer.TextureAtlas;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meshing cost of a single chunk surrounded by loaded neighbours, as classic meshes and as face records
+ * ({@link ChunkMesher.FaceData}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkMesherBenchmark {
+
+    @Param({"flat", "stress"})
+    public String generator;
+
+    private TextureAtlas atlas;
+    private World world;
+    private Chunk center;
+    private BlockSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        atlas = BenchmarkSupport.init();
+        world = new World(BenchmarkSupport.generator(generator), BenchmarkSupport.tempSaveFile(), 1);
+        BenchmarkSupport.loadCube(world, 1);
+        center = world.loadOrGenerateChunk(0, 0, 0);
+
+        snapshot = new BlockSnapshot();
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    snapshot.put(x, y, z, world.loadOrGenerateChunk(x, y, z).getVoxelData().clone());
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    public ChunkMesher.MeshData meshFromWorld() {
+        return ChunkMesher.meshDataFromChunk(world, center, atlas);
+    }
+
+    @Benchmark
+    public ChunkMesher.MeshData meshFromSnapshot() {
+        return ChunkMesher.meshDataFromChunkSnapshot(snapshot, 0, 0, 0, center.getVoxelData(), atlas);
+    }
+
+    @Benchmark
+    public ChunkMesher.FaceData facesFromWorld() {
+        return ChunkMesher.faceDataFromChunk(world, center);
+    }
+}
@@ -0,0 +1,55 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.Chunk;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw {@link Chunk} voxel storage: per-voxel writes, reads and the copy taken when a chunk is unloaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChunkStorageBenchmark {
+    private static final int VOXELS = Chunk.SIZE * Chunk.SIZE * Chunk.SIZE;
+
+    private Chunk chunk;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        chunk = new Chunk(0, 0, 0);
+        fill();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VOXELS)
+    public void fill() {
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int y = 0; y < Chunk.SIZE; y++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    chunk.setBlock(x, y, z, 2 + ((x ^ y ^ z) & 1));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VOXELS)
+    public int scan() {
+        int sum = 0;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int y = 0; y < Chunk.SIZE; y++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    sum += chunk.getBlock(x, y, z);
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] copyVoxels() {
+        return chunk.getVoxelData().clone();
+    }
+}
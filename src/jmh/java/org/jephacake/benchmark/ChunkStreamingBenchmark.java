@@ -0,0 +1,131 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.network.ChunkClient;
+import org.jephacake.network.ChunkCodec;
+import org.jephacake.network.ChunkServer;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loopback chunk streaming throughput. Each benchmark thread owns one connection, requests a cube of
+ * chunks, waits for all of them and releases them again, so ops/s is chunks/s; with several threads
+ * JMH reports the sum, divide by the thread count for chunks/s per connection. The server runs unthrottled
+ * (no send budget) so this measures encode, framing, loopback I/O and decode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChunkStreamingBenchmark {
+    static final int RADIUS = 2;
+    static final int CUBE = (2 * RADIUS + 1) * (2 * RADIUS + 1) * (2 * RADIUS + 1);
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"flat", "stress"})
+        public String generator;
+
+        File saveFile;
+        World world;
+        ChunkServer server;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            BenchmarkSupport.init();
+            saveFile = BenchmarkSupport.tempSaveFile();
+            world = new World(BenchmarkSupport.generator(generator), saveFile, RADIUS);
+            BenchmarkSupport.loadCube(world, RADIUS);
+            server = new ChunkServer(world, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0).start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            server.close();
+            saveFile.delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState implements ChunkClient.Listener {
+        ChunkClient client;
+        int received;
+
+        @Setup(Level.Trial)
+        public void setup(ServerState server) throws Exception {
+            client = new ChunkClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.server.getPort()), this);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            client.close();
+        }
+
+        @Override
+        public void chunkReceived(int cx, int cy, int cz, int[] voxels) {
+            received++;
+        }
+
+        @Override
+        public void blockChanged(int wx, int wy, int wz, int blockId) {}
+    }
+
+    @State(Scope.Thread)
+    public static class CodecState {
+        final ChunkCodec codec = new ChunkCodec();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(ChunkCodec.MAX_ENCODED_SIZE);
+        final int[] decoded = new int[ChunkCodec.VOXELS];
+        int[] voxels;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            BenchmarkSupport.init();
+            Chunk chunk = BenchmarkSupport.generator("stress").generateChunk(0, 0, 0);
+            voxels = chunk.getVoxelData();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(CUBE)
+    public int streamOneConnection(ClientState state) throws Exception {
+        return streamCube(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(CUBE)
+    public int streamFourConnections(ClientState state) throws Exception {
+        return streamCube(state);
+    }
+
+    @Benchmark
+    public int encodeDecode(CodecState state) throws Exception {
+        state.buffer.clear();
+        int size = state.codec.encode(state.voxels, state.buffer);
+        state.codec.decode(state.buffer.flip(), state.decoded);
+        return size;
+    }
+
+    private static int streamCube(ClientState state) throws Exception {
+        ChunkClient client = state.client;
+        state.received = 0;
+        for (int x = -RADIUS; x <= RADIUS; x++)
+            for (int y = -RADIUS; y <= RADIUS; y++)
+                for (int z = -RADIUS; z <= RADIUS; z++)
+                    client.requestChunk(x, y, z);
+        while (state.received < CUBE) {
+            if (!client.poll(10)) throw new IllegalStateException("Server closed the connection");
+        }
+        for (int x = -RADIUS; x <= RADIUS; x++)
+            for (int y = -RADIUS; y <= RADIUS; y++)
+                for (int z = -RADIUS; z <= RADIUS; z++)
+                    client.releaseChunk(x, y, z);
+        client.poll(0);
+        return state.received;
+    }
+}
@@ -0,0 +1,69 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.Aabb;
+import org.jephacake.world.VoxelCollider;
+import org.jephacake.world.World;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Swept-AABB collision throughput: player-sized boxes falling and walking through generated terrain, as a server
+ * would step its entities each tick. Scores are per box move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CollisionBenchmark {
+    private static final int ENTITIES = 256;
+
+    @Param({"flat", "stress"})
+    public String generator;
+
+    private World world;
+    private VoxelCollider collider;
+    private final Aabb[] boxes = new Aabb[ENTITIES];
+    private final Aabb[] start = new Aabb[ENTITIES];
+    private final Vector3f[] velocities = new Vector3f[ENTITIES];
+    private final Vector3f motion = new Vector3f();
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.init();
+        world = new World(BenchmarkSupport.generator(generator), BenchmarkSupport.tempSaveFile(), 2);
+        BenchmarkSupport.loadCube(world, 2);
+        collider = new VoxelCollider(world);
+
+        Random random = new Random(BenchmarkSupport.SEED);
+        for (int i = 0; i < ENTITIES; i++) {
+            float x = random.nextFloat() * 48 - 24, y = random.nextFloat() * 24, z = random.nextFloat() * 48 - 24;
+            start[i] = new Aabb(x - 0.3f, y, z - 0.3f, x + 0.3f, y + 1.8f, z + 0.3f);
+            boxes[i] = new Aabb().set(start[i]);
+            velocities[i] = new Vector3f(random.nextFloat() - 0.5f, -0.5f, random.nextFloat() - 0.5f);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public boolean tickEntities() {
+        // walk back to the start every so often so boxes don't all end up resting against walls
+        if (++tick % 200 == 0) {
+            for (int i = 0; i < ENTITIES; i++) boxes[i].set(start[i]);
+        }
+        boolean grounded = false;
+        for (int i = 0; i < ENTITIES; i++) {
+            motion.set(velocities[i]);
+            collider.move(boxes[i], motion, 0.6f);
+            grounded |= collider.onGround;
+        }
+        return grounded;
+    }
+}
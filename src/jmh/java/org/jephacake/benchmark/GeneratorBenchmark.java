@@ -0,0 +1,37 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.Chunk;
+import org.jephacake.world.WorldGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-chunk cost of the world generators. The generator is re-created per iteration so seeded output repeats.
+ * The staged "terrain" generator runs every stage of a chunk and the missing ones of its neighbourhood inline, so
+ * along the walk each call pays for about one column of three chunks plus the decoration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneratorBenchmark {
+
+    @Param({"flat", "stress", "terrain"})
+    public String generator;
+
+    private WorldGenerator gen;
+    private int cx;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        BenchmarkSupport.init();
+        gen = BenchmarkSupport.generator(generator);
+        cx = 0;
+    }
+
+    @Benchmark
+    public Chunk generateChunk() {
+        // walk along x so every call generates a fresh chunk position; y=0 straddles the flat ground level
+        return gen.generateChunk(cx++, 0, 0);
+    }
+}
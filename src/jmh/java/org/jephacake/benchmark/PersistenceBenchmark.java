@@ -0,0 +1,65 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World save (on close) and load (on construction) for a cube of loaded chunks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PersistenceBenchmark {
+
+    @State(Scope.Thread)
+    public static class SaveState {
+        @Param({"1", "3"})
+        public int radius;
+
+        File saveFile;
+        World world;
+
+        @Setup(Level.Invocation)
+        public void setup() throws Exception {
+            BenchmarkSupport.init();
+            saveFile = BenchmarkSupport.tempSaveFile();
+            world = new World(BenchmarkSupport.generator("stress"), saveFile, radius);
+            BenchmarkSupport.loadCube(world, radius);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            saveFile.delete();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LoadState {
+        @Param({"1", "3"})
+        public int radius;
+
+        File loadFile;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            BenchmarkSupport.init();
+            loadFile = BenchmarkSupport.tempSaveFile();
+            World w = new World(BenchmarkSupport.generator("stress"), loadFile, radius);
+            BenchmarkSupport.loadCube(w, radius);
+            w.close();
+        }
+    }
+
+    @Benchmark
+    public void save(SaveState s) {
+        s.world.close();
+    }
+
+    /** Constructing a World reads the whole save file. */
+    @Benchmark
+    public World load(LoadState s) {
+        return new World(BenchmarkSupport.generator("stress"), s.loadFile, s.radius);
+    }
+}
@@ -0,0 +1,64 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.RaycastHit;
+import org.jephacake.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Voxel raycast cost: single block-picking rays (reach-length, as the client casts on click) and a batch of long
+ * sight lines through the same cache. Scores are per ray.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RaycastBenchmark {
+    private static final int RAYS = 1024;
+
+    @Param({"flat", "stress"})
+    public String generator;
+
+    private World world;
+    private final float[] rays = new float[RAYS * 6];
+    private final RaycastHit[] hits = new RaycastHit[RAYS];
+    private final RaycastHit hit = new RaycastHit();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.init();
+        world = new World(BenchmarkSupport.generator(generator), BenchmarkSupport.tempSaveFile(), 2);
+        BenchmarkSupport.loadCube(world, 2);
+
+        Random random = new Random(BenchmarkSupport.SEED);
+        for (int i = 0; i < RAYS; i++) {
+            int o = i * 6;
+            rays[o] = random.nextFloat() * 32 - 16;
+            rays[o + 1] = random.nextFloat() * 32 - 16;
+            rays[o + 2] = random.nextFloat() * 32 - 16;
+            rays[o + 3] = random.nextFloat() * 2 - 1;
+            rays[o + 4] = random.nextFloat() * 2 - 1;
+            rays[o + 5] = random.nextFloat() * 2 - 1;
+            hits[i] = new RaycastHit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    public boolean pick() {
+        int o = (next++ & (RAYS - 1)) * 6;
+        return world.raycast(rays[o], rays[o + 1], rays[o + 2], rays[o + 3], rays[o + 4], rays[o + 5], 8f, hit);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RAYS)
+    public int sightLines() {
+        return world.raycast(rays, RAYS, 64f, hits);
+    }
+}
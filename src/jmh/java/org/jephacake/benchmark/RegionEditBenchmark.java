@@ -0,0 +1,72 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.BlockRegion;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.jephacake.world.WorldListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Large edits through per-voxel setBlock versus the bulk region API. A listener counts change
+ * notifications so the remesh fan-out (one per voxel vs one per chunk) is part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class RegionEditBenchmark {
+    @Param({"16", "64"})
+    public int size;
+
+    File saveFile;
+    World world;
+    BlockRegion region;
+    long notifications;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.init();
+        saveFile = BenchmarkSupport.tempSaveFile();
+        world = new World(BenchmarkSupport.generator("stress"), saveFile, 4);
+        world.addListener(new WorldListener() {
+            @Override
+            public void chunkChanged(Chunk chunk) { notifications++; }
+        });
+        world.fillRegion(0, 0, 0, size - 1, size - 1, size - 1, 1); // generate every touched chunk up front
+        region = world.copyRegion(0, 0, 0, size - 1, size - 1, size - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        saveFile.delete();
+    }
+
+    @Benchmark
+    public long fillWithSetBlock() {
+        for (int z = 0; z < size; z++)
+            for (int y = 0; y < size; y++)
+                for (int x = 0; x < size; x++)
+                    world.setBlock(x + 3, y + 3, z + 3, 2);
+        return notifications;
+    }
+
+    @Benchmark
+    public long fillRegion() {
+        world.fillRegion(3, 3, 3, size + 2, size + 2, size + 2, 2);
+        return notifications;
+    }
+
+    @Benchmark
+    public void copyRegion(Blackhole bh) {
+        bh.consume(world.copyRegion(3, 3, 3, size + 2, size + 2, size + 2));
+    }
+
+    @Benchmark
+    public long pasteRegion() {
+        world.pasteRegion(region, 5, 5, 5);
+        return notifications;
+    }
+}
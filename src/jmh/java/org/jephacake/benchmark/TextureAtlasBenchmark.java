@@ -0,0 +1,44 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.renderer.TextureAtlas;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the block atlas: decoding and composing every PNG versus mapping the cached atlas file.
+ * Single-shot in a fresh fork is the number that matters for launch time; the averaged modes show steady-state cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SingleShotTime, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TextureAtlasBenchmark {
+    private static final String TEXTURES = "org/jephacake/assets/textures";
+
+    private File cacheDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        cacheDir = Files.createTempDirectory("spacegame-atlas").toFile();
+        TextureAtlas.buildFromPackage(TEXTURES, cacheDir); // populate the cache
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = cacheDir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        cacheDir.delete();
+    }
+
+    @Benchmark
+    public TextureAtlas decode() throws Exception {
+        return TextureAtlas.buildFromPackage(TEXTURES, null);
+    }
+
+    @Benchmark
+    public TextureAtlas cached() throws Exception {
+        return TextureAtlas.buildFromPackage(TEXTURES, cacheDir);
+    }
+}
@@ -0,0 +1,68 @@
+package org.jephacake.benchmark;
+
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global block lookups through {@link World#getBlockGlobal}, both scattered and in scan order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WorldAccessBenchmark {
+    private static final int LOOKUPS = 4096;
+    private static final int RADIUS = 2;
+
+    @Param({"flat", "stress"})
+    public String generator;
+
+    private World world;
+    private final int[] coords = new int[LOOKUPS * 3];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkSupport.init();
+        world = new World(BenchmarkSupport.generator(generator), BenchmarkSupport.tempSaveFile(), RADIUS);
+        BenchmarkSupport.loadCube(world, RADIUS);
+
+        Random r = new Random(BenchmarkSupport.SEED);
+        int span = (2 * RADIUS + 1) * Chunk.SIZE;
+        int min = -RADIUS * Chunk.SIZE;
+        for (int i = 0; i < coords.length; i++) coords[i] = min + r.nextInt(span);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public int randomLookups() {
+        int sum = 0;
+        for (int i = 0; i < coords.length; i += 3) {
+            sum += world.getBlockGlobal(coords[i], coords[i + 1], coords[i + 2]);
+        }
+        return sum;
+    }
+
+    /** One chunk-sized box straddling chunk borders, walked in x-fastest order like the mesher does. */
+    @Benchmark
+    @OperationsPerInvocation(Chunk.SIZE * Chunk.SIZE * Chunk.SIZE)
+    public int scanAcrossBorders() {
+        int sum = 0;
+        int o = -Chunk.SIZE / 2;
+        for (int z = o; z < o + Chunk.SIZE; z++) {
+            for (int y = o; y < o + Chunk.SIZE; y++) {
+                for (int x = o; x < o + Chunk.SIZE; x++) {
+                    sum += world.getBlockGlobal(x, y, z);
+                }
+            }
+        }
+        return sum;
+    }
+}
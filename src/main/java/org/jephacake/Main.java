@@ -2,12 +2,21 @@ package org.jephacake;
 
 import org.jephacake.block.BlockRegistry;
 import org.jephacake.configuration.Options;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.metrics.MetricsExporter;
+import org.jephacake.profiler.Profiler;
+import org.jephacake.replay.ReplayRecorder;
 import org.jephacake.renderer.*;
-import org.jephacake.world.StressTester;
+import org.jephacake.world.RaycastHit;
+import org.jephacake.world.Universe;
+import org.jephacake.world.VoxelCollider;
 import org.jephacake.world.World;
+import org.jephacake.world.WorldGenerator;
 import org.joml.Vector3f;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Random;
 
 public class Main {
 
@@ -15,45 +24,93 @@ public class Main {
 
     public static TextureAtlas atlas;
 
+    private static final int Z_FRAME = Profiler.zone("Main.frame");
+    private static final int Z_INPUT = Profiler.zone("Main.input");
+    private static final int Z_WORLD = Profiler.zone("Main.world");
+    private static final int Z_OVERLAY = Profiler.zone("Main.overlay");
+    private static final int Z_SWAP = Profiler.zone("Main.swap");
+
     public static void main(String[] args) {
 
-        try (WindowManager wm = new WindowManager(Options.WINDOW_WIDTH, Options.WINDOW_HEIGHT, Options.WINDOW_TITLE)) {
+        MetricsExporter metrics = MetricsExporter.start();
+        try (metrics;
+             WindowManager wm = new WindowManager(Options.WINDOW_WIDTH, Options.WINDOW_HEIGHT, Options.WINDOW_TITLE)) {
             Renderer renderer = new Renderer(wm.getFramebufferWidth(), wm.getFramebufferHeight());
+            DebugOverlay overlay = new DebugOverlay();
             Camera cam = wm.getCamera();
             cam.setPosition(new Vector3f(10, 10, 10));
             cam.setYawPitch(-120f, -20f); // point roughly at origin
 
-            atlas = TextureAtlas.buildFromPackage("org/jephacake/assets/textures"); // ensure no padding as other classes expect this to be the case - TODO: remove this option as well as chunk size optionality (sticking with a 16x616x16 approach is clearly the best).
+            atlas = TextureAtlas.buildFromPackage("org/jephacake/assets/textures"); // tiles get extruded padding and a CPU-built mip chain; UV rects already skip the padding
             atlas.uploadToGL();
 
             ///
 
             BlockRegistry.init();
-
-//            World world = new World(atlas, new FlatWorldGenerator(8), new File(ResourceLoader.getJarDirectory() + "/saves/world.dat"), Options.renderDistance);
-
-            World world = new World(atlas, new StressTester(), new File(ResourceLoader.getJarDirectory() + "/saves/world.dat"), Options.renderDistance);
+            BlockRegistry.resolveTextures(atlas::getTileIndex, atlas::getUVRect);
+
+//            World world = new World(new FlatWorldGenerator(8), new File(ResourceLoader.getJarDirectory() + "/saves/world.dat"), Options.renderDistance);
+
+            Universe universe = new Universe();
+            long seed = Options.WORLD_SEED != 0 ? Options.WORLD_SEED : new Random().nextLong();
+            World world = new World(WorldGenerator.named(Options.WORLD_GENERATOR, seed), new File(ResourceLoader.getJarDirectory() + "/saves/world.dat"), Options.renderDistance);
+            universe.addWorld(world);
+            ReplayRecorder recorder = Options.REPLAY_RECORD_FILE == null || Options.REPLAY_RECORD_FILE.isEmpty() ? null
+                    : ReplayRecorder.start(Path.of(Options.REPLAY_RECORD_FILE), Options.WORLD_GENERATOR, seed, Options.renderDistance);
+            if (recorder != null) world.addListener(recorder); // captures setBlock calls
+            cam.setCollider(new VoxelCollider(world));
+            RaycastHit pick = new RaycastHit();
+            UniverseRenderer universeRenderer = new UniverseRenderer(universe, atlas);
             ///
 
             long last = System.nanoTime();
             while (!wm.shouldClose()) {
                 long now = System.nanoTime();
                 float delta = (now - last) / 1_000_000_000f;
+                overlay.recordFrame(now - last);
                 last = now;
+                Profiler.begin(Z_FRAME);
 
+                Profiler.begin(Z_INPUT);
                 wm.pollEvents();
                 wm.updateCamera(delta);
-
+                while (wm.consumeLeftClick()) {
+                    Vector3f eye = cam.getPosition(), dir = cam.getFront();
+                    if (world.raycast(eye.x - world.position.x, eye.y - world.position.y, eye.z - world.position.z,
+                            dir.x, dir.y, dir.z, Options.BLOCK_REACH, pick)) {
+                        world.setBlock(pick.x, pick.y, pick.z, 0);
+                    }
+                }
+                Profiler.end(Z_INPUT);
+
+                Profiler.begin(Z_WORLD);
                 renderer.setView(cam.getViewMatrix());
                 renderer.beginFrame();
                 renderer.setDirectionalLight(new Vector3f(0,0,0), new Vector3f(1,1,0.9f), true);
-                world.updateAndRender(renderer, cam.getPosition().x, cam.getPosition().y, cam.getPosition().z);
+                if (recorder != null) recorder.frame(now, cam.getPosition().x, cam.getPosition().y, cam.getPosition().z, cam.getYaw(), cam.getPitch());
+                universe.update(cam.getPosition().x, cam.getPosition().y, cam.getPosition().z);
+                universeRenderer.render(renderer);
                 renderer.endFrame();
+                Profiler.end(Z_WORLD);
 
+                Profiler.begin(Z_OVERLAY);
+                if (Options.debugMode) overlay.render(wm.getFramebufferWidth(), wm.getFramebufferHeight());
+                Profiler.end(Z_OVERLAY);
+
+                Profiler.begin(Z_SWAP);
                 wm.swapBuffers();
+                Profiler.end(Z_SWAP);
+
+                Profiler.end(Z_FRAME);
+
+                EngineMetrics.FRAMES.inc();
+                EngineMetrics.FRAME_TIME.recordSince(now);
             }
 
-            world.close();
+            if (recorder != null) recorder.close();
+            universe.close();
+            universeRenderer.close();
+            overlay.close();
             renderer.close();
         }
         catch (Exception e) {
@@ -1,5 +1,7 @@
 package org.jephacake.block;
 
+import java.util.function.ToIntFunction;
+
 /**
  * Abstract block. Subclasses should call super(id, name) which will auto-register the block.
  * Block IDs must be > 0. 0 is reserved for air.
@@ -20,7 +22,13 @@ public abstract class Block {
 
     public abstract int getTileForFace(BlockFace face);
 
+    /** Map texture names to atlas tile indices. Only called on clients, after the atlas is built. */
+    public void resolveTextures(ToIntFunction<String> tileIndexByName) {}
+
     public boolean isOpaque() { return true; }
 
+    /** Block light this block emits, 0..15. */
+    public int getLightEmission() { return 0; }
+
     public float[] getTintRGBA() { return new float[] { 1f, 1f, 1f, 1f }; }
 }
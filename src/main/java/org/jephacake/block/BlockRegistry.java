@@ -1,42 +1,83 @@
 package org.jephacake.block;
 
-import org.jephacake.block.blocks.DirtBlock;
-import org.jephacake.block.blocks.GrassBlock;
-import org.jephacake.block.blocks.StoneBlock;
-
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * Block registry mapping id -> Block instance. Blocks auto-register via their constructor.
+ * Built-in blocks are marked {@link RegisterBlock} and registered from a build-time generated index with ids that
+ * stay fixed across versions; blocks constructed any other way get the next id above every assigned one.
+ * Every change invalidates the compiled {@link BlockTable}, which is rebuilt on next use (not inside register: that
+ * runs from the Block constructor, before subclass fields are set); lookups by id read the table instead of the map.
  */
 public final class BlockRegistry {
     private static int incrementingRegisterID = 2; // start at 2, 0=air, 1=debug
 
     private static final Map<Integer, Block> REG = new ConcurrentHashMap<>();
+    private static int pendingId = -1; // set by registerWithId around the constructor call
+    private static IntFunction<float[]> uvRectByTile; // null until textures are resolved
+    private static volatile BlockTable table; // null = stale
 
     private BlockRegistry() {}
 
-    public static void register(Block block) {
+    public static synchronized void register(Block block) {
         if (block == null) throw new IllegalArgumentException("block");
-        block.id = incrementingRegisterID;
+        block.id = pendingId >= 0 ? pendingId : incrementingRegisterID;
+        pendingId = -1;
         System.out.println("Registering block id " + block.getId() + ": " + block.getName());
         Block prev = REG.putIfAbsent(block.getId(), block);
         if (prev != null) {
             throw new IllegalStateException("Block id already registered: " + block.getId() + " (" + prev.getName() + ")");
         }
 
-        incrementingRegisterID++;
+        incrementingRegisterID = Math.max(incrementingRegisterID, block.getId() + 1);
+        table = null;
+    }
+
+    public static Block get(int id) { return table().block(id); }
+    public static Block getOrNull(int id) { return table().block(id); }
+    public static boolean contains(int id) { return table().block(id) != null; }
+
+    public static synchronized void clear() {
+        REG.clear();
+        table = null;
     }
 
-    public static Block get(int id) { return REG.get(id); }
-    public static Block getOrNull(int id) { return REG.get(id); }
-    public static boolean contains(int id) { return REG.containsKey(id); }
-    public static void clear() { REG.clear(); }
+    /** Current property table; immutable, so hold on to it for the length of a pass. */
+    public static BlockTable table() {
+        BlockTable t = table;
+        return t != null ? t : compile();
+    }
 
     public static void init() {
-        new StoneBlock();
-        new DirtBlock();
-        new GrassBlock();
+        GeneratedBlockIndex.registerAll();
+    }
+
+    /** Construct a block that registers itself under a fixed id (used by the generated index). */
+    public static synchronized <B extends Block> B registerWithId(int id, Supplier<B> constructor) {
+        pendingId = id;
+        try {
+            return constructor.get();
+        } finally {
+            pendingId = -1;
+        }
+    }
+
+    /**
+     * Resolve every block's texture names against the atlas and bake the atlas UV rects into the table
+     * (client only; servers never need tiles).
+     */
+    public static synchronized void resolveTextures(ToIntFunction<String> tileIndexByName, IntFunction<float[]> uvRectByTile) {
+        for (Block b : REG.values()) b.resolveTextures(tileIndexByName);
+        BlockRegistry.uvRectByTile = uvRectByTile;
+        table = null;
+    }
+
+    private static synchronized BlockTable compile() {
+        if (table == null) table = BlockTable.compile(REG.values(), uvRectByTile);
+        return table;
     }
 }
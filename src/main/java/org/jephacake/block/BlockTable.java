@@ -0,0 +1,115 @@
+package org.jephacake.block;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable, id-indexed copy of every registered block's properties, for per-voxel loops (meshing, light, collision)
+ * that shouldn't box ids into a map lookup or make virtual calls per face. Compiled by {@link BlockRegistry} whenever
+ * its contents or texture resolution change; readers take {@link BlockRegistry#table()} once per pass and keep it.
+ *
+ * Ids outside the table (including air, 0) read as an absent block: not opaque, not solid, no light, tile -1.
+ */
+public final class BlockTable {
+    private static final int FACES = 6;
+
+    private final Block[] blocks;
+    private final long[] opaque;
+    private final long[] solid;
+    private final byte[] emission;
+    private final int[] faceTiles;  // [id * 6 + face]
+    private final float[] uvRects;  // [(id * 6 + face) * 4 + k] = {u0, v0, u1, v1}
+    private final float[] tints;    // [id * 4 + k] = RGBA
+    private long fingerprint;       // set once by compile
+
+    private BlockTable(int size) {
+        blocks = new Block[size];
+        opaque = new long[(size + 63) >>> 6];
+        solid = new long[(size + 63) >>> 6];
+        emission = new byte[size];
+        faceTiles = new int[size * FACES];
+        uvRects = new float[size * FACES * 4];
+        tints = new float[size * 4];
+    }
+
+    /**
+     * @param uvRectByTile atlas UV rect {u0,v0,u1,v1} for a tile index, or null when textures aren't resolved
+     */
+    static BlockTable compile(Collection<Block> registered, IntFunction<float[]> uvRectByTile) {
+        int size = 1;
+        for (Block b : registered) size = Math.max(size, b.getId() + 1);
+        BlockTable t = new BlockTable(size);
+        Arrays.fill(t.faceTiles, -1);
+
+        for (Block b : registered) {
+            int id = b.getId();
+            t.blocks[id] = b;
+            if (b.isOpaque()) t.opaque[id >>> 6] |= 1L << id;
+            t.solid[id >>> 6] |= 1L << id; // every block is a full cube for now
+            t.emission[id] = (byte) b.getLightEmission();
+            float[] tint = b.getTintRGBA();
+            System.arraycopy(tint, 0, t.tints, id * 4, 4);
+            for (BlockFace face : BlockFace.values()) {
+                int slot = id * FACES + face.ordinal();
+                int tile = b.getTileForFace(face);
+                t.faceTiles[slot] = tile;
+                if (uvRectByTile != null && tile >= 0) System.arraycopy(uvRectByTile.apply(tile), 0, t.uvRects, slot * 4, 4);
+            }
+        }
+        t.fingerprint = t.hashContents();
+        return t;
+    }
+
+    private long hashContents() {
+        long h = Arrays.hashCode(opaque);
+        h = h * 31 + Arrays.hashCode(solid);
+        h = h * 31 + Arrays.hashCode(emission);
+        h = h * 31 + Arrays.hashCode(faceTiles);
+        h = h * 31 + Arrays.hashCode(uvRects);
+        h = h * 31 + Arrays.hashCode(tints);
+        return h;
+    }
+
+    /**
+     * Hash of every property in the table (not the Block objects), so data derived from it, like cached meshes,
+     * can tell whether it was built from the same blocks, textures and atlas layout.
+     */
+    public long fingerprint() { return fingerprint; }
+
+    /** Number of id slots (highest registered id + 1). */
+    public int size() { return blocks.length; }
+
+    public Block block(int id) {
+        return id >= 0 && id < blocks.length ? blocks[id] : null;
+    }
+
+    /** Hides the faces of neighbouring blocks and stops light. */
+    public boolean isOpaque(int id) {
+        return (id >>> 6) < opaque.length && (opaque[id >>> 6] & 1L << id) != 0;
+    }
+
+    /** Blocks movement and rays. */
+    public boolean isSolid(int id) {
+        return (id >>> 6) < solid.length && (solid[id >>> 6] & 1L << id) != 0;
+    }
+
+    public int lightEmission(int id) {
+        return id >= 0 && id < emission.length ? emission[id] : 0;
+    }
+
+    /** Atlas tile of a face ({@link BlockFace#ordinal()}), -1 if unresolved. */
+    public int tile(int id, int face) {
+        return faceTiles[id * FACES + face];
+    }
+
+    /** Component {@code k} (0..3 = u0, v0, u1, v1) of a face's atlas UV rect. Id must be a registered block. */
+    public float uv(int id, int face, int k) {
+        return uvRects[(id * FACES + face) * 4 + k];
+    }
+
+    /** Component {@code k} (0..3 = RGBA) of a block's tint. Id must be a registered block. */
+    public float tint(int id, int k) {
+        return tints[id * 4 + k];
+    }
+}
@@ -0,0 +1,14 @@
+package org.jephacake.block;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a block class for automatic registration. The build's annotation processor lists every marked class, with
+ * its persisted id, in a generated index that {@link BlockRegistry#init()} runs; nothing is scanned at startup.
+ * The class must be public, concrete, top-level and have a public no-arg constructor.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RegisterBlock {
+}
@@ -1,28 +1,44 @@
 package org.jephacake.block;
 
 import java.util.Arrays;
+import java.util.function.ToIntFunction;
 
 /**
- * Simple cube block. Provide per-face tile indices (length 6) OR convenience constructor (top,bottom,side).
+ * Simple cube block. Provide per-face texture names (length 6) OR convenience constructor (top,bottom,side).
+ * Texture names are resolved to atlas tile indices by {@link BlockRegistry#resolveTextures}; until then (and on a
+ * headless server, forever) {@link #getTileForFace} returns -1.
  * When constructed it auto-registers via Block super constructor.
  */
 public class SimpleBlock extends Block {
-    private final int[] perFaceTile; // index per BlockFace.ordinal()
+    private final String[] perFaceTexture; // index per BlockFace.ordinal()
+    private final int[] perFaceTile = { -1, -1, -1, -1, -1, -1 };
     private final float[] tint;
     private final boolean opaque;
+    private final int lightEmission;
 
-    public SimpleBlock(String name, int topTile, int bottomTile, int sideTile) {
-        this(1, name, new int[] { sideTile, sideTile, bottomTile, topTile, sideTile, sideTile }, new float[]{1,1,1,1}, true);
+    public SimpleBlock(String name, String topTexture, String bottomTexture, String sideTexture) {
+        this(1, name, new String[] { sideTexture, sideTexture, bottomTexture, topTexture, sideTexture, sideTexture }, new float[]{1,1,1,1}, true);
     }
 
-    public SimpleBlock(int id, String name, int[] perFaceTiles, float[] tintRGBA, boolean opaque) {
+    public SimpleBlock(int id, String name, String[] perFaceTextures, float[] tintRGBA, boolean opaque) {
+        this(id, name, perFaceTextures, tintRGBA, opaque, 0);
+    }
+
+    public SimpleBlock(int id, String name, String[] perFaceTextures, float[] tintRGBA, boolean opaque, int lightEmission) {
         super(id, name);
-        if (perFaceTiles == null || perFaceTiles.length != 6) throw new IllegalArgumentException("perFaceTiles length must be 6");
-        this.perFaceTile = Arrays.copyOf(perFaceTiles, 6);
+        if (lightEmission < 0 || lightEmission > 15) throw new IllegalArgumentException("lightEmission must be 0..15");
+        this.lightEmission = lightEmission;
+        if (perFaceTextures == null || perFaceTextures.length != 6) throw new IllegalArgumentException("perFaceTextures length must be 6");
+        this.perFaceTexture = Arrays.copyOf(perFaceTextures, 6);
         this.tint = (tintRGBA == null) ? new float[]{1,1,1,1} : Arrays.copyOf(tintRGBA, 4);
         this.opaque = opaque;
     }
 
+    @Override
+    public void resolveTextures(ToIntFunction<String> tileIndexByName) {
+        for (int i = 0; i < 6; i++) perFaceTile[i] = tileIndexByName.applyAsInt(perFaceTexture[i]);
+    }
+
     @Override
     public int getTileForFace(BlockFace face) {
         return perFaceTile[face.ordinal()];
@@ -33,4 +49,7 @@ public class SimpleBlock extends Block {
 
     @Override
     public boolean isOpaque() { return opaque; }
+
+    @Override
+    public int getLightEmission() { return lightEmission; }
 }
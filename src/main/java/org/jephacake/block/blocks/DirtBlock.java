@@ -1,12 +1,11 @@
 package org.jephacake.block.blocks;
 
+import org.jephacake.block.RegisterBlock;
 import org.jephacake.block.SimpleBlock;
 
-import static org.jephacake.Main.atlas;
-
+@RegisterBlock
 public class DirtBlock extends SimpleBlock {
     public DirtBlock() {
-        int dirtTile = atlas.getTileIndex("dirt");
-        super("dirt", dirtTile, dirtTile, dirtTile);
+        super("dirt", "dirt", "dirt", "dirt");
     }
 }
@@ -1,12 +1,11 @@
 package org.jephacake.block.blocks;
 
+import org.jephacake.block.RegisterBlock;
 import org.jephacake.block.SimpleBlock;
 
-import static org.jephacake.Main.atlas;
-
+@RegisterBlock
 public class StoneBlock extends SimpleBlock {
     public StoneBlock() {
-        int stoneTile = atlas.getTileIndex("stone");
-        super("stone", stoneTile, stoneTile, stoneTile);
+        super("stone", "stone", "stone", "stone");
     }
 }
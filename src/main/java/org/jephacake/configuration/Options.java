@@ -10,6 +10,31 @@ public class Options {
 //    public static float MOVEMENT_SPEED = 5.0f; // units per second
 //    public static final int TEXTURE_ATLAS_PADDING = 0;
     public static int renderDistance = 8;
-    public static final boolean debugMode = true; //NOTE THIS IS BROKEN AT THE MOMENT
+    public static boolean debugMode = true; // performance overlay, toggled with F3
     public static final int MAX_MESH_UPLOADS_PER_FRAME = 10;
+    public static int CHUNK_UNLOAD_MARGIN = 2; // chunks unload only beyond renderDistance + this (hysteresis)
+    public static long CHUNK_CACHE_BYTES = 64L * 1024 * 1024; // per world: unloaded chunks kept in RAM for reloads
+    public static long MESH_CACHE_BYTES = 64L * 1024 * 1024; // per world renderer: GPU meshes of unloaded chunks kept
+    public static boolean FACE_INSTANCED_CHUNKS = false; // draw chunks as one 8-byte record per face expanded by the vertex shader (see ChunkMesher.FaceData); the mesh disk cache only holds classic meshes
+    public static long MESH_DISK_CACHE_BYTES = 128L * 1024 * 1024; // per world: meshes saved next to the world, <=0 = off
+    public static float BLOCK_REACH = 8f; // blocks; max distance for picking with the mouse
+    public static int SERVER_TICK_RATE = 20; // ticks per second for DedicatedServer
+    public static int SERVER_AUTOSAVE_SECONDS = 300; // <=0 = only save on shutdown
+    public static int JOB_THREADS = 0; // CPU job workers, 0 = cores - 1 (see org.jephacake.jobs.JobSystem)
+    public static int LIGHT_NODES_PER_JOB = 32768; // cap on cells one lighting job visits before yielding
+    public static String WORLD_GENERATOR = "stress"; // client world: "terrain", "stress" or "flat" (see WorldGenerator.named)
+    public static long WORLD_SEED = 0; // seed for the client's world generator, 0 = random
+    public static String REPLAY_RECORD_FILE = null; // e.g. "replays/session.sgr" to record camera + edits (see org.jephacake.replay)
+
+    // metrics export (see org.jephacake.metrics.MetricsExporter)
+    public static boolean METRICS_JMX = true;
+    public static String METRICS_FILE = null; // e.g. "metrics.prom", null/empty = disabled
+    public static int METRICS_FILE_INTERVAL_MS = 5000;
+    public static int METRICS_PORT = 0; // >0 = serve a text dump on 127.0.0.1:<port>
+
+    // chunk streaming (see org.jephacake.network.ChunkServer)
+    public static int NET_PORT = 25570;
+    public static long NET_SEND_BUDGET_BYTES_PER_SEC = 8L * 1024 * 1024; // per connection, <=0 = unlimited
+    public static int NET_HIGH_WATER_BYTES = 1024 * 1024; // stop encoding chunks for a connection above this
+    public static int NET_MAX_PENDING_REQUESTS = 4096; // stop reading from a connection above this
 }
@@ -0,0 +1,125 @@
+package org.jephacake.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One unit of work in a {@link JobQueue}. Becomes ready once every dependency has finished; if a dependency
+ * fails or is cancelled, this job is cancelled without running (and so on down the chain).
+ *
+ * Created by {@link JobQueue#newJob}, started by {@link #schedule(Job...)}; {@link JobQueue#submit} does both.
+ */
+public final class Job {
+    final JobQueue queue;
+    final JobSystem.Priority priority;
+    private final Runnable task;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /** Unfinished dependencies, plus one held by {@link #schedule} until every dependency is registered. */
+    private final AtomicInteger waitingOn = new AtomicInteger(1);
+    private List<Job> dependents = new ArrayList<>(2); // guarded by this; null once finished
+    private boolean failed; // guarded by this; set when dependents is cleared, before the future completes
+    private volatile boolean scheduled;
+    private volatile boolean cancelled;
+    private volatile boolean dependencyFailed;
+    long readyAt;
+
+    Job(JobQueue queue, JobSystem.Priority priority, Runnable task) {
+        this.queue = queue;
+        this.priority = priority;
+        this.task = task;
+    }
+
+    /** Start once all {@code dependencies} (may be null entries) have finished. Call at most once. */
+    public Job schedule(Job... dependencies) {
+        if (scheduled) throw new IllegalStateException("Job already scheduled");
+        scheduled = true;
+        queue.submitted();
+        for (Job dep : dependencies) {
+            if (dep == null) continue;
+            waitingOn.incrementAndGet();
+            if (!dep.addDependent(this)) dependencyFinished(dep.failed());
+        }
+        release();
+        return this;
+    }
+
+    /** Skip the task if it has not started yet; dependents are cancelled too. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /** Completes when the task ran, failed, or was cancelled (exceptionally for the last two). */
+    public CompletableFuture<Void> future() {
+        return future;
+    }
+
+    /**
+     * Wait for completion, ignoring failure and cancellation. Blocks the calling thread without running other jobs,
+     * so don't call it from a CPU worker for a job that may still be queued behind it.
+     */
+    public void awaitQuietly() {
+        try {
+            future.join();
+        } catch (RuntimeException ignored) {}
+    }
+
+    private synchronized boolean addDependent(Job child) {
+        if (dependents == null) return false;
+        dependents.add(child);
+        return true;
+    }
+
+    /** Whether this job finished failed or cancelled; only meaningful once {@link #addDependent} returned false. */
+    private synchronized boolean failed() {
+        return failed;
+    }
+
+    private void dependencyFinished(boolean failed) {
+        if (failed) dependencyFailed = true;
+        release();
+    }
+
+    private void release() {
+        if (waitingOn.decrementAndGet() == 0) queue.system.ready(this);
+    }
+
+    /** Runs the task on the calling worker thread (or skips it) and releases dependents. */
+    void run() {
+        if (cancelled || dependencyFailed) {
+            finish(new CancellationException());
+            return;
+        }
+        long start = System.nanoTime();
+        queue.started(start - readyAt);
+        Throwable error = null;
+        try {
+            task.run();
+        } catch (Throwable t) {
+            t.printStackTrace();
+            error = t;
+        }
+        queue.finished(System.nanoTime() - start);
+        finish(error);
+    }
+
+    private void finish(Throwable error) {
+        List<Job> children;
+        synchronized (this) {
+            children = dependents;
+            dependents = null;
+            failed = error != null; // a late schedule() must see the failure even before the future completes
+        }
+        if (error == null) future.complete(null);
+        else future.completeExceptionally(error);
+        queue.completed(error != null);
+        for (Job child : children) child.dependencyFinished(error != null);
+    }
+}
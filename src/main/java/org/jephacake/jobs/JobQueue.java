@@ -0,0 +1,112 @@
+package org.jephacake.jobs;
+
+import org.jephacake.metrics.Counter;
+import org.jephacake.metrics.Gauge;
+import org.jephacake.metrics.LatencyHistogram;
+import org.jephacake.metrics.MetricsRegistry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named stream of jobs ("generate", "mesh", "save", ...) on a {@link JobSystem}. CPU queues share the
+ * work-stealing pool; I/O queues run each job on its own virtual thread. Every queue exports
+ * {@code <system>_<name>_*} metrics: submitted/failed counts, pending and running gauges, wait (ready to start)
+ * and run time histograms, and utilisation as a percentage of the CPU pool's capacity (of one thread for I/O queues).
+ */
+public final class JobQueue {
+    final JobSystem system;
+    final String name;
+    final boolean io;
+
+    private final Counter submitted;
+    private final Counter failed;
+    private final Gauge pending;
+    private final Gauge running;
+    private final LatencyHistogram waitTime;
+    private final LatencyHistogram runTime;
+    private final LongAdder busyNanos = new LongAdder();
+    private long lastBusy;
+    private long lastSample = System.nanoTime();
+
+    JobQueue(JobSystem system, String name, boolean io) {
+        this.system = system;
+        this.name = name;
+        this.io = io;
+        String p = system.name + "_" + name + "_";
+        submitted = MetricsRegistry.counter(p + "submitted_total", "Jobs submitted to the " + name + " queue");
+        failed = MetricsRegistry.counter(p + "failed_total", "Jobs of the " + name + " queue that threw or were cancelled");
+        pending = MetricsRegistry.gauge(p + "pending", "Jobs of the " + name + " queue submitted but not finished");
+        running = MetricsRegistry.gauge(p + "running", "Jobs of the " + name + " queue currently executing");
+        waitTime = MetricsRegistry.histogram(p + "wait_seconds", "Time " + name + " jobs spent ready but not running");
+        runTime = MetricsRegistry.histogram(p + "run_seconds", "Execution time of " + name + " jobs");
+        MetricsRegistry.gauge(p + "utilization_percent", "Share of worker capacity spent on " + name + " jobs since the last read",
+                this::sampleUtilization);
+    }
+
+    /** Create a job without starting it; call {@link Job#schedule} when ready. */
+    public Job newJob(JobSystem.Priority priority, Runnable task) {
+        return new Job(this, priority, task);
+    }
+
+    /** Create and schedule a job that runs after {@code dependencies}. */
+    public Job submit(JobSystem.Priority priority, Runnable task, Job... dependencies) {
+        return newJob(priority, task).schedule(dependencies);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Jobs submitted so far. */
+    public long getSubmitted() {
+        return submitted.getCount();
+    }
+
+    /** Jobs submitted but not finished (including those still waiting on dependencies). */
+    public long getPending() {
+        return pending.getValue();
+    }
+
+    /** Time jobs spent ready but not running. */
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    // --- bookkeeping, called by Job ---
+
+    void submitted() {
+        submitted.inc();
+        pending.inc();
+    }
+
+    void started(long waitNanos) {
+        running.inc();
+        waitTime.record(waitNanos);
+    }
+
+    void finished(long runNanos) {
+        running.dec();
+        runTime.record(runNanos);
+        busyNanos.add(runNanos);
+    }
+
+    void completed(boolean failure) {
+        pending.dec();
+        if (failure) failed.inc();
+    }
+
+    private synchronized long sampleUtilization() {
+        long now = System.nanoTime();
+        long busy = busyNanos.sum();
+        long elapsed = now - lastSample;
+        int capacity = io ? 1 : system.getParallelism();
+        long pct = elapsed > 0 ? (busy - lastBusy) * 100 / (elapsed * capacity) : 0;
+        lastBusy = busy;
+        lastSample = now;
+        return pct;
+    }
+}
@@ -0,0 +1,125 @@
+package org.jephacake.jobs;
+
+import org.jephacake.configuration.Options;
+import org.jephacake.metrics.Gauge;
+import org.jephacake.metrics.MetricsRegistry;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Engine-wide job scheduling.
+ *
+ * CPU work runs on a work-stealing {@link ForkJoinPool} sized to the machine (one core is left for the
+ * render/main thread). Jobs carry a {@link Priority}: ready jobs wait in one queue per priority and each pool
+ * task takes the most urgent job available, so near chunks and edits overtake background work. Jobs can
+ * depend on other jobs (e.g. generate -> light -> mesh) and only become ready once those have finished.
+ * Blocking disk I/O goes to {@link #ioQueue I/O queues}, which run every job on its own virtual thread
+ * instead of tying up a CPU worker.
+ */
+public final class JobSystem implements AutoCloseable {
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    private static volatile JobSystem shared;
+
+    /** The engine's job system, created on first use with {@link Options#JOB_THREADS} workers. */
+    public static JobSystem shared() {
+        JobSystem s = shared;
+        if (s == null) {
+            synchronized (JobSystem.class) {
+                s = shared;
+                if (s == null) {
+                    int threads = Options.JOB_THREADS > 0 ? Options.JOB_THREADS
+                            : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+                    shared = s = new JobSystem("jobs", threads);
+                }
+            }
+        }
+        return s;
+    }
+
+    final String name;
+    private final int parallelism;
+    private final ForkJoinPool cpuPool;
+    private final ExecutorService ioExecutor;
+    private final ConcurrentLinkedQueue<Job>[] ready;
+    private final Gauge[] readyDepth = new Gauge[Priority.values().length]; // size() of a linked queue is O(n)
+    private final Map<String, JobQueue> queues = new ConcurrentHashMap<>();
+    private final Runnable runNext = this::runNext;
+
+    /** @param name metric name prefix; give every instance a distinct one */
+    public JobSystem(String name, int parallelism) {
+        this.name = name;
+        this.parallelism = parallelism;
+        this.cpuPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName(name + "-cpu-" + t.getPoolIndex());
+            return t;
+        }, null, true);
+        this.ioExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-io-", 0).factory());
+        @SuppressWarnings({"unchecked", "rawtypes"}) // no generic array creation
+        ConcurrentLinkedQueue<Job>[] queues = new ConcurrentLinkedQueue[Priority.values().length];
+        this.ready = queues;
+        for (int i = 0; i < ready.length; i++) ready[i] = new ConcurrentLinkedQueue<>();
+
+        MetricsRegistry.gauge(name + "_cpu_threads", "Worker threads of the CPU job pool", () -> this.parallelism);
+        MetricsRegistry.gauge(name + "_steals", "Pool tasks a CPU worker took from another queue (estimate; includes external submissions)",
+                cpuPool::getStealCount);
+        for (Priority p : Priority.values()) {
+            readyDepth[p.ordinal()] = MetricsRegistry.gauge(name + "_ready_" + p.name().toLowerCase(), "Ready " + p + " priority CPU jobs waiting for a worker");
+        }
+    }
+
+    /** The CPU queue called {@code name}, created on first use. */
+    public JobQueue queue(String name) {
+        return queues.computeIfAbsent(name, n -> new JobQueue(this, n, false));
+    }
+
+    /** The blocking-I/O queue called {@code name}, created on first use. */
+    public JobQueue ioQueue(String name) {
+        return queues.computeIfAbsent(name, n -> new JobQueue(this, n, true));
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /** Every queue created so far. */
+    public Collection<JobQueue> getQueues() {
+        return queues.values();
+    }
+
+    /** Called once a job's dependencies are done. */
+    void ready(Job job) {
+        job.readyAt = System.nanoTime();
+        if (job.queue.io) {
+            ioExecutor.execute(job::run);
+        } else {
+            readyDepth[job.priority.ordinal()].inc(); // before the add, so a worker's dec can't run first
+            ready[job.priority.ordinal()].add(job);
+            cpuPool.execute(runNext);
+        }
+    }
+
+    /** One pool task per ready job; each runs whichever job is most urgent at the time it starts. */
+    private void runNext() {
+        for (int i = 0; i < ready.length; i++) {
+            Job job = ready[i].poll();
+            if (job != null) {
+                readyDepth[i].dec();
+                job.run();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        cpuPool.shutdownNow();
+        ioExecutor.shutdownNow();
+        synchronized (JobSystem.class) {
+            if (shared == this) shared = null;
+        }
+    }
+}
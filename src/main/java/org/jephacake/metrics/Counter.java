@@ -0,0 +1,31 @@
+package org.jephacake.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter. Backed by a LongAdder so hot paths on many threads don't contend on one cache line.
+ */
+public final class Counter implements Metric, CounterMBean {
+    private final String name;
+    private final String help;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void inc() { value.increment(); }
+    public void add(long n) { value.add(n); }
+
+    @Override public long getCount() { return value.sum(); }
+    @Override public String getName() { return name; }
+    @Override public String getHelp() { return help; }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(getCount()).append('\n');
+    }
+}
@@ -0,0 +1,82 @@
+package org.jephacake.metrics;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * The engine's own instruments, created once so hot paths only touch a static field.
+ */
+public final class EngineMetrics {
+    private EngineMetrics() {}
+
+    // --- world ---
+    public static final Gauge CHUNKS_LOADED = MetricsRegistry.gauge("chunks_loaded", "Chunks currently held in memory");
+    public static final Counter CHUNKS_GENERATED = MetricsRegistry.counter("chunks_generated_total", "Chunks produced by a world generator");
+    public static final Counter CHUNKS_LOADED_FROM_SAVE = MetricsRegistry.counter("chunks_loaded_from_save_total", "Chunks restored from saved voxel data");
+    public static final Counter CHUNKS_LOADED_FROM_CACHE = MetricsRegistry.counter("chunks_loaded_from_cache_total", "Chunks taken back from the recently-unloaded cache");
+    public static final Gauge CHUNK_CACHE_BYTES = MetricsRegistry.gauge("chunk_cache_bytes", "Voxel and light bytes held by recently-unloaded chunk caches");
+    public static final Counter CHUNKS_UNLOADED = MetricsRegistry.counter("chunks_unloaded_total", "Chunks unloaded for leaving render distance");
+    public static final LatencyHistogram CHUNK_GENERATE_TIME = MetricsRegistry.histogram("chunk_generate_seconds", "Time to generate one chunk");
+    public static final Gauge GENERATION_PROTO_CHUNKS = MetricsRegistry.gauge("generation_proto_chunks", "Partly generated chunks kept for their neighbours' decoration");
+    public static final Gauge GENERATION_COLUMNS = MetricsRegistry.gauge("generation_columns", "Per-column generator data kept for chunk generation");
+    public static final Counter LIGHT_NODES = MetricsRegistry.counter("light_nodes_total", "Cells visited by light propagation");
+    public static final LatencyHistogram LIGHT_STEP_TIME = MetricsRegistry.histogram("light_step_seconds", "Time of one bounded light propagation step");
+
+    // --- meshing ---
+    public static final Gauge MESH_JOBS_PENDING = MetricsRegistry.gauge("mesh_jobs_pending", "Mesh jobs submitted but not yet finished");
+    public static final Gauge MESH_QUEUE_DEPTH = MetricsRegistry.gauge("mesh_queue_depth", "Finished meshes waiting in completedMeshes for upload");
+    public static final LatencyHistogram MESH_BUILD_TIME = MetricsRegistry.histogram("mesh_build_seconds", "CPU time to mesh one chunk");
+    public static final Gauge CHUNKS_MESHED = MetricsRegistry.gauge("chunks_meshed", "Chunks that currently own a GPU mesh");
+    public static final Counter MESH_RESULTS_DROPPED = MetricsRegistry.counter("mesh_results_dropped_total", "Finished meshes discarded because their chunk was unloaded");
+    public static final Gauge MESH_CACHE_BYTES = MetricsRegistry.gauge("mesh_cache_bytes", "GPU bytes held by meshes of unloaded chunks kept for reuse");
+    public static final Counter MESH_CACHE_HITS = MetricsRegistry.counter("mesh_cache_hits_total", "Reloaded chunks that got their previous GPU mesh back");
+    public static final Counter MESH_DISK_CACHE_HITS = MetricsRegistry.counter("mesh_disk_cache_hits_total", "Chunk meshes taken from the on-disk mesh cache instead of meshing");
+    public static final Counter MESH_DISK_CACHE_MISSES = MetricsRegistry.counter("mesh_disk_cache_misses_total", "Mesh jobs that found no matching on-disk cached mesh");
+    public static final Counter MESH_RESULTS_STALE = MetricsRegistry.counter("mesh_results_stale_total", "Finished meshes discarded because their chunk changed while meshing");
+
+    // --- GPU uploads ---
+    public static final Counter MESH_UPLOADS = MetricsRegistry.counter("mesh_uploads_total", "Chunk meshes uploaded to the GPU");
+    public static final Counter MESH_UPLOAD_BYTES = MetricsRegistry.counter("mesh_upload_bytes_total", "Bytes of vertex and index data uploaded");
+    public static final LatencyHistogram MESH_UPLOAD_TIME = MetricsRegistry.histogram("mesh_upload_seconds", "Time to upload one chunk mesh");
+    public static final Gauge MESH_UPLOADS_LAST_FRAME = MetricsRegistry.gauge("mesh_uploads_last_frame", "Meshes uploaded during the last frame");
+
+    // --- rendering / main loop ---
+    public static final Counter FRAMES = MetricsRegistry.counter("frames_total", "Frames rendered");
+    public static final LatencyHistogram FRAME_TIME = MetricsRegistry.histogram("frame_seconds", "Wall time of one main loop iteration");
+    public static final Gauge CHUNKS_RENDERED = MetricsRegistry.gauge("chunks_rendered", "Chunks drawn in the last frame");
+    public static final Gauge VERTICES_RENDERED = MetricsRegistry.gauge("vertices_rendered", "Vertices drawn in the last frame");
+
+    // --- server ---
+    public static final Counter SERVER_TICKS = MetricsRegistry.counter("server_ticks_total", "Server ticks completed");
+    public static final LatencyHistogram SERVER_TICK_TIME = MetricsRegistry.histogram("server_tick_seconds", "Time to update every hosted world once");
+    public static final Counter SERVER_TICK_OVERRUNS = MetricsRegistry.counter("server_tick_overruns_total", "Ticks that fell more than one tick period behind");
+
+    // --- chunk streaming ---
+    public static final Gauge NET_CONNECTIONS = MetricsRegistry.gauge("net_connections", "Open chunk streaming connections");
+    public static final Counter NET_CHUNKS_SENT = MetricsRegistry.counter("net_chunks_sent_total", "Chunks encoded and queued for clients");
+    public static final Counter NET_DELTAS_SENT = MetricsRegistry.counter("net_block_deltas_sent_total", "Block deltas queued for clients");
+    public static final Counter NET_BYTES_SENT = MetricsRegistry.counter("net_bytes_sent_total", "Bytes written to client sockets");
+    public static final Counter NET_BYTES_RECEIVED = MetricsRegistry.counter("net_bytes_received_total", "Bytes read from client sockets");
+    public static final Counter NET_BACKPRESSURE_STALLS = MetricsRegistry.counter("net_backpressure_stalls_total", "Times a connection hit its high-water mark");
+
+    // --- memory ---
+    private static final BufferPoolMXBean DIRECT_POOL = directPool(); // looked up once: the gauge is read every frame by the overlay
+    public static final Gauge HEAP_USED = MetricsRegistry.gauge("jvm_heap_used_bytes", "Used heap",
+            () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+    public static final Gauge DIRECT_USED = MetricsRegistry.gauge("jvm_direct_used_bytes", "Used direct (NIO) buffer memory",
+            EngineMetrics::directMemoryUsed);
+
+    /** Forces class initialisation so every instrument above exists before exporters start. */
+    public static void init() {}
+
+    private static long directMemoryUsed() {
+        return DIRECT_POOL != null ? DIRECT_POOL.getMemoryUsed() : 0;
+    }
+
+    private static BufferPoolMXBean directPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) return pool;
+        }
+        return null;
+    }
+}
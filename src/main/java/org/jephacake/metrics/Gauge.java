@@ -0,0 +1,41 @@
+package org.jephacake.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Point-in-time value. Either set/adjusted directly (queue depths, per-frame totals)
+ * or sampled from a supplier when read (memory usage, map sizes).
+ */
+public final class Gauge implements Metric, GaugeMBean {
+    private final String name;
+    private final String help;
+    private final AtomicLong value = new AtomicLong();
+    private final LongSupplier supplier; // null = value is set explicitly
+
+    Gauge(String name, String help, LongSupplier supplier) {
+        this.name = name;
+        this.help = help;
+        this.supplier = supplier;
+    }
+
+    public void set(long v) { value.set(v); }
+    public void inc() { value.incrementAndGet(); }
+    public void dec() { value.decrementAndGet(); }
+    public void add(long delta) { value.addAndGet(delta); }
+
+    @Override
+    public long getValue() {
+        return supplier != null ? supplier.getAsLong() : value.get();
+    }
+
+    @Override public String getName() { return name; }
+    @Override public String getHelp() { return help; }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(getValue()).append('\n');
+    }
+}
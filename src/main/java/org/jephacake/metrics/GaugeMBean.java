@@ -0,0 +1,6 @@
+package org.jephacake.metrics;
+
+/** JMX view of a {@link Gauge}. */
+public interface GaugeMBean {
+    long getValue();
+}
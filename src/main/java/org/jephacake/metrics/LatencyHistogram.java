@@ -0,0 +1,96 @@
+package org.jephacake.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ * Bucket b holds samples in [2^(b-1), 2^b) ns, so recording is a leading-zero count plus one atomic increment.
+ * Percentiles are therefore upper bounds accurate to within 2x, which is plenty for spotting spikes.
+ */
+public final class LatencyHistogram implements Metric, LatencyHistogramMBean {
+    private static final int BUCKETS = 40; // top bucket starts at ~275s; anything longer is clamped into it
+
+    private final String name;
+    private final String help;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    LatencyHistogram(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int b = 64 - Long.numberOfLeadingZeros(nanos);
+        if (b >= BUCKETS) b = BUCKETS - 1;
+        buckets.incrementAndGet(b);
+        count.increment();
+        sumNanos.add(nanos);
+        long m;
+        while (nanos > (m = maxNanos.get())) {
+            if (maxNanos.compareAndSet(m, nanos)) break;
+        }
+    }
+
+    /** Convenience for {@code long t0 = System.nanoTime(); ...; hist.recordSince(t0);}. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** Upper bound (in ns) of the bucket containing quantile q (0..1). */
+    public long percentileNanos(double q) {
+        long total = 0;
+        long[] snap = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) { snap[i] = buckets.get(i); total += snap[i]; }
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snap[i];
+            if (seen >= target) return Math.min(upperBound(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) - 1;
+    }
+
+    public long getSumNanos() { return sumNanos.sum(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    @Override public long getCount() { return count.sum(); }
+
+    @Override
+    public double getMeanMicros() {
+        long c = getCount();
+        return c == 0 ? 0 : getSumNanos() / (double) c / 1_000.0;
+    }
+
+    @Override public double getP50Micros() { return percentileNanos(0.50) / 1_000.0; }
+    @Override public double getP99Micros() { return percentileNanos(0.99) / 1_000.0; }
+    @Override public double getMaxMicros() { return getMaxNanos() / 1_000.0; }
+
+    @Override public String getName() { return name; }
+    @Override public String getHelp() { return help; }
+
+    @Override
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            cumulative += buckets.get(i);
+            out.append(name).append("_bucket{le=\"").append((upperBound(i) + 1) / 1e9).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets.get(BUCKETS - 1);
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum ").append(getSumNanos() / 1e9).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+}
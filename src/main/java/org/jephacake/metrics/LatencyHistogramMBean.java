@@ -0,0 +1,10 @@
+package org.jephacake.metrics;
+
+/** JMX view of a {@link LatencyHistogram}. All times are in microseconds. */
+public interface LatencyHistogramMBean {
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getMaxMicros();
+}
@@ -0,0 +1,12 @@
+package org.jephacake.metrics;
+
+/**
+ * Common shape of every registered metric. Names follow Prometheus conventions (snake_case, unit suffix).
+ */
+public interface Metric {
+    String getName();
+    String getHelp();
+
+    /** Append this metric in Prometheus text exposition format. */
+    void writePrometheus(StringBuilder out);
+}
@@ -0,0 +1,85 @@
+package org.jephacake.metrics;
+
+import org.jephacake.configuration.Options;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link MetricsRegistry} according to {@link Options}:
+ *  - JMX MBeans (METRICS_JMX)
+ *  - a Prometheus text file rewritten every METRICS_FILE_INTERVAL_MS (METRICS_FILE), e.g. for node_exporter's textfile collector
+ *  - a loopback socket that writes one text dump per connection (METRICS_PORT), e.g. {@code nc 127.0.0.1 9400}
+ * All exporters run on daemon threads and read metrics without locking.
+ */
+public final class MetricsExporter implements AutoCloseable {
+    private ScheduledExecutorService scheduler;
+    private ServerSocket serverSocket;
+
+    public static MetricsExporter start() {
+        EngineMetrics.init();
+        MetricsExporter exporter = new MetricsExporter();
+        if (Options.METRICS_JMX) MetricsRegistry.publishJmx();
+        if (Options.METRICS_FILE != null && !Options.METRICS_FILE.isEmpty()) exporter.startFileExport(Paths.get(Options.METRICS_FILE));
+        if (Options.METRICS_PORT > 0) exporter.startSocketExport(Options.METRICS_PORT);
+        return exporter;
+    }
+
+    private void startFileExport(Path file) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-file-export");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.writeString(tmp, MetricsRegistry.toPrometheusText(), StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("[Metrics] Failed to write " + file + ": " + e);
+            }
+        }, 0, Options.METRICS_FILE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        System.out.println("Metrics: writing Prometheus text to " + file.toAbsolutePath());
+    }
+
+    private void startSocketExport(int port) {
+        try {
+            serverSocket = new ServerSocket(port, 8, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            System.err.println("[Metrics] Could not bind metrics port " + port + ": " + e);
+            return;
+        }
+        Thread t = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (Socket s = serverSocket.accept(); OutputStream out = s.getOutputStream()) {
+                    out.write(MetricsRegistry.toPrometheusText().getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) System.err.println("[Metrics] Socket dump failed: " + e);
+                }
+            }
+        }, "metrics-socket-export");
+        t.setDaemon(true);
+        t.start();
+        System.out.println("Metrics: text dump on 127.0.0.1:" + port);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) scheduler.shutdownNow();
+        if (serverSocket != null) {
+            try { serverSocket.close(); } catch (IOException ignored) {}
+        }
+    }
+}
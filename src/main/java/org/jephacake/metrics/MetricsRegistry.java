@@ -0,0 +1,84 @@
+package org.jephacake.metrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide metric registry, name -> metric. Lookups are get-or-create so call sites can hold
+ * the returned instance in a static final field and pay nothing but the update on hot paths.
+ */
+public final class MetricsRegistry {
+    private static final String JMX_DOMAIN = "org.jephacake";
+
+    private static final Map<String, Metric> REG = new ConcurrentHashMap<>();
+    private static volatile boolean jmxEnabled = false;
+
+    private MetricsRegistry() {}
+
+    public static Counter counter(String name, String help) {
+        return typed(REG.computeIfAbsent(name, n -> new Counter(n, help)), Counter.class);
+    }
+
+    public static Gauge gauge(String name, String help) {
+        return typed(REG.computeIfAbsent(name, n -> new Gauge(n, help, null)), Gauge.class);
+    }
+
+    /** Gauge sampled from {@code supplier} each time it is read. */
+    public static Gauge gauge(String name, String help, LongSupplier supplier) {
+        return typed(REG.computeIfAbsent(name, n -> new Gauge(n, help, supplier)), Gauge.class);
+    }
+
+    public static LatencyHistogram histogram(String name, String help) {
+        return typed(REG.computeIfAbsent(name, n -> new LatencyHistogram(n, help)), LatencyHistogram.class);
+    }
+
+    private static <T extends Metric> T typed(Metric m, Class<T> type) {
+        if (!type.isInstance(m)) {
+            throw new IllegalStateException("Metric " + m.getName() + " already registered as " + m.getClass().getSimpleName());
+        }
+        if (jmxEnabled) registerMBean(ManagementFactory.getPlatformMBeanServer(), m);
+        return type.cast(m);
+    }
+
+    public static Metric get(String name) { return REG.get(name); }
+
+    public static Collection<Metric> all() {
+        List<Metric> sorted = new ArrayList<>(REG.values());
+        sorted.sort(Comparator.comparing(Metric::getName));
+        return sorted;
+    }
+
+    /** Whole registry in Prometheus text exposition format. */
+    public static String toPrometheusText() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Metric m : all()) m.writePrometheus(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Register every metric as a platform MBean under {@code org.jephacake:type=<Type>,name=<name>}.
+     * Metrics created afterwards are registered as they are created.
+     */
+    public static void publishJmx() {
+        jmxEnabled = true;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Metric m : all()) registerMBean(server, m);
+    }
+
+    private static void registerMBean(MBeanServer server, Metric m) {
+        try {
+            ObjectName on = new ObjectName(JMX_DOMAIN + ":type=" + m.getClass().getSimpleName() + ",name=" + m.getName());
+            if (!server.isRegistered(on)) server.registerMBean(m, on);
+        } catch (Exception e) {
+            System.err.println("[Metrics] Failed to publish " + m.getName() + " over JMX: " + e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.jephacake.network;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Free list of direct {@link Protocol#BUFFER_SIZE} buffers. Confined to one selector thread.
+ */
+final class BufferPool {
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private final int maxPooled;
+
+    BufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer b = free.poll();
+        return b != null ? b : ByteBuffer.allocateDirect(Protocol.BUFFER_SIZE);
+    }
+
+    void release(ByteBuffer b) {
+        if (free.size() < maxPooled) free.push(b.clear());
+    }
+}
@@ -0,0 +1,103 @@
+package org.jephacake.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client end of the chunk streaming protocol. Has no thread of its own: call {@link #poll(long)} from the
+ * owning loop (e.g. once per frame) to send queued requests and dispatch received chunks and deltas.
+ */
+public class ChunkClient implements AutoCloseable {
+    public interface Listener {
+        /** {@code voxels} is a fresh array owned by the listener. */
+        void chunkReceived(int cx, int cy, int cz, int[] voxels);
+
+        void blockChanged(int wx, int wy, int wz, int blockId);
+    }
+
+    private final Selector selector;
+    private final Connection connection;
+    private final Listener listener;
+    private final ChunkCodec codec = new ChunkCodec();
+    private final Connection.FrameHandler handler = this::handleFrame;
+    private boolean closed;
+
+    public ChunkClient(InetSocketAddress serverAddress, Listener listener) throws IOException {
+        this.listener = listener;
+        SocketChannel ch = SocketChannel.open(serverAddress); // blocking connect, then switch to non-blocking
+        ch.configureBlocking(false);
+        ch.socket().setTcpNoDelay(true);
+        selector = Selector.open();
+        connection = new Connection(ch, new BufferPool(8));
+        connection.key = ch.register(selector, SelectionKey.OP_READ);
+    }
+
+    public void requestChunk(int cx, int cy, int cz) {
+        sendCoords(Protocol.LOAD_REQUEST, cx, cy, cz);
+    }
+
+    public void releaseChunk(int cx, int cy, int cz) {
+        sendCoords(Protocol.UNLOAD_REQUEST, cx, cy, cz);
+    }
+
+    /** Ask the server to apply an edit; it comes back as a block delta once applied. */
+    public void sendBlockEdit(int wx, int wy, int wz, int blockId) {
+        ByteBuffer out = connection.beginFrame(Protocol.BLOCK_DELTA, 16);
+        out.putInt(wx).putInt(wy).putInt(wz).putInt(blockId);
+        connection.endFrame();
+    }
+
+    private void sendCoords(byte type, int cx, int cy, int cz) {
+        ByteBuffer out = connection.beginFrame(type, 12);
+        out.putInt(cx).putInt(cy).putInt(cz);
+        connection.endFrame();
+    }
+
+    /**
+     * Flush queued requests and dispatch whatever has arrived, waiting up to {@code timeoutMillis}
+     * (0 = don't wait) for data. Returns false once the server closed the connection.
+     */
+    public boolean poll(long timeoutMillis) throws IOException {
+        if (closed) return false;
+        connection.flush(Long.MAX_VALUE);
+        connection.key.interestOps(connection.hasOutbound() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+
+        int ready = timeoutMillis > 0 ? selector.select(timeoutMillis) : selector.selectNow();
+        if (ready == 0) return true;
+        selector.selectedKeys().clear();
+        if (connection.key.isReadable() && !connection.read(handler)) {
+            close();
+            return false;
+        }
+        if (connection.key.isWritable()) connection.flush(Long.MAX_VALUE);
+        return true;
+    }
+
+    private void handleFrame(Connection c, byte type, ByteBuffer payload) throws IOException {
+        switch (type) {
+            case Protocol.CHUNK_DATA -> {
+                int cx = payload.getInt(), cy = payload.getInt(), cz = payload.getInt();
+                int[] voxels = new int[ChunkCodec.VOXELS];
+                codec.decode(payload, voxels);
+                listener.chunkReceived(cx, cy, cz, voxels);
+            }
+            case Protocol.BLOCK_DELTA ->
+                    listener.blockChanged(payload.getInt(), payload.getInt(), payload.getInt(), payload.getInt());
+            default -> throw new IOException("Unexpected frame type " + type);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        connection.close();
+        try {
+            selector.close();
+        } catch (IOException e) { e.printStackTrace(); }
+    }
+}
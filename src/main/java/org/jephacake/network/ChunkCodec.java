@@ -0,0 +1,110 @@
+package org.jephacake.network;
+
+import org.jephacake.world.Chunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Palette + run-length codec for chunk voxel arrays.
+ *
+ * Layout (all integers are unsigned LEB128 varints):
+ * <pre>
+ *   paletteSize, paletteSize x blockId,
+ *   then (runLength, paletteIndex) pairs until all Chunk.SIZE^3 voxels are covered (x fastest, then y, then z)
+ * </pre>
+ * An empty or uniform chunk encodes to ~5 bytes; typical terrain is a few hundred.
+ * Instances keep reusable scratch tables and are not thread-safe: use one per connection/thread.
+ */
+public final class ChunkCodec {
+    public static final int VOXELS = Chunk.SIZE * Chunk.SIZE * Chunk.SIZE;
+    /** Upper bound of an encoded chunk: every voxel distinct (palette + one run each). */
+    public static final int MAX_ENCODED_SIZE = 5 + VOXELS * 5 + VOXELS * (3 + 2);
+
+    private static final int TABLE_SIZE = 8192; // power of two, > 2 * VOXELS
+    private final int[] tableKeys = new int[TABLE_SIZE];
+    private final int[] tableValues = new int[TABLE_SIZE];
+    private final boolean[] tableUsed = new boolean[TABLE_SIZE];
+    private final int[] palette = new int[VOXELS];
+
+    /** Encode {@code voxels} at {@code out.position()}, advancing it. Returns the number of bytes written. */
+    public int encode(int[] voxels, ByteBuffer out) {
+        int start = out.position();
+
+        // pass 1: palette in first-seen order
+        Arrays.fill(tableUsed, false);
+        int paletteSize = 0;
+        int last = 0, lastIndex = -1;
+        for (int i = 0; i < VOXELS; i++) {
+            int id = voxels[i];
+            if (lastIndex >= 0 && id == last) continue;
+            int slot = indexOf(id);
+            if (!tableUsed[slot]) {
+                tableUsed[slot] = true;
+                tableKeys[slot] = id;
+                tableValues[slot] = paletteSize;
+                palette[paletteSize++] = id;
+            }
+            last = id;
+            lastIndex = tableValues[slot];
+        }
+
+        putVarInt(out, paletteSize);
+        for (int i = 0; i < paletteSize; i++) putVarInt(out, palette[i]);
+
+        // pass 2: runs of palette indices
+        int i = 0;
+        while (i < VOXELS) {
+            int id = voxels[i];
+            int run = 1;
+            while (i + run < VOXELS && voxels[i + run] == id) run++;
+            putVarInt(out, run);
+            putVarInt(out, tableValues[indexOf(id)]);
+            i += run;
+        }
+        return out.position() - start;
+    }
+
+    /** Decode one chunk from {@code in} (advancing it) into {@code out} (length Chunk.SIZE^3). */
+    public void decode(ByteBuffer in, int[] out) throws IOException {
+        int paletteSize = getVarInt(in);
+        if (paletteSize <= 0 || paletteSize > VOXELS) throw new IOException("Bad palette size " + paletteSize);
+        for (int i = 0; i < paletteSize; i++) palette[i] = getVarInt(in);
+
+        int i = 0;
+        while (i < VOXELS) {
+            int run = getVarInt(in);
+            int index = getVarInt(in);
+            if (run <= 0 || i + run > VOXELS) throw new IOException("Bad run length " + run + " at voxel " + i);
+            if (index >= paletteSize) throw new IOException("Bad palette index " + index);
+            Arrays.fill(out, i, i + run, palette[index]);
+            i += run;
+        }
+    }
+
+    private int indexOf(int id) {
+        int slot = (id * 0x9E3779B9) >>> 19 & (TABLE_SIZE - 1);
+        while (tableUsed[slot] && tableKeys[slot] != id) slot = (slot + 1) & (TABLE_SIZE - 1);
+        return slot;
+    }
+
+    static void putVarInt(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    static int getVarInt(ByteBuffer in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!in.hasRemaining()) throw new IOException("Truncated varint");
+            byte b = in.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Varint too long");
+    }
+}
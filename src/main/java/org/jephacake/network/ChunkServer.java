@@ -0,0 +1,281 @@
+package org.jephacake.network;
+
+import org.jephacake.configuration.Options;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.ChunkPos;
+import org.jephacake.world.World;
+import org.jephacake.world.WorldListener;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Streams a {@link World}'s chunks to clients over non-blocking sockets, driven by a single selector thread.
+ *
+ * Clients ask for chunks with LOAD_REQUEST; each connection then receives CHUNK_DATA for it and BLOCK_DELTA
+ * frames for every later {@link World#setBlock} inside it until it sends UNLOAD_REQUEST.
+ *
+ * Flow control per connection:
+ * <ul>
+ *   <li>a token-bucket send budget ({@code sendBudgetBytesPerSecond}) caps bytes written per second,</li>
+ *   <li>chunks are only encoded while less than {@link Options#NET_HIGH_WATER_BYTES} is queued, so a slow or
+ *       stalled client costs at most that much memory,</li>
+ *   <li>reading is suspended while more than {@link Options#NET_MAX_PENDING_REQUESTS} loads are queued.</li>
+ * </ul>
+ * Block deltas bypass the high-water gate (they are tiny and must stay ordered after the chunk they patch).
+ * Chunks rewritten by bulk region edits are re-queued as loads for their subscribers instead of sent as deltas.
+ */
+public class ChunkServer implements WorldListener, Runnable, AutoCloseable {
+    private record BlockDelta(int wx, int wy, int wz, int blockId) {}
+
+    /** Server-side state of one client. */
+    private static final class Client {
+        final Connection connection;
+        final Set<Long> subscribed = new HashSet<>();
+        final Set<Long> pendingSet = new HashSet<>();
+        final ArrayDeque<Long> pendingLoads = new ArrayDeque<>();
+        double tokens;
+        boolean stalled;
+
+        Client(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    private final World world;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final long sendBudgetBytesPerSecond;
+    private final BufferPool pool = new BufferPool(64);
+    private final ChunkCodec codec = new ChunkCodec();
+    private final List<Client> clients = new ArrayList<>();
+    private final Queue<BlockDelta> pendingDeltas = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> pendingResends = new ConcurrentLinkedQueue<>();
+    private final Connection.FrameHandler handler = this::handleFrame;
+    private volatile boolean running = true;
+    private Thread thread;
+    private long lastRefill = System.nanoTime();
+
+    public ChunkServer(World world, InetSocketAddress bindAddress) throws IOException {
+        this(world, bindAddress, Options.NET_SEND_BUDGET_BYTES_PER_SEC);
+    }
+
+    /** @param sendBudgetBytesPerSecond per connection; {@code <= 0} means unlimited. */
+    public ChunkServer(World world, InetSocketAddress bindAddress, long sendBudgetBytesPerSecond) throws IOException {
+        this.world = world;
+        this.sendBudgetBytesPerSecond = sendBudgetBytesPerSecond;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(bindAddress);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        world.addListener(this);
+    }
+
+    /** The bound port (useful when binding port 0). */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /** Run the selector loop on a daemon thread. */
+    public ChunkServer start() {
+        thread = new Thread(this, "ChunkServer-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Chunk server listening on " + serverChannel.socket().getLocalSocketAddress());
+        return this;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select(5);
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept();
+                    else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable() && !readFrom(client)) {
+                            disconnect(client);
+                            continue;
+                        }
+                    }
+                }
+                broadcastDeltas();
+                requeueResends();
+                pump();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = serverChannel.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            Client client = new Client(new Connection(ch, pool));
+            client.tokens = initialTokens();
+            client.connection.key = ch.register(selector, SelectionKey.OP_READ, client);
+            clients.add(client);
+            EngineMetrics.NET_CONNECTIONS.inc();
+        }
+    }
+
+    private boolean readFrom(Client client) {
+        try {
+            return client.connection.read(handler);
+        } catch (IOException e) {
+            System.out.println("Dropping client: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void handleFrame(Connection connection, byte type, ByteBuffer payload) throws IOException {
+        Client client = (Client) connection.key.attachment();
+        switch (type) {
+            case Protocol.LOAD_REQUEST -> {
+                long pos = ChunkPos.pack(payload.getInt(), payload.getInt(), payload.getInt());
+                if (!client.subscribed.contains(pos) && client.pendingSet.add(pos)) client.pendingLoads.add(pos);
+            }
+            case Protocol.UNLOAD_REQUEST -> {
+                long pos = ChunkPos.pack(payload.getInt(), payload.getInt(), payload.getInt());
+                client.subscribed.remove(pos);
+                client.pendingSet.remove(pos); // the queue entry is skipped lazily
+            }
+            case Protocol.BLOCK_DELTA -> world.setBlock(payload.getInt(), payload.getInt(), payload.getInt(), payload.getInt());
+            default -> throw new IOException("Unexpected frame type " + type);
+        }
+    }
+
+    /** Encode pending chunks under the high-water mark, then flush each connection within its budget. */
+    private void pump() {
+        long now = System.nanoTime();
+        double elapsed = (now - lastRefill) / 1e9;
+        lastRefill = now;
+
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            Connection c = client.connection;
+            produceChunks(client);
+            try {
+                if (sendBudgetBytesPerSecond > 0) {
+                    client.tokens = Math.min(initialTokens(), client.tokens + elapsed * sendBudgetBytesPerSecond);
+                    if (client.tokens >= 1) client.tokens -= c.flush((long) client.tokens);
+                } else {
+                    c.flush(Long.MAX_VALUE);
+                }
+            } catch (IOException e) {
+                disconnect(client);
+                continue;
+            }
+
+            int ops = SelectionKey.OP_READ;
+            if (client.pendingLoads.size() > Options.NET_MAX_PENDING_REQUESTS) ops = 0;
+            // out of send budget: the socket is still writable, so OP_WRITE would wake select at once and spin;
+            // the select timeout refills the bucket instead
+            if (c.hasOutbound() && (sendBudgetBytesPerSecond <= 0 || client.tokens >= 1)) ops |= SelectionKey.OP_WRITE;
+            if (c.key.interestOps() != ops) c.key.interestOps(ops);
+        }
+    }
+
+    private void produceChunks(Client client) {
+        Connection c = client.connection;
+        while (!client.pendingLoads.isEmpty()) {
+            if (c.queuedBytes() >= Options.NET_HIGH_WATER_BYTES) {
+                if (!client.stalled) EngineMetrics.NET_BACKPRESSURE_STALLS.inc();
+                client.stalled = true;
+                return;
+            }
+            long pos = client.pendingLoads.poll();
+            if (!client.pendingSet.remove(pos)) continue; // unloaded while pending
+
+            int cx = ChunkPos.x(pos), cy = ChunkPos.y(pos), cz = ChunkPos.z(pos);
+            Chunk chunk = world.loadOrGenerateChunk(cx, cy, cz);
+            ByteBuffer out = c.beginFrame(Protocol.CHUNK_DATA, Protocol.MAX_CHUNK_PAYLOAD);
+            out.putInt(cx).putInt(cy).putInt(cz);
+            codec.encode(chunk.getVoxelData(), out);
+            c.endFrame();
+            client.subscribed.add(pos);
+            EngineMetrics.NET_CHUNKS_SENT.inc();
+        }
+        client.stalled = false;
+    }
+
+    private void broadcastDeltas() {
+        BlockDelta d;
+        while ((d = pendingDeltas.poll()) != null) {
+            long pos = ChunkPos.pack(Math.floorDiv(d.wx, Chunk.SIZE), Math.floorDiv(d.wy, Chunk.SIZE), Math.floorDiv(d.wz, Chunk.SIZE));
+            for (Client client : clients) {
+                if (!client.subscribed.contains(pos)) continue; // a pending load will carry the new value
+                ByteBuffer out = client.connection.beginFrame(Protocol.BLOCK_DELTA, 16);
+                out.putInt(d.wx).putInt(d.wy).putInt(d.wz).putInt(d.blockId);
+                client.connection.endFrame();
+                EngineMetrics.NET_DELTAS_SENT.inc();
+            }
+        }
+    }
+
+    private void requeueResends() {
+        Long pos;
+        while ((pos = pendingResends.poll()) != null) {
+            for (Client client : clients) {
+                if (client.subscribed.remove(pos) && client.pendingSet.add(pos)) client.pendingLoads.add(pos);
+            }
+        }
+    }
+
+    private void disconnect(Client client) {
+        client.connection.close();
+        if (clients.remove(client)) EngineMetrics.NET_CONNECTIONS.dec();
+    }
+
+    private double initialTokens() {
+        // allow a quarter second of burst, but always at least one full buffer so flush can make progress
+        return Math.max(sendBudgetBytesPerSecond / 4.0, Protocol.BUFFER_SIZE);
+    }
+
+    // --- WorldListener (any thread) ---
+
+    @Override
+    public void blockChanged(int wx, int wy, int wz, int blockId) {
+        pendingDeltas.add(new BlockDelta(wx, wy, wz, blockId));
+        selector.wakeup();
+    }
+
+    @Override
+    public void regionChanged(Chunk chunk) {
+        pendingResends.add(ChunkPos.pack(chunk.getCX(), chunk.getCY(), chunk.getCZ()));
+        selector.wakeup();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        world.removeListener(this);
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Client client : new ArrayList<>(clients)) disconnect(client);
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) { e.printStackTrace(); }
+    }
+}
@@ -0,0 +1,149 @@
+package org.jephacake.network;
+
+import org.jephacake.metrics.EngineMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Framing and buffering for one socket, shared by server and client. Outgoing frames are appended to an
+ * open pooled buffer; full buffers are queued and flushed with gathering writes, optionally limited to a
+ * byte budget. Incoming frames are handed to a {@link FrameHandler} as slices of the receive buffer.
+ * Confined to the owning selector thread.
+ */
+final class Connection {
+    interface FrameHandler {
+        /** {@code payload} is only valid for the duration of the call. */
+        void frame(Connection connection, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    private static final int MAX_GATHER = 16;
+
+    final SocketChannel channel;
+    SelectionKey key;
+    private final BufferPool pool;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(Protocol.BUFFER_SIZE);
+    private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private ByteBuffer open;
+    private int frameStart;
+    private long queuedBytes;
+
+    Connection(SocketChannel channel, BufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+    }
+
+    // --- receiving ---
+
+    /** Read what is available and dispatch complete frames. Returns false once the peer closed. */
+    boolean read(FrameHandler handler) throws IOException {
+        int n = channel.read(readBuffer);
+        if (n < 0) return false;
+        if (n > 0) EngineMetrics.NET_BYTES_RECEIVED.add(n);
+
+        readBuffer.flip();
+        while (readBuffer.remaining() >= 4) {
+            int pos = readBuffer.position();
+            int length = readBuffer.getInt(pos);
+            if (length <= 0 || length > Protocol.MAX_FRAME) throw new IOException("Bad frame length " + length);
+            if (readBuffer.remaining() < 4 + length) break;
+            byte type = readBuffer.get(pos + 4);
+            handler.frame(this, type, readBuffer.slice(pos + Protocol.HEADER_SIZE, length - 1));
+            readBuffer.position(pos + 4 + length);
+        }
+        readBuffer.compact();
+        return true;
+    }
+
+    // --- sending ---
+
+    /**
+     * Start a frame with room for {@code maxPayload} bytes and return the buffer to write the payload into.
+     * Must be followed by {@link #endFrame()} before the next frame.
+     */
+    ByteBuffer beginFrame(byte type, int maxPayload) {
+        if (open == null || open.remaining() < Protocol.HEADER_SIZE + maxPayload) {
+            sealOpen();
+            open = pool.acquire();
+        }
+        frameStart = open.position();
+        open.putInt(0).put(type);
+        return open;
+    }
+
+    void endFrame() {
+        open.putInt(frameStart, open.position() - frameStart - 4);
+    }
+
+    /** Bytes queued for this socket, including the open buffer. Used for backpressure. */
+    long queuedBytes() {
+        return queuedBytes + (open != null ? open.position() : 0);
+    }
+
+    boolean hasOutbound() {
+        return !outbound.isEmpty() || (open != null && open.position() > 0);
+    }
+
+    /**
+     * Write queued frames with as few gathering writes as the socket accepts, up to {@code budget} bytes.
+     * Returns the number of bytes written.
+     */
+    long flush(long budget) throws IOException {
+        sealOpen();
+        long written = 0;
+        while (!outbound.isEmpty() && written < budget) {
+            long allowance = budget - written;
+            int count = 0;
+            long total = 0;
+            for (ByteBuffer b : outbound) {
+                if (count == MAX_GATHER || total >= allowance) break;
+                gather[count++] = b;
+                total += b.remaining();
+            }
+
+            // clip the last buffer to the allowance so a budget is never overshot
+            ByteBuffer last = gather[count - 1];
+            int savedLimit = last.limit();
+            if (total > allowance) last.limit(last.limit() - (int) (total - allowance));
+            long n;
+            try {
+                n = channel.write(gather, 0, count);
+            } finally {
+                last.limit(savedLimit);
+            }
+
+            written += n;
+            queuedBytes -= n;
+            while (!outbound.isEmpty() && !outbound.peek().hasRemaining()) pool.release(outbound.poll());
+            if (n == 0) break; // socket buffer full
+        }
+        if (written > 0) EngineMetrics.NET_BYTES_SENT.add(written);
+        return written;
+    }
+
+    private void sealOpen() {
+        if (open == null) return;
+        if (open.position() > 0) {
+            open.flip();
+            queuedBytes += open.remaining();
+            outbound.add(open);
+        } else {
+            pool.release(open);
+        }
+        open = null;
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+        if (open != null) pool.release(open);
+        open = null;
+        while (!outbound.isEmpty()) pool.release(outbound.poll());
+        queuedBytes = 0;
+    }
+}
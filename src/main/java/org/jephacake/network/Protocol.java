@@ -0,0 +1,33 @@
+package org.jephacake.network;
+
+/**
+ * Wire format of the chunk streaming protocol.
+ *
+ * Every frame is {@code [int length][byte type][payload]}, big-endian, where length counts the type byte
+ * plus the payload. Frames are encoded straight into pooled direct buffers and parsed in place from the
+ * receive buffer, so payloads are never copied between the socket and the codec.
+ *
+ * <pre>
+ *   CHUNK_DATA     S->C  int cx, cy, cz, ChunkCodec payload
+ *   BLOCK_DELTA    S->C  int wx, wy, wz, blockId       (mirrors World.setBlock)
+ *                  C->S  same layout, asks the server to apply the edit
+ *   LOAD_REQUEST   C->S  int cx, cy, cz                (send the chunk, then keep it in sync)
+ *   UNLOAD_REQUEST C->S  int cx, cy, cz                (stop syncing / drop a pending send)
+ * </pre>
+ */
+public final class Protocol {
+    private Protocol() {}
+
+    public static final byte CHUNK_DATA = 1;
+    public static final byte BLOCK_DELTA = 2;
+    public static final byte LOAD_REQUEST = 3;
+    public static final byte UNLOAD_REQUEST = 4;
+
+    /** Frame header: length + type. */
+    public static final int HEADER_SIZE = 5;
+    public static final int MAX_CHUNK_PAYLOAD = 12 + ChunkCodec.MAX_ENCODED_SIZE;
+    /** Largest accepted value of the length field; anything above is treated as a corrupt stream. */
+    public static final int MAX_FRAME = 1 + MAX_CHUNK_PAYLOAD;
+    /** Size of pooled send buffers and of each receive buffer; always fits at least one frame. */
+    public static final int BUFFER_SIZE = 128 * 1024;
+}
@@ -0,0 +1,225 @@
+package org.jephacake.profiler;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Scoped zone profiler with per-thread ring buffers, dumped as Chrome trace-event JSON
+ * (open in chrome://tracing, Perfetto or Speedscope).
+ *
+ * Usage:
+ * <pre>
+ *     private static final int Z_MESH = Profiler.zone("World.mesh");
+ *     Profiler.begin(Z_MESH);
+ *     try { ... } finally { Profiler.end(Z_MESH); }
+ * </pre>
+ * When no capture is running begin/end are a volatile read and a branch, so zones stay compiled in.
+ * While capturing each marker is a ThreadLocal lookup, System.nanoTime() and two array stores; nothing allocates.
+ * GC pauses reported by the JVM are added to the capture as their own track.
+ */
+public final class Profiler {
+    /** Events kept per thread; older ones are overwritten. */
+    private static final int RING_EVENTS = 1 << 16;
+
+    private static final List<String> ZONE_NAMES = new CopyOnWriteArrayList<>();
+    private static final ConcurrentHashMap<String, Integer> ZONE_IDS = new ConcurrentHashMap<>();
+    /** One per thread that has recorded; buffers of exited threads are dropped once they can't be dumped any more. */
+    private static final List<ThreadBuffer> BUFFERS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ThreadBuffer> LOCAL = ThreadLocal.withInitial(Profiler::newBuffer);
+
+    private static volatile boolean capturing = false;
+    private static long captureStartNanos;
+    private static long captureStartUptimeMs;
+    private static final List<long[]> gcEvents = new ArrayList<>(); // {startNanos, durationNanos, nameZone}
+    private static final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+    private static final NotificationListener GC_LISTENER = (notification, handback) -> {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long start = captureStartNanos + (info.getGcInfo().getStartTime() - captureStartUptimeMs) * 1_000_000L;
+        long duration = info.getGcInfo().getDuration() * 1_000_000L;
+        int name = zone("GC " + info.getGcName() + " (" + info.getGcCause() + ")");
+        synchronized (gcEvents) {
+            gcEvents.add(new long[] { start, duration, name });
+        }
+    };
+
+    private Profiler() {}
+
+    /** Register (or look up) a zone name. Call once and keep the id in a static final field. */
+    public static int zone(String name) {
+        return ZONE_IDS.computeIfAbsent(name, n -> {
+            synchronized (ZONE_NAMES) {
+                ZONE_NAMES.add(n);
+                return ZONE_NAMES.size() - 1;
+            }
+        });
+    }
+
+    public static boolean isCapturing() { return capturing; }
+
+    public static void begin(int zone) {
+        if (!capturing) return;
+        LOCAL.get().record(zone << 1);
+    }
+
+    public static void end(int zone) {
+        if (!capturing) return;
+        LOCAL.get().record((zone << 1) | 1);
+    }
+
+    public static synchronized void startCapture() {
+        if (capturing) return;
+        BUFFERS.removeIf(ThreadBuffer::isDead);
+        for (ThreadBuffer b : BUFFERS) b.reset();
+        synchronized (gcEvents) { gcEvents.clear(); }
+        captureStartUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        captureStartNanos = System.nanoTime();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(GC_LISTENER, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+        capturing = true;
+        System.out.println("[Profiler] Capture started");
+    }
+
+    /** Stop capturing and write the trace. Safe to call from any thread; does the file I/O on the caller. */
+    public static synchronized void stopCapture(File out) throws IOException {
+        if (!capturing) return;
+        capturing = false;
+        for (NotificationEmitter emitter : gcEmitters) {
+            try { emitter.removeNotificationListener(GC_LISTENER); } catch (ListenerNotFoundException ignored) {}
+        }
+        gcEmitters.clear();
+
+        File dir = out.getAbsoluteFile().getParentFile();
+        if (dir != null) dir.mkdirs();
+        try (Writer w = new BufferedWriter(new FileWriter(out))) {
+            writeTrace(w);
+        }
+        BUFFERS.removeIf(ThreadBuffer::isDead); // dumped; a thread that has exited never records again
+        System.out.println("[Profiler] Trace written to " + out.getAbsolutePath());
+    }
+
+    /** Toggle a capture, dumping to {@code out} on a background thread when it stops. */
+    public static void toggleCapture(File out) {
+        if (!capturing) {
+            startCapture();
+            return;
+        }
+        Thread t = new Thread(() -> {
+            try { stopCapture(out); } catch (IOException e) { e.printStackTrace(); }
+        }, "profiler-dump");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void writeTrace(Writer w) throws IOException {
+        w.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        boolean first = true;
+        for (ThreadBuffer b : BUFFERS) {
+            first = writeEvent(w, first, "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + b.tid
+                    + ",\"args\":{\"name\":\"" + escape(b.threadName) + "\"}}");
+            first = b.writeEvents(w, first);
+        }
+        synchronized (gcEvents) {
+            if (!gcEvents.isEmpty()) {
+                first = writeEvent(w, first, "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":0,\"args\":{\"name\":\"GC\"}}");
+            }
+            for (long[] gc : gcEvents) {
+                first = writeEvent(w, first, "{\"name\":\"" + escape(ZONE_NAMES.get((int) gc[2])) + "\",\"ph\":\"X\",\"pid\":1,\"tid\":0,\"ts\":"
+                        + micros(gc[0]) + ",\"dur\":" + gc[1] / 1000.0 + "}");
+            }
+        }
+        w.write("\n]}\n");
+    }
+
+    private static boolean writeEvent(Writer w, boolean first, String json) throws IOException {
+        if (!first) w.write(",\n");
+        w.write(json);
+        return false;
+    }
+
+    private static String micros(long nanos) {
+        return Double.toString((nanos - captureStartNanos) / 1000.0);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static ThreadBuffer newBuffer() {
+        ThreadBuffer b = new ThreadBuffer(Thread.currentThread());
+        BUFFERS.add(b);
+        return b;
+    }
+
+    /** Single-writer ring of (timestamp, zone<<1 | isEnd) pairs. Read only after capture stops. */
+    private static final class ThreadBuffer {
+        final long tid;
+        final String threadName;
+        final WeakReference<Thread> thread; // weak so a pooled-and-discarded thread isn't kept alive by its buffer
+        final long[] times = new long[RING_EVENTS];
+        final int[] codes = new int[RING_EVENTS];
+        volatile long written = 0;
+
+        ThreadBuffer(Thread t) {
+            this.tid = t.threadId();
+            this.threadName = t.getName();
+            this.thread = new WeakReference<>(t);
+        }
+
+        boolean isDead() {
+            Thread t = thread.get();
+            return t == null || !t.isAlive();
+        }
+
+        void record(int code) {
+            long n = written;
+            int slot = (int) (n & (RING_EVENTS - 1));
+            times[slot] = System.nanoTime();
+            codes[slot] = code;
+            written = n + 1;
+        }
+
+        void reset() { written = 0; }
+
+        boolean writeEvents(Writer w, boolean first) throws IOException {
+            long n = written;
+            long from = Math.max(0, n - RING_EVENTS);
+            int depth = 0;
+            for (long i = from; i < n; i++) {
+                int slot = (int) (i & (RING_EVENTS - 1));
+                int code = codes[slot];
+                boolean isEnd = (code & 1) != 0;
+                // the ring may have overwritten the begin of a zone; drop ends with no matching begin
+                if (isEnd) {
+                    if (depth == 0) continue;
+                    depth--;
+                } else {
+                    depth++;
+                }
+                first = writeEvent(w, first, "{\"name\":\"" + escape(ZONE_NAMES.get(code >>> 1)) + "\",\"ph\":\""
+                        + (isEnd ? 'E' : 'B') + "\",\"pid\":1,\"tid\":" + tid + ",\"ts\":" + micros(times[slot]) + "}");
+            }
+            return first;
+        }
+    }
+}
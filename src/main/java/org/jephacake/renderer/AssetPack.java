@@ -0,0 +1,138 @@
+package org.jephacake.renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Every asset in one file: an index of name -> (offset, length) followed by the concatenated file contents.
+ * Built by the {@code packAssets} Gradle task (see {@link #main}) and shipped next to the jar; {@link ResourceLoader}
+ * memory-maps it and hands out read-only slices, so loading an asset is a hash lookup with no copying or jar access.
+ *
+ * Layout (big-endian): int magic, int version, int count, count x (short nameLength, UTF-8 name, int offset,
+ * int length), then the data. Names are full classpath paths ("org/jephacake/assets/shaders/voxel.vert").
+ */
+public final class AssetPack {
+    private static final int MAGIC = 0x53475041; // "SGPA"
+    private static final int VERSION = 1;
+
+    private record Entry(int offset, int length) {}
+
+    private final MappedByteBuffer data;
+    private final Map<String, Entry> index;
+
+    private AssetPack(MappedByteBuffer data, Map<String, Entry> index) {
+        this.data = data;
+        this.index = index;
+    }
+
+    public static AssetPack open(Path file) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        try {
+            if (map.getInt() != MAGIC || map.getInt() != VERSION) throw new IOException("Not an asset pack: " + file);
+            int count = map.getInt();
+            Map<String, Entry> index = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[map.getShort() & 0xFFFF];
+                map.get(name);
+                Entry e = new Entry(map.getInt(), map.getInt());
+                if (e.offset < 0 || e.length < 0 || (long) e.offset + e.length > map.capacity()) {
+                    throw new IOException("Corrupt asset pack entry in " + file);
+                }
+                index.put(new String(name, StandardCharsets.UTF_8), e);
+            }
+            return new AssetPack(map, index);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Truncated asset pack: " + file, e);
+        }
+    }
+
+    /** Read-only, direct view of an asset's bytes (position 0, limit = length), or null if not packed. */
+    public ByteBuffer get(String path) {
+        Entry e = index.get(path);
+        return e == null ? null : data.slice(e.offset, e.length).asReadOnlyBuffer();
+    }
+
+    public boolean contains(String path) {
+        return index.containsKey(path);
+    }
+
+    /** File names directly inside {@code dir} (no subdirectories), like {@link ResourceLoader#listResources}. */
+    public List<String> list(String dir) {
+        String prefix = dir.endsWith("/") ? dir : dir + "/";
+        List<String> result = new ArrayList<>();
+        for (String name : index.keySet()) {
+            if (name.startsWith(prefix) && name.indexOf('/', prefix.length()) < 0) result.add(name.substring(prefix.length()));
+        }
+        return result;
+    }
+
+    /** Pack every file under {@code root/prefix} (named by its path relative to root) into {@code out}. */
+    public static void write(Path root, String prefix, Path out) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root.resolve(prefix))) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        List<String> names = new ArrayList<>();
+        int headerSize = 12;
+        for (Path f : files) {
+            String name = root.relativize(f).toString().replace('\\', '/');
+            names.add(name);
+            headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length + 8;
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(headerSize);
+        try (DataOutputStream h = new DataOutputStream(header)) {
+            h.writeInt(MAGIC);
+            h.writeInt(VERSION);
+            h.writeInt(files.size());
+            long offset = headerSize;
+            for (int i = 0; i < files.size(); i++) {
+                byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+                long length = Files.size(files.get(i));
+                if (offset + length > Integer.MAX_VALUE) throw new IOException("Asset pack would exceed 2 GB");
+                h.writeShort(name.length);
+                h.write(name);
+                h.writeInt((int) offset);
+                h.writeInt((int) length);
+                offset += length;
+            }
+        }
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer h = ByteBuffer.wrap(header.toByteArray());
+            while (h.hasRemaining()) ch.write(h);
+            for (Path f : files) {
+                try (FileChannel in = FileChannel.open(f, StandardOpenOption.READ)) {
+                    long pos = 0, size = in.size();
+                    while (pos < size) pos += in.transferTo(pos, size - pos, ch);
+                }
+            }
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Packed " + files.size() + " assets into " + out);
+    }
+
+    /** Build step: {@code AssetPack <resourceRoot> <prefix> <outFile>}. */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: AssetPack <resourceRoot> <prefix> <outFile>");
+            System.exit(2);
+        }
+        write(Paths.get(args[0]), args[1], Paths.get(args[2]));
+    }
+}
@@ -0,0 +1,114 @@
+package org.jephacake.renderer;
+
+import org.jephacake.jobs.Job;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CPU mip chain for a padded tile atlas. Every tile sits in a cell with {@code pad} texels of border on each side;
+ * borders are filled by extruding the tile's edge texels, so bilinear/mip sampling at a tile's edge reads the
+ * tile's own colour instead of its neighbour's. Each level is built per tile from the previous level's tile
+ * (alpha-weighted 2x2 box filter) and then re-extruded, so no level ever mixes texels from two tiles.
+ *
+ * All buffers are RGBA in GL row order (row 0 = bottom); cell (col, row) counts rows from the top like tile indices.
+ * Tile and pad sizes must stay whole at every level (see {@link #levelsFor}).
+ */
+final class AtlasMipmapper {
+    /** Levels built at most (level 0 included): 16px tiles go down to 2px with 1px of padding. */
+    static final int MAX_LEVELS = 4;
+
+    private AtlasMipmapper() {}
+
+    /** Number of levels (including 0) whose tile sizes are whole; the padding is then 1 << (levels - 1). */
+    static int levelsFor(int tileW, int tileH) {
+        int levels = 1;
+        while (levels < MAX_LEVELS && tileW % (1 << levels) == 0 && tileH % (1 << levels) == 0) levels++;
+        return levels;
+    }
+
+    /**
+     * Build levels 1.. from {@code level0} (whose tiles are already extruded), one job per tile on the shared
+     * job system's "atlas" queue; blocks until all are done.
+     *
+     * @return all levels, level0 first
+     */
+    static ByteBuffer[] buildChain(ByteBuffer level0, int atlasW, int atlasH, int cols, int rows, int tileCount,
+                                   int tileW, int tileH, int pad, int levels) {
+        ByteBuffer[] chain = new ByteBuffer[levels];
+        chain[0] = level0;
+        for (int l = 1; l < levels; l++) chain[l] = ByteBuffer.allocateDirect((atlasW >> l) * (atlasH >> l) * 4);
+
+        JobQueue queue = JobSystem.shared().queue("atlas");
+        Job[] jobs = new Job[tileCount];
+        for (int i = 0; i < tileCount; i++) {
+            int col = i % cols, row = i / cols;
+            jobs[i] = queue.submit(JobSystem.Priority.HIGH, () -> {
+                for (int l = 1; l < levels; l++) {
+                    downsampleTile(chain[l - 1], chain[l], atlasW >> (l - 1), atlasW >> l, atlasH >> l, rows,
+                            col, row, tileW >> l, tileH >> l, pad >> l);
+                    extrude(chain[l], atlasW >> l, atlasH >> l, rows, col, row, tileW >> l, tileH >> l, pad >> l);
+                }
+            });
+        }
+        for (Job job : jobs) job.future().join();
+        return chain;
+    }
+
+    /** GL-space x of a cell's tile area (past the left padding). */
+    private static int tileX(int col, int tileW, int pad) {
+        return col * (tileW + 2 * pad) + pad;
+    }
+
+    /** GL-space y (row 0 = bottom) of a cell's tile area; {@code row} counts from the top. */
+    private static int tileY(int atlasH, int rows, int row, int tileH, int pad) {
+        int cellH = tileH + 2 * pad;
+        return atlasH - (row + 1) * cellH + pad;
+    }
+
+    /** Fill a cell's padding by clamping to the nearest texel of its tile (edges and corners). */
+    static void extrude(ByteBuffer level, int atlasW, int atlasH, int rows, int col, int row, int tileW, int tileH, int pad) {
+        int x0 = tileX(col, tileW, pad), y0 = tileY(atlasH, rows, row, tileH, pad);
+        for (int y = y0 - pad; y < y0 + tileH + pad; y++) {
+            int sy = Math.min(Math.max(y, y0), y0 + tileH - 1);
+            for (int x = x0 - pad; x < x0 + tileW + pad; x++) {
+                if (y == sy && x >= x0 && x < x0 + tileW) {
+                    x = x0 + tileW - 1; // skip the tile itself
+                    continue;
+                }
+                int sx = Math.min(Math.max(x, x0), x0 + tileW - 1);
+                level.putInt((y * atlasW + x) * 4, level.getInt((sy * atlasW + sx) * 4));
+            }
+        }
+    }
+
+    /** One tile of level l from level l-1: each texel is the alpha-weighted mean of the 2x2 texels above it. */
+    static void downsampleTile(ByteBuffer src, ByteBuffer dst, int srcW, int dstW, int dstH, int rows,
+                               int col, int row, int tileW, int tileH, int pad) {
+        int dx0 = tileX(col, tileW, pad), dy0 = tileY(dstH, rows, row, tileH, pad);
+        int sx0 = tileX(col, tileW * 2, pad * 2), sy0 = tileY(dstH * 2, rows, row, tileH * 2, pad * 2);
+        for (int y = 0; y < tileH; y++) {
+            for (int x = 0; x < tileW; x++) {
+                int r = 0, g = 0, b = 0, a = 0;
+                for (int k = 0; k < 4; k++) {
+                    int o = ((sy0 + 2 * y + (k >> 1)) * srcW + sx0 + 2 * x + (k & 1)) * 4;
+                    int ta = src.get(o + 3) & 0xFF;
+                    r += (src.get(o) & 0xFF) * ta;
+                    g += (src.get(o + 1) & 0xFF) * ta;
+                    b += (src.get(o + 2) & 0xFF) * ta;
+                    a += ta;
+                }
+                int o = ((dy0 + y) * dstW + dx0 + x) * 4;
+                if (a == 0) {
+                    dst.putInt(o, 0);
+                } else {
+                    dst.put(o, (byte) ((r + a / 2) / a));
+                    dst.put(o + 1, (byte) ((g + a / 2) / a));
+                    dst.put(o + 2, (byte) ((b + a / 2) / a));
+                    dst.put(o + 3, (byte) ((a + 2) / 4));
+                }
+            }
+        }
+    }
+}
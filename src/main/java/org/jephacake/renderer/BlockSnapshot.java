@@ -22,6 +22,11 @@ public class BlockSnapshot {
         map.put(key(cx, cy, cz), voxelsCopy);
     }
 
+    /** The copied voxel array of a chunk, or null if the snapshot doesn't include it. */
+    public int[] getVoxels(int cx, int cy, int cz) {
+        return map.get(key(cx, cy, cz));
+    }
+
     /**
      * Return block id at global coords. If snapshot doesn't include a chunk, treat as empty (0).
      */
@@ -1,10 +1,13 @@
 package org.jephacake.renderer;
 
+import org.jephacake.world.Aabb;
+import org.jephacake.world.VoxelCollider;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
 /**
  * Simple fly camera (position + Euler yaw/pitch). Returns a view matrix compatible with Renderer.
+ * With a collider set the camera is the eye of a player-sized box that slides along terrain instead of passing through.
  */
 public class Camera {
     private final Vector3f position = new Vector3f(0, 0, 0);
@@ -18,6 +21,16 @@ public class Camera {
     private float movementSpeed = 5.0f; // units/sec
     private float mouseSensitivity = 0.1f; // degrees per pixel
 
+    // collision box around the eye, in blocks
+    private static final float HALF_WIDTH = 0.3f;
+    private static final float EYE_HEIGHT = 1.62f;
+    private static final float HEIGHT = 1.8f;
+    private static final float STEP_HEIGHT = 0.6f;
+
+    private VoxelCollider collider; // null: fly through terrain
+    private final Aabb box = new Aabb();
+    private final Vector3f motion = new Vector3f();
+
     public Camera() {
         updateVectors();
     }
@@ -28,6 +41,8 @@ public class Camera {
     }
 
     public Vector3f getPosition() { return position; }
+    /** Unit view direction. */
+    public Vector3f getFront() { return front; }
     public void setPosition(Vector3f p) { position.set(p); }
 
     public void setYawPitch(float yawDeg, float pitchDeg) {
@@ -54,14 +69,29 @@ public class Camera {
 
     public void processKeyboard(boolean forward, boolean back, boolean left, boolean rightKey, boolean upKey, boolean downKey, float deltaSeconds) {
         float velocity = movementSpeed * deltaSeconds;
-        if (forward) position.fma(velocity, front);
-        if (back) position.fma(-velocity, front);
-        if (left) position.fma(-velocity, this.right);
-        if (rightKey) position.fma(velocity, this.right);
-        if (upKey) position.fma(velocity, worldUp);
-        if (downKey) position.fma(-velocity, worldUp);
+        motion.zero();
+        if (forward) motion.fma(velocity, front);
+        if (back) motion.fma(-velocity, front);
+        if (left) motion.fma(-velocity, this.right);
+        if (rightKey) motion.fma(velocity, this.right);
+        if (upKey) motion.fma(velocity, worldUp);
+        if (downKey) motion.fma(-velocity, worldUp);
+
+        if (collider != null) {
+            // collider works in the world's local frame
+            Vector3f origin = collider.getWorld().position;
+            float fx = position.x - origin.x, fy = position.y - origin.y - EYE_HEIGHT, fz = position.z - origin.z;
+            box.minX = fx - HALF_WIDTH; box.minY = fy; box.minZ = fz - HALF_WIDTH;
+            box.maxX = fx + HALF_WIDTH; box.maxY = fy + HEIGHT; box.maxZ = fz + HALF_WIDTH;
+            collider.move(box, motion, STEP_HEIGHT);
+        }
+        position.add(motion);
     }
 
+    /** Collide with a world's terrain, or pass null to fly freely. */
+    public void setCollider(VoxelCollider collider) { this.collider = collider; }
+    public VoxelCollider getCollider() { return collider; }
+
     public void setMovementSpeed(float speed) { this.movementSpeed = speed; }
     public void setMouseSensitivity(float sens) { this.mouseSensitivity = sens; }
 
@@ -1,18 +1,28 @@
 package org.jephacake.renderer;
 
-import org.jephacake.block.Block;
 import org.jephacake.block.BlockFace;
 import org.jephacake.block.BlockRegistry;
+import org.jephacake.block.BlockTable;
+import org.jephacake.metrics.EngineMetrics;
 import org.jephacake.world.Chunk;
+import org.jephacake.world.ChunkPos;
 import org.jephacake.world.World;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Chunk mesher producing mesh data in *local chunk coordinates*.
  * i.e. vertex positions range with each chunk from 0..Chunk.SIZE (plus unit extents for block quads).
+ *
+ * Two outputs: {@link MeshData}, every visible face as four full vertices plus six indices, and the compact
+ * {@link FaceData}, one 8-byte record per visible face that the chunk_faces vertex shader expands into the same
+ * quad (see {@link FaceMesh}). {@link #expandFaces} does that expansion on the CPU, so the two can be compared
+ * headless.
  */
 public class ChunkMesher {
+    /** Bump whenever the mesher's output for the same input changes, so cached meshes ({@link MeshDiskCache}) expire. */
+    private static final long MESH_FORMAT = 1;
 
     public static class MeshData {
         public final float[] positions;
@@ -31,181 +41,131 @@ public class ChunkMesher {
     }
 
     /**
-     * Build mesh data for a single chunk. OUTPUT IS IN LOCAL CHUNK COORDINATES.
-     * World is used only to query neighbor blocks (global coords) for occlusion checks.
+     * One record per visible face, two ints each:
+     * {@code faces[2i]} = x | y << 4 | z << 8 | face << 12 | light << 15 | ao0 << 19 | ao1 << 21 | ao2 << 23 | ao3 << 25
+     * with the block's local position, its {@link BlockFace} ordinal, the packed light level in front of the face
+     * (max of sky and block, 0..15) and the ambient occlusion (0..3) of its four corners in {@code CORNERS} order;
+     * {@code faces[2i + 1]} = atlas tile | block id << 16, tile {@link #NO_TILE} when unresolved.
      */
-    public static MeshData meshDataFromChunk(World world, Chunk c, TextureAtlas atlas) {
-        ArrayList<Float> pos = new ArrayList<>();
-        ArrayList<Float> norm = new ArrayList<>();
-        ArrayList<Float> tex = new ArrayList<>();
-        ArrayList<Float> col = new ArrayList<>();
-        ArrayList<Integer> idx = new ArrayList<>();
+    public static class FaceData {
+        public final int[] faces;
 
-        final int baseCX = c.getCX() * Chunk.SIZE;
-        final int baseCY = c.getCY() * Chunk.SIZE;
-        final int baseCZ = c.getCZ() * Chunk.SIZE;
-        final int[] vox = c.getVoxelData();
+        public FaceData(int[] faces) {
+            this.faces = faces;
+        }
 
-        for (int z = 0; z < Chunk.SIZE; z++) {
-            for (int y = 0; y < Chunk.SIZE; y++) {
-                for (int x = 0; x < Chunk.SIZE; x++) {
-                    int blockId = vox[x + y * Chunk.SIZE + z * Chunk.SIZE * Chunk.SIZE];
-                    if (blockId == 0) continue;
-                    Block block = BlockRegistry.getOrNull(blockId);
-                    if (block == null) continue;
-
-                    float[] tint = block.getTintRGBA();
-
-                    addFaceIfEmptyLocal(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            world, BlockFace.NORTH, 0f, 0f, -1f, block, atlas, tint);
-                    addFaceIfEmptyLocal(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            world, BlockFace.SOUTH, 0f, 0f, 1f, block, atlas, tint);
-                    addFaceIfEmptyLocal(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            world, BlockFace.BOTTOM, 0f, -1f, 0f, block, atlas, tint);
-                    addFaceIfEmptyLocal(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            world, BlockFace.TOP, 0f, 1f, 0f, block, atlas, tint);
-                    addFaceIfEmptyLocal(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            world, BlockFace.WEST, -1f, 0f, 0f, block, atlas, tint);
-                    addFaceIfEmptyLocal(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            world, BlockFace.EAST, 1f, 0f, 0f, block, atlas, tint);
-                }
-            }
+        public int getFaceCount() {
+            return faces.length / 2;
         }
+    }
 
-        return new MeshData(
-                toArray(pos),
-                toArray(norm),
-                toArray(tex),
-                toArray(col),
-                idx.stream().mapToInt(i -> i).toArray()
-        );
+    /** Tile field of a face record whose texture is unresolved (drawn with an empty UV rect). */
+    public static final int NO_TILE = 0xFFFF;
+
+    /**
+     * Build mesh data for a single chunk. OUTPUT IS IN LOCAL CHUNK COORDINATES.
+     * The chunk and a one-voxel border of its neighbours (blocks and light) are copied out of the world first,
+     * so face culling, lighting and ambient occlusion don't touch the world per voxel. Block properties and UVs come
+     * from {@link BlockRegistry#table()}, whose textures must have been resolved against {@code atlas}.
+     */
+    public static MeshData meshDataFromChunk(World world, Chunk c, TextureAtlas atlas) {
+        return meshDataFromChunk(world, c, atlas, null);
     }
 
     /**
-     * Add a face if there is no neighbour block (neighbor check uses world/global coords).
-     * Vertex coordinates produced here are local to the chunk (no world offsets).
+     * As above, but first looks in {@code cache} (may be null) for a mesh built from exactly the same input: the
+     * key hashes the copied-out chunk and border (blocks and light) together with the block table and mesher
+     * version. A fresh mesh is stored there for next time.
      */
-    private static void addFaceIfEmptyLocal(ArrayList<Float> pos, ArrayList<Float> norm, ArrayList<Float> tex, ArrayList<Float> col,
-                                            ArrayList<Integer> idx,
-                                            int baseCX, int baseCY, int baseCZ, int x, int y, int z,
-                                            World world,
-                                            BlockFace face, float nx, float ny, float nz, Block block, TextureAtlas atlas, float[] tint) {
-        int dx = 0, dy = 0, dz = 0;
-        switch (face) {
-            case NORTH -> dz = -1;
-            case SOUTH -> dz = 1;
-            case BOTTOM -> dy = -1;
-            case TOP -> dy = 1;
-            case WEST -> dx = -1;
-            case EAST -> dx = 1;
+    public static MeshData meshDataFromChunk(World world, Chunk c, TextureAtlas atlas, MeshDiskCache cache) {
+        long t0 = System.nanoTime();
+        ChunkNeighborhood n = ChunkNeighborhood.get();
+        n.fill(world, c);
+        long pos = 0, key = 0;
+        if (cache != null) {
+            pos = ChunkPos.pack(c.getCX(), c.getCY(), c.getCZ());
+            key = n.contentHash(BlockRegistry.table().fingerprint() * 31 + MESH_FORMAT);
+            MeshData cached = cache.get(pos, key);
+            if (cached != null) return cached;
         }
+        MeshData data = buildMesh(n);
+        EngineMetrics.MESH_BUILD_TIME.recordSince(t0);
+        if (cache != null) cache.put(pos, key, data);
+        return data;
+    }
 
-        int neighGlobalX = baseCX + x + dx;
-        int neighGlobalY = baseCY + y + dy;
-        int neighGlobalZ = baseCZ + z + dz;
-
-        // If neighbor is empty (or chunk missing), emit the face
-        if (world.getBlockGlobal(neighGlobalX, neighGlobalY, neighGlobalZ) == 0) {
-            int tile = block.getTileForFace(face);
-            float[] uv = atlas.getUVRect(tile);
-            float u0 = uv[0], v0 = uv[1], u1 = uv[2], v1 = uv[3];
-
-            int base = pos.size() / 3;
-
-            // local coordinates (no baseCX/CY/CZ added)
-            float wx = x;
-            float wy = y;
-            float wz = z;
-
-            switch (face) {
-                case NORTH -> {
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 0f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 0f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 0f, nx, ny, nz, u0, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 0f, nx, ny, nz, u1, v1, tint);
-                }
-                case SOUTH -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 1f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 1f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 1f, nx, ny, nz, u1, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 1f, nx, ny, nz, u0, v1, tint);
-                }
-                case BOTTOM -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 0f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 0f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 1f, nx, ny, nz, u1, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 1f, nx, ny, nz, u0, v1, tint);
-                }
-                case TOP -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 1f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 1f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 0f, nx, ny, nz, u1, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 0f, nx, ny, nz, u0, v1, tint);
-                }
-                case WEST -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 0f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 1f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 1f, nx, ny, nz, u0, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 0f, nx, ny, nz, u1, v1, tint);
-                }
-                case EAST -> {
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 1f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 0f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 0f, nx, ny, nz, u0, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 1f, nx, ny, nz, u1, v1, tint);
-                }
-            }
+    /** As {@link #meshDataFromChunk} but reading neighbours from a snapshot. Missing neighbours are air; light is full. */
+    public static MeshData meshDataFromChunkSnapshot(BlockSnapshot snap, int cx, int cy, int cz, int[] voxels, TextureAtlas atlas) {
+        long t0 = System.nanoTime();
+        ChunkNeighborhood n = ChunkNeighborhood.get();
+        n.fill(snap, cx, cy, cz, voxels);
+        MeshData data = buildMesh(n);
+        EngineMetrics.MESH_BUILD_TIME.recordSince(t0);
+        return data;
+    }
 
-            idx.add(base + 0); idx.add(base + 1); idx.add(base + 2);
-            idx.add(base + 2); idx.add(base + 3); idx.add(base + 0);
-        }
+    /** Face records for a single chunk ({@link FaceData}), from the same input and culling as {@link #meshDataFromChunk}. */
+    public static FaceData faceDataFromChunk(World world, Chunk c) {
+        long t0 = System.nanoTime();
+        ChunkNeighborhood n = ChunkNeighborhood.get();
+        n.fill(world, c);
+        FaceData data = buildFaces(n);
+        EngineMetrics.MESH_BUILD_TIME.recordSince(t0);
+        return data;
     }
 
-    public static MeshData meshDataFromChunkSnapshot(BlockSnapshot snap, int cx, int cy, int cz, int[] voxels, TextureAtlas atlas) {
+    private static MeshData buildMesh(ChunkNeighborhood n) {
         ArrayList<Float> pos = new ArrayList<>();
         ArrayList<Float> norm = new ArrayList<>();
         ArrayList<Float> tex = new ArrayList<>();
         ArrayList<Float> col = new ArrayList<>();
         ArrayList<Integer> idx = new ArrayList<>();
 
-        final int baseCX = cx * Chunk.SIZE;
-        final int baseCY = cy * Chunk.SIZE;
-        final int baseCZ = cz * Chunk.SIZE;
+        final BlockTable table = BlockRegistry.table();
+        final int[] blocks = n.blocks;
+        final int[] ao = new int[4];
 
         for (int z = 0; z < Chunk.SIZE; z++) {
             for (int y = 0; y < Chunk.SIZE; y++) {
                 for (int x = 0; x < Chunk.SIZE; x++) {
-                    int blockId = voxels[x + y * Chunk.SIZE + z * Chunk.SIZE * Chunk.SIZE];
-                    if (blockId == 0) continue;
-                    Block block = BlockRegistry.getOrNull(blockId);
-                    if (block == null) continue;
-
-                    float[] tint = block.getTintRGBA();
-
-                    addFaceIfEmptySnapshot(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            snap, BlockFace.NORTH, 0f, 0f, -1f, block, atlas, tint);
-                    addFaceIfEmptySnapshot(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            snap, BlockFace.SOUTH, 0f, 0f, 1f, block, atlas, tint);
-                    addFaceIfEmptySnapshot(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            snap, BlockFace.BOTTOM, 0f, -1f, 0f, block, atlas, tint);
-                    addFaceIfEmptySnapshot(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            snap, BlockFace.TOP, 0f, 1f, 0f, block, atlas, tint);
-                    addFaceIfEmptySnapshot(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            snap, BlockFace.WEST, -1f, 0f, 0f, block, atlas, tint);
-                    addFaceIfEmptySnapshot(pos, norm, tex, col, idx,
-                            baseCX, baseCY, baseCZ, x, y, z,
-                            snap, BlockFace.EAST, 1f, 0f, 0f, block, atlas, tint);
+                    int i = ChunkNeighborhood.index(x, y, z);
+                    int blockId = blocks[i];
+                    if (table.block(blockId) == null) continue; // air or unknown id
+
+                    float r = table.tint(blockId, 0), g = table.tint(blockId, 1), b = table.tint(blockId, 2);
+                    float a = table.tint(blockId, 3);
+
+                    for (int f = 0; f < 6; f++) {
+                        int ni = i + NEIGHBOUR_OFFSET[f];
+                        // emit the face unless an opaque neighbour hides it (missing chunks read as air)
+                        if (table.isOpaque(blocks[ni])) continue;
+
+                        float light = brightness(n.light[ni] & 0xFF);
+                        float[] normal = NORMALS[f];
+                        int base = pos.size() / 3;
+
+                        for (int v = 0; v < 4; v++) {
+                            int[] d = AO_OFFSETS[f][v];
+                            ao[v] = vertexAO(table.isOpaque(blocks[i + d[0]]), table.isOpaque(blocks[i + d[1]]),
+                                    table.isOpaque(blocks[i + d[2]]));
+                            int[] corner = CORNERS[f][v];
+                            addVertex(pos, norm, tex, col,
+                                    x + corner[0], y + corner[1], z + corner[2],
+                                    normal[0], normal[1], normal[2],
+                                    table.uv(blockId, f, corner[3]), table.uv(blockId, f, corner[4]),
+                                    r, g, b, a * light * AO_CURVE[ao[v]]);
+                        }
+
+                        // split along the diagonal with the brighter ends, otherwise a single dark corner
+                        // smears across both triangles and the shading depends on the quad's orientation
+                        if (ao[0] + ao[2] < ao[1] + ao[3]) {
+                            idx.add(base + 1); idx.add(base + 2); idx.add(base + 3);
+                            idx.add(base + 3); idx.add(base + 0); idx.add(base + 1);
+                        } else {
+                            idx.add(base + 0); idx.add(base + 1); idx.add(base + 2);
+                            idx.add(base + 2); idx.add(base + 3); idx.add(base + 0);
+                        }
+                    }
                 }
             }
         }
@@ -219,80 +179,162 @@ public class ChunkMesher {
         );
     }
 
-    private static void addFaceIfEmptySnapshot(ArrayList<Float> pos, ArrayList<Float> norm, ArrayList<Float> tex, ArrayList<Float> col,
-                                               ArrayList<Integer> idx,
-                                               int baseCX, int baseCY, int baseCZ, int x, int y, int z,
-                                               BlockSnapshot snap,
-                                               BlockFace face, float nx, float ny, float nz, Block block, TextureAtlas atlas, float[] tint) {
-        int dx = 0, dy = 0, dz = 0;
-        switch (face) {
-            case NORTH -> dz = -1;
-            case SOUTH -> dz = 1;
-            case BOTTOM -> dy = -1;
-            case TOP -> dy = 1;
-            case WEST -> dx = -1;
-            case EAST -> dx = 1;
-        }
+    private static FaceData buildFaces(ChunkNeighborhood n) {
+        final BlockTable table = BlockRegistry.table();
+        final int[] blocks = n.blocks;
+        int[] out = new int[512];
+        int size = 0;
 
-        int neighGlobalX = baseCX + x + dx;
-        int neighGlobalY = baseCY + y + dy;
-        int neighGlobalZ = baseCZ + z + dz;
-
-        // Query snapshot (not world). Missing neighbors -> treated as empty/air.
-        if (snap.getBlockGlobal(neighGlobalX, neighGlobalY, neighGlobalZ) == 0) {
-            int tile = block.getTileForFace(face);
-            float[] uv = atlas.getUVRect(tile);
-            float u0 = uv[0], v0 = uv[1], u1 = uv[2], v1 = uv[3];
-
-            int base = pos.size() / 3;
-
-            // local chunk coordinates (no world offsets)
-            float wx = x;
-            float wy = y;
-            float wz = z;
-
-            switch (face) {
-                case NORTH -> {
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 0f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 0f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 0f, nx, ny, nz, u0, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 0f, nx, ny, nz, u1, v1, tint);
-                }
-                case SOUTH -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 1f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 1f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 1f, nx, ny, nz, u1, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 1f, nx, ny, nz, u0, v1, tint);
-                }
-                case BOTTOM -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 0f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 0f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 1f, nx, ny, nz, u1, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 1f, nx, ny, nz, u0, v1, tint);
-                }
-                case TOP -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 1f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 1f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 0f, nx, ny, nz, u1, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 0f, nx, ny, nz, u0, v1, tint);
-                }
-                case WEST -> {
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 0f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 0f, wz + 1f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 1f, nx, ny, nz, u0, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 0f, wy + 1f, wz + 0f, nx, ny, nz, u1, v1, tint);
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int y = 0; y < Chunk.SIZE; y++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    int i = ChunkNeighborhood.index(x, y, z);
+                    int blockId = blocks[i];
+                    if (table.block(blockId) == null) continue; // air or unknown id
+
+                    for (int f = 0; f < 6; f++) {
+                        int ni = i + NEIGHBOUR_OFFSET[f];
+                        if (table.isOpaque(blocks[ni])) continue;
+
+                        int light = n.light[ni] & 0xFF;
+                        int record = x | y << 4 | z << 8 | f << 12 | Math.max(light >> 4, light & 0xF) << 15;
+                        for (int v = 0; v < 4; v++) {
+                            int[] d = AO_OFFSETS[f][v];
+                            record |= vertexAO(table.isOpaque(blocks[i + d[0]]), table.isOpaque(blocks[i + d[1]]),
+                                    table.isOpaque(blocks[i + d[2]])) << (19 + 2 * v);
+                        }
+                        int tile = table.tile(blockId, f);
+                        if (size == out.length) out = Arrays.copyOf(out, size * 2);
+                        out[size++] = record;
+                        out[size++] = (tile < 0 ? NO_TILE : tile) | blockId << 16;
+                    }
                 }
-                case EAST -> {
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 1f, nx, ny, nz, u1, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 0f, wz + 0f, nx, ny, nz, u0, v0, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 0f, nx, ny, nz, u0, v1, tint);
-                    addVertex(pos, norm, tex, col, wx + 1f, wy + 1f, wz + 1f, nx, ny, nz, u1, v1, tint);
+            }
+        }
+        return new FaceData(Arrays.copyOf(out, size));
+    }
+
+    /**
+     * Expand face records into the quads {@link #meshDataFromChunk} builds for the same chunk, exactly as the
+     * chunk_faces vertex shader does (same corners, UVs, colours and triangle split). Tints and UVs come from
+     * {@link BlockRegistry#table()}.
+     */
+    public static MeshData expandFaces(FaceData data) {
+        final BlockTable table = BlockRegistry.table();
+        int count = data.getFaceCount();
+        float[] pos = new float[count * 12], norm = new float[count * 12], tex = new float[count * 8], col = new float[count * 16];
+        int[] idx = new int[count * 6];
+        int[] ao = new int[4];
+
+        for (int q = 0; q < count; q++) {
+            int record = data.faces[2 * q], blockId = data.faces[2 * q + 1] >>> 16;
+            int x = record & 15, y = record >> 4 & 15, z = record >> 8 & 15, f = record >> 12 & 7;
+            float light = LIGHT_CURVE[record >> 15 & 15];
+            float[] normal = NORMALS[f];
+            float r = table.tint(blockId, 0), g = table.tint(blockId, 1), b = table.tint(blockId, 2);
+            float a = table.tint(blockId, 3);
+
+            for (int v = 0; v < 4; v++) {
+                ao[v] = record >> (19 + 2 * v) & 3;
+                int[] corner = CORNERS[f][v];
+                int k = q * 4 + v;
+                pos[k * 3] = x + corner[0];
+                pos[k * 3 + 1] = y + corner[1];
+                pos[k * 3 + 2] = z + corner[2];
+                System.arraycopy(normal, 0, norm, k * 3, 3);
+                tex[k * 2] = table.uv(blockId, f, corner[3]);
+                tex[k * 2 + 1] = table.uv(blockId, f, corner[4]);
+                col[k * 4] = r;
+                col[k * 4 + 1] = g;
+                col[k * 4 + 2] = b;
+                col[k * 4 + 3] = a * light * AO_CURVE[ao[v]];
+            }
+            int base = q * 4, s = ao[0] + ao[2] < ao[1] + ao[3] ? 1 : 0; // same diagonal rule as buildMesh
+            idx[q * 6] = base + s;
+            idx[q * 6 + 1] = base + s + 1;
+            idx[q * 6 + 2] = base + s + 2;
+            idx[q * 6 + 3] = base + s + 2;
+            idx[q * 6 + 4] = base + (s + 3) % 4;
+            idx[q * 6 + 5] = base + s;
+        }
+        return new MeshData(pos, norm, tex, col, idx);
+    }
+
+    /** Brightness of a light level (0..15), as baked into vertex colours. */
+    static float lightCurve(int level) {
+        return LIGHT_CURVE[level];
+    }
+
+    /** Ambient occlusion factor of an occlusion value (0..3), as baked into vertex colours. */
+    static float aoCurve(int ao) {
+        return AO_CURVE[ao];
+    }
+
+    /** 0 (fully occluded) .. 3 (open) from the two edge neighbours and the diagonal one in front of a corner. */
+    private static int vertexAO(boolean side1, boolean side2, boolean corner) {
+        if (side1 && side2) return 0;
+        return 3 - ((side1 ? 1 : 0) + (side2 ? 1 : 0) + (corner ? 1 : 0));
+    }
+
+    private static final float[] AO_CURVE = {0.5f, 0.7f, 0.85f, 1f};
+
+    /** Per face ({@link BlockFace} order) the outward normal. */
+    private static final float[][] NORMALS = {
+            {0f, 0f, -1f}, {0f, 0f, 1f}, {0f, -1f, 0f}, {0f, 1f, 0f}, {-1f, 0f, 0f}, {1f, 0f, 0f}
+    };
+
+    /**
+     * Per face (BlockFace order) its four corners as {x, y, z, u index, v index} relative to the block's min
+     * corner; the u/v indices pick from the face's atlas rect {u0, v0, u1, v1}.
+     */
+    private static final int[][][] CORNERS = {
+            {{1, 0, 0, 2, 1}, {0, 0, 0, 0, 1}, {0, 1, 0, 0, 3}, {1, 1, 0, 2, 3}}, // NORTH
+            {{0, 0, 1, 0, 1}, {1, 0, 1, 2, 1}, {1, 1, 1, 2, 3}, {0, 1, 1, 0, 3}}, // SOUTH
+            {{0, 0, 0, 0, 1}, {1, 0, 0, 2, 1}, {1, 0, 1, 2, 3}, {0, 0, 1, 0, 3}}, // BOTTOM
+            {{0, 1, 1, 0, 1}, {1, 1, 1, 2, 1}, {1, 1, 0, 2, 3}, {0, 1, 0, 0, 3}}, // TOP
+            {{0, 0, 0, 2, 1}, {0, 0, 1, 0, 1}, {0, 1, 1, 0, 3}, {0, 1, 0, 2, 3}}, // WEST
+            {{1, 0, 1, 2, 1}, {1, 0, 0, 0, 1}, {1, 1, 0, 0, 3}, {1, 1, 1, 2, 3}}, // EAST
+    };
+
+    /** Per face, padded-index offset of the neighbour the face looks into. */
+    private static final int[] NEIGHBOUR_OFFSET = new int[6];
+    /** Per face and corner, padded-index offsets of {side1, side2, corner} in the layer in front of the face. */
+    private static final int[][][] AO_OFFSETS = new int[6][4][3];
+    static {
+        for (int f = 0; f < 6; f++) {
+            int[] nrm = {(int) NORMALS[f][0], (int) NORMALS[f][1], (int) NORMALS[f][2]};
+            NEIGHBOUR_OFFSET[f] = offset(nrm[0], nrm[1], nrm[2]);
+            for (int v = 0; v < 4; v++) {
+                // towards the corner along the two axes tangent to the face
+                int[] side1 = new int[3], side2 = new int[3];
+                int[] target = side1;
+                for (int axis = 0; axis < 3; axis++) {
+                    if (nrm[axis] != 0) continue;
+                    target[axis] = CORNERS[f][v][axis] == 1 ? 1 : -1;
+                    target = side2;
                 }
+                AO_OFFSETS[f][v][0] = NEIGHBOUR_OFFSET[f] + offset(side1[0], side1[1], side1[2]);
+                AO_OFFSETS[f][v][1] = NEIGHBOUR_OFFSET[f] + offset(side2[0], side2[1], side2[2]);
+                AO_OFFSETS[f][v][2] = NEIGHBOUR_OFFSET[f]
+                        + offset(side1[0] + side2[0], side1[1] + side2[1], side1[2] + side2[2]);
             }
+        }
+    }
 
-            idx.add(base + 0); idx.add(base + 1); idx.add(base + 2);
-            idx.add(base + 2); idx.add(base + 3); idx.add(base + 0);
+    /** Face (BlockFace order) whose normal is (x, y, z), or -1. */
+    static int faceOf(float x, float y, float z) {
+        for (int f = 0; f < 6; f++) {
+            if (NORMALS[f][0] == x && NORMALS[f][1] == y && NORMALS[f][2] == z) return f;
         }
+        return -1;
+    }
+
+    static float[] normalOf(int face) {
+        return NORMALS[face];
+    }
+
+    private static int offset(int dx, int dy, int dz) {
+        return dx + dy * ChunkNeighborhood.STRIDE_Y + dz * ChunkNeighborhood.STRIDE_Z;
     }
 
     private static float[] toArray(ArrayList<Float> list) {
@@ -301,14 +343,29 @@ public class ChunkMesher {
         return arr;
     }
 
+    /**
+     * Brightness for a packed light value (sky << 4 | block): each level below 15 dims by 20%, with a small floor
+     * so unlit caves are dark but not pitch black.
+     */
+    private static float brightness(int packedLight) {
+        int level = Math.max(packedLight >> 4, packedLight & 0xF);
+        return LIGHT_CURVE[level];
+    }
+
+    private static final float[] LIGHT_CURVE = new float[16];
+    static {
+        for (int i = 0; i < 16; i++) LIGHT_CURVE[i] = 0.05f + 0.95f * (float) Math.pow(0.8, 15 - i);
+    }
+
+    /** Vertex colour is the block tint, with the baked light level and ambient occlusion in alpha (shader: intensity multiplier). */
     private static void addVertex(ArrayList<Float> pos, ArrayList<Float> norm, ArrayList<Float> tex, ArrayList<Float> col,
                                   float px, float py, float pz,
                                   float nx, float ny, float nz,
                                   float u, float v,
-                                  float[] tintRGBA) {
+                                  float r, float g, float b, float a) {
         pos.add(px); pos.add(py); pos.add(pz);
         norm.add(nx); norm.add(ny); norm.add(nz);
         tex.add(u); tex.add(v);
-        col.add(tintRGBA[0]); col.add(tintRGBA[1]); col.add(tintRGBA[2]); col.add(tintRGBA[3]);
+        col.add(r); col.add(g); col.add(b); col.add(a);
     }
 }
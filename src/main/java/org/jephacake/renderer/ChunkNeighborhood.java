@@ -0,0 +1,102 @@
+package org.jephacake.renderer;
+
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+
+/**
+ * A chunk's voxels and light plus a one-voxel border from its 26 neighbours, copied into flat
+ * {@value #PADDED}^3 arrays so the mesher's face, light and ambient-occlusion lookups are plain array reads
+ * instead of per-voxel world queries. Copies whole rows where it can. Reused per meshing thread.
+ *
+ * Padded index = (x + 1) + (y + 1) * PADDED + (z + 1) * PADDED^2 for chunk-local x, y, z in -1..SIZE.
+ */
+final class ChunkNeighborhood {
+    static final int PADDED = Chunk.SIZE + 2;
+    static final int STRIDE_Y = PADDED;
+    static final int STRIDE_Z = PADDED * PADDED;
+    /** Light read for cells of missing neighbours: full sky, as the light engine assumes. */
+    static final int MISSING_LIGHT = 15 << 4;
+
+    final int[] blocks = new int[PADDED * PADDED * PADDED];
+    final byte[] light = new byte[PADDED * PADDED * PADDED];
+
+    private static final ThreadLocal<ChunkNeighborhood> LOCAL = ThreadLocal.withInitial(ChunkNeighborhood::new);
+
+    /** This thread's instance; contents are overwritten by the next fill. */
+    static ChunkNeighborhood get() {
+        return LOCAL.get();
+    }
+
+    static int index(int x, int y, int z) {
+        return (x + 1) + (y + 1) * STRIDE_Y + (z + 1) * STRIDE_Z;
+    }
+
+    /**
+     * 64-bit hash of everything the mesher reads (blocks and light of the whole padded box), starting from
+     * {@code seed}. Identifies a mesh's input for {@link MeshDiskCache}; not cryptographic.
+     */
+    long contentHash(long seed) {
+        long h = seed;
+        for (int b : blocks) h = mix(h, b);
+        for (int i = 0; i < light.length; i += 4) {
+            h = mix(h, (light[i] & 0xFF) | (light[i + 1] & 0xFF) << 8 | (light[i + 2] & 0xFF) << 16 | light[i + 3] << 24);
+        }
+        return h ^ (h >>> 29);
+    }
+
+    private static long mix(long h, int v) {
+        return Long.rotateLeft((h ^ v) * 0x9E3779B97F4A7C15L, 23);
+    }
+
+    void fill(World world, Chunk center) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    Chunk c = dx == 0 && dy == 0 && dz == 0 ? center
+                            : world.getChunk(center.getCX() + dx, center.getCY() + dy, center.getCZ() + dz);
+                    copyPart(c != null ? c.getVoxelData() : null, c, dx, dy, dz);
+                }
+            }
+        }
+    }
+
+    /** Fill from a snapshot (voxels only; light reads as full). */
+    void fill(BlockSnapshot snap, int cx, int cy, int cz, int[] centerVoxels) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int[] v = dx == 0 && dy == 0 && dz == 0 ? centerVoxels : snap.getVoxels(cx + dx, cy + dy, cz + dz);
+                    copyPart(v, null, dx, dy, dz);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the part of neighbour (dx,dy,dz) that lies inside the padded box: the whole chunk for the centre,
+     * a one-voxel slab, edge or corner for the others. {@code lightSource} may be null (full light).
+     */
+    private void copyPart(int[] voxels, Chunk lightSource, int dx, int dy, int dz) {
+        int last = Chunk.SIZE - 1;
+        int x0 = dx < 0 ? last : 0, x1 = dx > 0 ? 0 : last;
+        int y0 = dy < 0 ? last : 0, y1 = dy > 0 ? 0 : last;
+        int z0 = dz < 0 ? last : 0, z1 = dz > 0 ? 0 : last;
+        int px = dx * Chunk.SIZE, py = dy * Chunk.SIZE, pz = dz * Chunk.SIZE; // chunk-local -> centre-local
+        int rowLength = x1 - x0 + 1;
+
+        for (int z = z0; z <= z1; z++) {
+            for (int y = y0; y <= y1; y++) {
+                int src = x0 + y * Chunk.SIZE + z * Chunk.SIZE * Chunk.SIZE;
+                int dst = index(x0 + px, y + py, z + pz);
+                if (voxels == null) {
+                    java.util.Arrays.fill(blocks, dst, dst + rowLength, 0);
+                } else {
+                    System.arraycopy(voxels, src, blocks, dst, rowLength);
+                }
+                for (int i = 0; i < rowLength; i++) {
+                    light[dst + i] = (byte) (lightSource != null ? lightSource.getPackedLight(src + i) : MISSING_LIGHT);
+                }
+            }
+        }
+    }
+}
@@ -1,50 +1,59 @@
 package org.jephacake.renderer;
 
 import org.jephacake.world.Chunk;
-import org.jephacake.world.World;
 import org.joml.Matrix4f;
 import org.joml.FrustumIntersection;
+import org.joml.Vector3f;
 
-import java.util.Collection;
+import java.util.Map;
 
 /**
  * Small helper that does frustum test + chunk rendering.
  * Expects chunk mesh vertex positions to be in local chunk coordinates (0..Chunk.SIZE).
- * Applies translation at render time: translate = (cx*SIZE, cy*SIZE, cz*SIZE) + world.position.
+ * Applies translation at render time: translate = (cx*SIZE, cy*SIZE, cz*SIZE) + worldPosition.
  */
 public class ChunkRenderer {
 
     private final Matrix4f modelMat = new Matrix4f();
+    private int lastRenderedChunks;
+    private int lastRenderedVertices;
 
-    public void renderChunks(Collection<Chunk> chunks, Renderer renderer, World world) {
+    public void renderChunks(Map<Chunk, Model> models, Renderer renderer, Vector3f worldPosition) {
 
         FrustumIntersection fi = renderer.getFrustum();
 
         int totalVerts = 0;
         int renderedChunks = 0;
 
-        for (Chunk c : chunks) {
-            float minX = c.getCX() * Chunk.SIZE + world.position.x;
-            float minY = c.getCY() * Chunk.SIZE + world.position.y;
-            float minZ = c.getCZ() * Chunk.SIZE + world.position.z;
+        for (Map.Entry<Chunk, Model> e : models.entrySet()) {
+            Chunk c = e.getKey();
+            float minX = c.getCX() * Chunk.SIZE + worldPosition.x;
+            float minY = c.getCY() * Chunk.SIZE + worldPosition.y;
+            float minZ = c.getCZ() * Chunk.SIZE + worldPosition.z;
             float maxX = minX + Chunk.SIZE;
             float maxY = minY + Chunk.SIZE;
             float maxZ = minZ + Chunk.SIZE;
 
             if (!fi.testAab(minX, minY, minZ, maxX, maxY, maxZ)) continue;
 
-            Model model = c.getCachedModel();
-            if (model == null) continue;
+            Model model = e.getValue();
 
             modelMat.identity();
             modelMat.translate(minX, minY, minZ);
 
             renderer.renderModel(model, modelMat);
 
-            if (c.getMesh() != null) totalVerts += c.getMesh().getVertexCount();
+            totalVerts += model.getVertexCount();
             renderedChunks++;
         }
 
-//        System.out.println("Rendered " + renderedChunks + " chunks with total " + totalVerts + " vertices.");
+        lastRenderedChunks = renderedChunks;
+        lastRenderedVertices = totalVerts;
     }
+
+    /** Chunks that passed the frustum test in the last renderChunks call. */
+    public int getLastRenderedChunks() { return lastRenderedChunks; }
+
+    /** Vertices drawn by the last renderChunks call: the draw counts, so shared corners count once per triangle. */
+    public int getLastRenderedVertices() { return lastRenderedVertices; }
 }
@@ -0,0 +1,241 @@
+package org.jephacake.renderer;
+
+import org.jephacake.metrics.EngineMetrics;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Performance overlay (toggled with F3 via Options.debugMode).
+ * Shows FPS, a frame-time graph, chunk/vertex counts, mesh queue depth and heap/direct memory.
+ *
+ * Everything (panel, text, graph bars) is written into one reusable CPU buffer and drawn with a single
+ * glDrawArrays per frame, and text is formatted without per-frame allocation, so the overlay stays out of
+ * the numbers it is reporting.
+ *
+ * Vertex layout (interleaved floats): vec2 position (pixels, y down), vec2 uv, vec4 color.
+ */
+public class DebugOverlay implements AutoCloseable {
+    private static final int FLOATS_PER_VERTEX = 8;
+    private static final int GRAPH_SAMPLES = 240;
+    private static final float GRAPH_HEIGHT = 60f;
+    private static final float GRAPH_BAR_WIDTH = 2f;
+    private static final float TARGET_FRAME_MS = 1000f / 60f;
+    private static final float MARGIN = 8f;
+    private static final float PADDING = 6f;
+    private static final float PANEL_WIDTH = GRAPH_SAMPLES * GRAPH_BAR_WIDTH + 2 * PADDING;
+    private static final int TEXT_LINES = 4;
+
+    private final ShaderProgram shader;
+    private final FontAtlas font;
+    private final int vao;
+    private final int vbo;
+    private FloatBuffer vertices;
+    private int vertexCount;
+
+    // frame-time ring buffer (milliseconds)
+    private final float[] frameMs = new float[GRAPH_SAMPLES];
+    private int frameHead = 0;
+
+    // FPS over a rolling one-second window
+    private long fpsWindowNanos = 0;
+    private int fpsFrames = 0;
+    private int fps = 0;
+
+    private final StringBuilder line = new StringBuilder(96);
+
+    public DebugOverlay() throws IOException {
+        shader = new ShaderProgram("org/jephacake/assets/shaders/overlay.vert", "org/jephacake/assets/shaders/overlay.frag");
+        font = FontAtlas.bake("org/jephacake/assets/fonts/RobotoMono-Regular.ttf", 16f);
+
+        vertices = MemoryUtil.memAllocFloat(4096 * FLOATS_PER_VERTEX);
+
+        vao = glGenVertexArrays();
+        glBindVertexArray(vao);
+        vbo = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        int stride = FLOATS_PER_VERTEX * Float.BYTES;
+        glEnableVertexAttribArray(0);
+        glVertexAttribPointer(0, 2, GL_FLOAT, false, stride, 0);
+        glEnableVertexAttribArray(1);
+        glVertexAttribPointer(1, 2, GL_FLOAT, false, stride, 2 * Float.BYTES);
+        glEnableVertexAttribArray(2);
+        glVertexAttribPointer(2, 4, GL_FLOAT, false, stride, 4 * Float.BYTES);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+    }
+
+    /** Feed the duration of the last full frame. Call once per frame whether or not the overlay is visible. */
+    public void recordFrame(long frameNanos) {
+        frameMs[frameHead] = frameNanos / 1_000_000f;
+        frameHead = (frameHead + 1) % GRAPH_SAMPLES;
+
+        fpsFrames++;
+        fpsWindowNanos += frameNanos;
+        if (fpsWindowNanos >= 1_000_000_000L) {
+            fps = (int) Math.round(fpsFrames * 1e9 / fpsWindowNanos);
+            fpsFrames = 0;
+            fpsWindowNanos = 0;
+        }
+    }
+
+    public void render(int screenW, int screenH) {
+        vertices.clear();
+        vertexCount = 0;
+
+        float lineH = font.getPixelHeight() + 2f;
+        float panelH = PADDING + TEXT_LINES * lineH + PADDING + GRAPH_HEIGHT + PADDING;
+        quad(MARGIN, MARGIN, MARGIN + PANEL_WIDTH, MARGIN + panelH, 0f, 0f, 0f, 0.55f);
+
+        float x = MARGIN + PADDING;
+        float y = MARGIN + PADDING;
+
+        float avg = 0f, max = 0f;
+        for (float ms : frameMs) { avg += ms; max = Math.max(max, ms); }
+        avg /= GRAPH_SAMPLES;
+
+        line.setLength(0);
+        line.append("FPS ").append(fps).append("  frame ");
+        appendFixed1(line, avg).append(" ms  max ");
+        appendFixed1(line, max).append(" ms");
+        text(line, x, y);
+        y += lineH;
+
+        line.setLength(0);
+        line.append("chunks loaded ").append(EngineMetrics.CHUNKS_LOADED.getValue())
+            .append("  meshed ").append(EngineMetrics.CHUNKS_MESHED.getValue())
+            .append("  rendered ").append(EngineMetrics.CHUNKS_RENDERED.getValue());
+        text(line, x, y);
+        y += lineH;
+
+        line.setLength(0);
+        line.append("vertices ").append(EngineMetrics.VERTICES_RENDERED.getValue())
+            .append("  mesh queue ").append(EngineMetrics.MESH_QUEUE_DEPTH.getValue())
+            .append("  jobs ").append(EngineMetrics.MESH_JOBS_PENDING.getValue());
+        text(line, x, y);
+        y += lineH;
+
+        Runtime rt = Runtime.getRuntime();
+        line.setLength(0);
+        line.append("heap ").append(EngineMetrics.HEAP_USED.getValue() >> 20)
+            .append('/').append(rt.maxMemory() >> 20)
+            .append(" MB  direct ").append(EngineMetrics.DIRECT_USED.getValue() >> 20).append(" MB");
+        text(line, x, y);
+        y += lineH + PADDING;
+
+        graph(x, y);
+
+        draw(screenW, screenH);
+    }
+
+    /** Bars oldest -> newest, green under 60 FPS budget, yellow under 30 FPS, red above; plus a 60 FPS guide line. */
+    private void graph(float x0, float y0) {
+        float bottom = y0 + GRAPH_HEIGHT;
+        float scale = GRAPH_HEIGHT / (2f * TARGET_FRAME_MS); // full height = 30 FPS
+        for (int i = 0; i < GRAPH_SAMPLES; i++) {
+            float ms = frameMs[(frameHead + i) % GRAPH_SAMPLES];
+            float h = Math.min(GRAPH_HEIGHT, ms * scale);
+            float bx = x0 + i * GRAPH_BAR_WIDTH;
+            if (ms <= TARGET_FRAME_MS) quad(bx, bottom - h, bx + GRAPH_BAR_WIDTH, bottom, 0.3f, 0.9f, 0.3f, 0.9f);
+            else if (ms <= 2f * TARGET_FRAME_MS) quad(bx, bottom - h, bx + GRAPH_BAR_WIDTH, bottom, 0.95f, 0.85f, 0.2f, 0.9f);
+            else quad(bx, bottom - h, bx + GRAPH_BAR_WIDTH, bottom, 0.95f, 0.25f, 0.2f, 0.9f);
+        }
+        float guide = bottom - TARGET_FRAME_MS * scale;
+        quad(x0, guide, x0 + GRAPH_SAMPLES * GRAPH_BAR_WIDTH, guide + 1f, 1f, 1f, 1f, 0.5f);
+    }
+
+    private void text(CharSequence s, float x, float top) {
+        float[] g = font.getGlyphTable();
+        float penX = x;
+        float baseline = top + font.getAscent();
+        for (int i = 0; i < s.length(); i++) {
+            int o = font.glyphOffset(s.charAt(i));
+            float gx0 = Math.round(penX + g[o]);
+            float gy0 = Math.round(baseline + g[o + 1]);
+            float gx1 = gx0 + (g[o + 2] - g[o]);
+            float gy1 = gy0 + (g[o + 3] - g[o + 1]);
+            if (gx1 > gx0) {
+                vertexQuad(gx0, gy0, gx1, gy1, g[o + 4], g[o + 5], g[o + 6], g[o + 7], 1f, 1f, 1f, 1f);
+            }
+            penX += g[o + 8];
+        }
+    }
+
+    private void quad(float x0, float y0, float x1, float y1, float r, float gr, float b, float a) {
+        float u = font.getWhiteU(), v = font.getWhiteV();
+        vertexQuad(x0, y0, x1, y1, u, v, u, v, r, gr, b, a);
+    }
+
+    private void vertexQuad(float x0, float y0, float x1, float y1,
+                            float s0, float t0, float s1, float t1,
+                            float r, float g, float b, float a) {
+        ensureCapacity(6);
+        vertex(x0, y0, s0, t0, r, g, b, a);
+        vertex(x0, y1, s0, t1, r, g, b, a);
+        vertex(x1, y1, s1, t1, r, g, b, a);
+        vertex(x1, y1, s1, t1, r, g, b, a);
+        vertex(x1, y0, s1, t0, r, g, b, a);
+        vertex(x0, y0, s0, t0, r, g, b, a);
+    }
+
+    private void vertex(float x, float y, float u, float v, float r, float g, float b, float a) {
+        vertices.put(x).put(y).put(u).put(v).put(r).put(g).put(b).put(a);
+        vertexCount++;
+    }
+
+    private void ensureCapacity(int extraVertices) {
+        int needed = (vertexCount + extraVertices) * FLOATS_PER_VERTEX;
+        if (needed > vertices.capacity()) {
+            vertices = MemoryUtil.memRealloc(vertices, Math.max(needed, vertices.capacity() * 2));
+        }
+    }
+
+    private void draw(int screenW, int screenH) {
+        vertices.flip();
+
+        glDisable(GL_DEPTH_TEST);
+        glDisable(GL_CULL_FACE);
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+        shader.use();
+        shader.setUniform("uScreenSize", (float) screenW, (float) screenH);
+        font.getTexture().bind(0);
+        shader.setUniform("uTexture", 0);
+
+        glBindVertexArray(vao);
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glBufferData(GL_ARRAY_BUFFER, vertices, GL_STREAM_DRAW); // orphans last frame's storage
+        glDrawArrays(GL_TRIANGLES, 0, vertexCount);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+
+        font.getTexture().unbind();
+        shader.stop();
+
+        glDisable(GL_BLEND);
+        glEnable(GL_CULL_FACE);
+        glEnable(GL_DEPTH_TEST);
+    }
+
+    /** Append v with one decimal place without going through Float.toString. */
+    private static StringBuilder appendFixed1(StringBuilder sb, float v) {
+        long tenths = Math.round(v * 10.0);
+        return sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    @Override
+    public void close() {
+        glDeleteBuffers(vbo);
+        glDeleteVertexArrays(vao);
+        MemoryUtil.memFree(vertices);
+        font.close();
+        shader.close();
+    }
+}
@@ -0,0 +1,73 @@
+package org.jephacake.renderer;
+
+import org.jephacake.metrics.EngineMetrics;
+import org.lwjgl.BufferUtils;
+
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * GPU side of {@link ChunkMesher.FaceData}: one buffer of 8-byte face records, drawn as one 6-vertex instance per
+ * face that the chunk_faces vertex shader expands into a quad. Needs a {@link FaceTable} bound when drawn.
+ * Attribute layout: 0 = uvec2 face record, advancing per instance.
+ */
+public class FaceMesh implements AutoCloseable {
+    private final int vaoId;
+    private final int vbo;
+    private int faceCount;
+    private long gpuBytes;
+
+    public FaceMesh(int[] faces) {
+        vaoId = glGenVertexArrays();
+        glBindVertexArray(vaoId);
+        vbo = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glEnableVertexAttribArray(0);
+        glVertexAttribIPointer(0, 2, GL_UNSIGNED_INT, 2 * Integer.BYTES, 0);
+        glVertexAttribDivisor(0, 1);
+        glBindVertexArray(0);
+        update(faces);
+    }
+
+    /** Replace the face records, re-uploading the whole buffer. */
+    public void update(int[] faces) {
+        long t0 = System.nanoTime();
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        IntBuffer buf = BufferUtils.createIntBuffer(faces.length);
+        buf.put(faces).flip();
+        glBufferData(GL_ARRAY_BUFFER, buf, GL_DYNAMIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        faceCount = faces.length / 2;
+        gpuBytes = 4L * faces.length;
+        EngineMetrics.MESH_UPLOAD_TIME.recordSince(t0);
+        EngineMetrics.MESH_UPLOADS.inc();
+        EngineMetrics.MESH_UPLOAD_BYTES.add(gpuBytes);
+    }
+
+    public void render() {
+        glBindVertexArray(vaoId);
+        glDrawArraysInstanced(GL_TRIANGLES, 0, 6, faceCount);
+        glBindVertexArray(0);
+    }
+
+    /** Vertices the shader generates (6 per face), comparable to {@link Mesh#getVertexCount}. */
+    public int getVertexCount() {
+        return faceCount * 6;
+    }
+
+    public long getGpuBytes() {
+        return gpuBytes;
+    }
+
+    @Override
+    public void close() {
+        glDeleteBuffers(vbo);
+        glDeleteVertexArrays(vaoId);
+    }
+}
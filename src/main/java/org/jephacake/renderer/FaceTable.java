@@ -0,0 +1,85 @@
+package org.jephacake.renderer;
+
+import org.jephacake.block.BlockTable;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.*;
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * The lookups the chunk_faces vertex shader needs to turn a face record ({@link ChunkMesher.FaceData}) into what
+ * {@link ChunkMesher.MeshData} stores per vertex, as a small RGBA32F texture read with texelFetch:
+ * row 0 holds the atlas UV rect {u0, v0, u1, v1} of each tile, row 1 the tint of each block id, and row 2 at
+ * column i the light curve for level i (red) and the ambient occlusion curve for value i (green).
+ * Built from a {@link BlockTable} whose textures are resolved, so the values are the very floats the CPU mesher uses.
+ */
+public class FaceTable implements AutoCloseable {
+    static final int ROWS = 3;
+
+    private final int id;
+    private final int width;
+
+    public FaceTable(BlockTable table) {
+        width = width(table);
+        float[] data = build(table, width);
+        FloatBuffer buf = BufferUtils.createFloatBuffer(data.length);
+        buf.put(data).flip();
+
+        id = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, id);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA32F, width, ROWS, 0, GL_RGBA, GL_FLOAT, buf);
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    /** Columns needed: every tile, every block id and the 16 light levels. */
+    static int width(BlockTable table) {
+        int w = Math.max(16, table.size());
+        for (int blockId = 0; blockId < table.size(); blockId++) {
+            if (table.block(blockId) == null) continue;
+            for (int f = 0; f < 6; f++) w = Math.max(w, table.tile(blockId, f) + 1);
+        }
+        if (w >= ChunkMesher.NO_TILE) throw new IllegalStateException("too many tiles or block ids for face records: " + w);
+        return w;
+    }
+
+    /** Texel data, RGBA, row by row. */
+    static float[] build(BlockTable table, int width) {
+        float[] data = new float[width * ROWS * 4];
+        for (int blockId = 0; blockId < table.size(); blockId++) {
+            if (table.block(blockId) == null) continue;
+            for (int k = 0; k < 4; k++) data[(width + blockId) * 4 + k] = table.tint(blockId, k);
+            for (int f = 0; f < 6; f++) {
+                int tile = table.tile(blockId, f);
+                if (tile < 0) continue;
+                for (int k = 0; k < 4; k++) data[tile * 4 + k] = table.uv(blockId, f, k);
+            }
+        }
+        for (int i = 0; i < 16; i++) {
+            data[(2 * width + i) * 4] = ChunkMesher.lightCurve(i);
+            data[(2 * width + i) * 4 + 1] = ChunkMesher.aoCurve(Math.min(i, 3));
+        }
+        return data;
+    }
+
+    public void bind(int unit) {
+        glActiveTexture(GL_TEXTURE0 + unit);
+        glBindTexture(GL_TEXTURE_2D, id);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public void close() {
+        glDeleteTextures(id);
+    }
+}
@@ -0,0 +1,115 @@
+package org.jephacake.renderer;
+
+import org.lwjgl.stb.STBTTBakedChar;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.stb.STBTruetype.stbtt_BakeFontBitmap;
+
+/**
+ * ASCII glyph atlas baked once from a TTF with stb_truetype.
+ * Glyph metrics are copied out into a plain float table so laying out text never calls back into stb.
+ *
+ * The bitmap is uploaded top-to-bottom (row 0 = v 0), unlike the block atlas, so glyph t coords are used as baked.
+ * A small fully opaque block in the bottom-right corner lets solid quads be drawn with the same texture/shader.
+ */
+public final class FontAtlas implements AutoCloseable {
+    private static final int FIRST_CHAR = 32;
+    private static final int CHAR_COUNT = 96; // ' ' .. DEL
+    private static final int BITMAP_SIZE = 512;
+    private static final int WHITE_SIZE = 4;
+
+    // per glyph: x0, y0, x1, y1 (pixel offsets from pen position, y down), s0, t0, s1, t1, xadvance
+    private static final int STRIDE = 9;
+    private final float[] glyphs = new float[CHAR_COUNT * STRIDE];
+
+    private final TextureGL texture;
+    private final float pixelHeight;
+    private final float ascent;
+    private final float whiteU;
+    private final float whiteV;
+
+    private FontAtlas(TextureGL texture, float pixelHeight, float ascent) {
+        this.texture = texture;
+        this.pixelHeight = pixelHeight;
+        this.ascent = ascent;
+        this.whiteU = (BITMAP_SIZE - WHITE_SIZE / 2f) / BITMAP_SIZE;
+        this.whiteV = (BITMAP_SIZE - WHITE_SIZE / 2f) / BITMAP_SIZE;
+    }
+
+    /**
+     * Bake the font at {@code pixelHeight}. Requires a current GL context (uploads the texture).
+     *
+     * @param resourcePath e.g. "org/jephacake/assets/fonts/RobotoMono-Regular.ttf"
+     */
+    public static FontAtlas bake(String resourcePath, float pixelHeight) throws IOException {
+        ByteBuffer ttf = ResourceLoader.getResourceBuffer(resourcePath); // must stay alive while baking
+        ByteBuffer bitmap = MemoryUtil.memAlloc(BITMAP_SIZE * BITMAP_SIZE);
+        ByteBuffer rgba = MemoryUtil.memAlloc(BITMAP_SIZE * BITMAP_SIZE * 4);
+        STBTTBakedChar.Buffer cdata = STBTTBakedChar.malloc(CHAR_COUNT);
+        try {
+            int res = stbtt_BakeFontBitmap(ttf, pixelHeight, bitmap, BITMAP_SIZE, BITMAP_SIZE, FIRST_CHAR, cdata);
+            if (res <= 0) throw new IOException("Font " + resourcePath + " does not fit a " + BITMAP_SIZE + "px atlas at " + pixelHeight + "px");
+            if (res >= BITMAP_SIZE - WHITE_SIZE) throw new IOException("Font atlas overlaps the reserved white block");
+
+            // coverage -> white RGBA with alpha = coverage
+            for (int i = 0; i < BITMAP_SIZE * BITMAP_SIZE; i++) {
+                rgba.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put(bitmap.get(i));
+            }
+            for (int y = BITMAP_SIZE - WHITE_SIZE; y < BITMAP_SIZE; y++) {
+                for (int x = BITMAP_SIZE - WHITE_SIZE; x < BITMAP_SIZE; x++) {
+                    rgba.put((y * BITMAP_SIZE + x) * 4 + 3, (byte) 0xFF);
+                }
+            }
+            rgba.flip();
+
+            float ascent = 0;
+            float[] table = new float[CHAR_COUNT * STRIDE];
+            for (int i = 0; i < CHAR_COUNT; i++) {
+                STBTTBakedChar c = cdata.get(i);
+                int o = i * STRIDE;
+                table[o]     = c.xoff();
+                table[o + 1] = c.yoff();
+                table[o + 2] = c.xoff() + (c.x1() - c.x0());
+                table[o + 3] = c.yoff() + (c.y1() - c.y0());
+                table[o + 4] = c.x0() / (float) BITMAP_SIZE;
+                table[o + 5] = c.y0() / (float) BITMAP_SIZE;
+                table[o + 6] = c.x1() / (float) BITMAP_SIZE;
+                table[o + 7] = c.y1() / (float) BITMAP_SIZE;
+                table[o + 8] = c.xadvance();
+                ascent = Math.max(ascent, -c.yoff());
+            }
+
+            FontAtlas atlas = new FontAtlas(new TextureGL(rgba, BITMAP_SIZE, BITMAP_SIZE), pixelHeight, ascent);
+            System.arraycopy(table, 0, atlas.glyphs, 0, table.length);
+            System.out.println("FontAtlas baked: " + resourcePath + " @ " + pixelHeight + "px");
+            return atlas;
+        } finally {
+            cdata.free();
+            MemoryUtil.memFree(rgba);
+            MemoryUtil.memFree(bitmap);
+        }
+    }
+
+    /** Offset into {@link #getGlyphTable()} for a character; unsupported characters map to '?'. */
+    public int glyphOffset(char ch) {
+        int i = ch - FIRST_CHAR;
+        if (i < 0 || i >= CHAR_COUNT) i = '?' - FIRST_CHAR;
+        return i * STRIDE;
+    }
+
+    public float[] getGlyphTable() { return glyphs; }
+    public float getPixelHeight() { return pixelHeight; }
+    /** Distance from the top of a line to its baseline. */
+    public float getAscent() { return ascent; }
+    public float getWhiteU() { return whiteU; }
+    public float getWhiteV() { return whiteV; }
+    public TextureGL getTexture() { return texture; }
+
+    @Override
+    public void close() {
+        texture.close();
+    }
+}
@@ -1,5 +1,6 @@
 package org.jephacake.renderer;
 
+import org.jephacake.metrics.EngineMetrics;
 import org.lwjgl.BufferUtils;
 
 import java.nio.FloatBuffer;
@@ -20,6 +21,7 @@ import static org.lwjgl.opengl.GL30.*;
 public class Mesh implements AutoCloseable {
     private final int vaoId;
     private int vertexCount; // now mutable so update() can change it
+    private long gpuBytes; // size of the current buffer contents
     private final int vboPos;
     private final int vboNorm;
     private final int vboTex;
@@ -27,6 +29,7 @@ public class Mesh implements AutoCloseable {
     private final int ebo;
 
     public Mesh(float[] positions, float[] normals, float[] texcoords, float[] colors, int[] indices) {
+        long t0 = System.nanoTime();
         vaoId = glGenVertexArrays();
         glBindVertexArray(vaoId);
 
@@ -72,6 +75,14 @@ public class Mesh implements AutoCloseable {
         glBindVertexArray(0);
 
         vertexCount = indices.length;
+        recordUpload(t0, positions, normals, texcoords, colors, indices);
+    }
+
+    private void recordUpload(long t0, float[] positions, float[] normals, float[] texcoords, float[] colors, int[] indices) {
+        gpuBytes = 4L * (positions.length + normals.length + texcoords.length + colors.length + indices.length);
+        EngineMetrics.MESH_UPLOAD_TIME.recordSince(t0);
+        EngineMetrics.MESH_UPLOADS.inc();
+        EngineMetrics.MESH_UPLOAD_BYTES.add(gpuBytes);
     }
 
     public void render() {
@@ -85,6 +96,7 @@ public class Mesh implements AutoCloseable {
      * Uses GL_DYNAMIC_DRAW and re-uploads full buffers (orphaning old storage).
      */
     public void update(float[] positions, float[] normals, float[] texcoords, float[] colors, int[] indices) {
+        long t0 = System.nanoTime();
         glBindVertexArray(vaoId);
 
         // Positions
@@ -121,6 +133,7 @@ public class Mesh implements AutoCloseable {
         glBindVertexArray(0);
 
         this.vertexCount = indices.length;
+        recordUpload(t0, positions, normals, texcoords, colors, indices);
     }
 
     @Override
@@ -136,4 +149,9 @@ public class Mesh implements AutoCloseable {
     public int getVertexCount() {
         return vertexCount;
     }
+
+    /** Bytes of vertex and index data currently held on the GPU. */
+    public long getGpuBytes() {
+        return gpuBytes;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package org.jephacake.renderer;
+
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.world.ChunkPos;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finished chunk meshes kept on disk between runs, so a restart can show everything it saw last time without
+ * waiting for the mesher. One entry per chunk position, tagged with a key that hashes everything the mesh was
+ * built from (the chunk's voxels and light plus its neighbours' border cells, and the block table; see
+ * {@link ChunkMesher#meshDataFromChunk(org.jephacake.world.World, org.jephacake.world.Chunk, TextureAtlas, MeshDiskCache)}).
+ * A lookup only hits when the key matches, so edited chunks (or edited neighbours) simply mesh again.
+ *
+ * The whole file is read when opened; entries added during the session are kept in memory and written back by
+ * {@link #save}, nearest chunks first up to a byte budget. Entries from the file stay available next to newer
+ * ones for the same chunk until then: while a world is loading its chunks are meshed with light still settling,
+ * and those intermediate meshes must not push out the settled one the next lookup is likely to match.
+ * Lookups and inserts are thread-safe.
+ *
+ * File layout (big-endian): int magic, int version, int count, then count x (long pos, long key, int length,
+ * length bytes of mesh). A mesh is stored compactly, exploiting that the mesher emits axis-aligned unit quads:
+ * int vertexCount, then per vertex 3 bytes position (0..16), 1 byte face (normal), 2 floats texcoord and
+ * 4 x unsigned 16-bit colour, then one byte per quad saying which diagonal its two triangles share.
+ */
+public final class MeshDiskCache {
+    private static final int MAGIC = 0x53474D43; // "SGMC"
+    private static final int VERSION = 1;
+    private static final int BYTES_PER_VERTEX = 4 + 2 * Float.BYTES + 4 * Short.BYTES;
+
+    private record Entry(long key, ByteBuffer data) {}
+
+    private final Path file;
+    private final Map<Long, Entry> stored = new ConcurrentHashMap<>(); // read from the file
+    private final Map<Long, Entry> fresh = new ConcurrentHashMap<>();  // built this session
+
+    private MeshDiskCache(Path file) {
+        this.file = file;
+    }
+
+    /** Load the cache at {@code file}; a missing or unreadable file gives an empty cache. */
+    public static MeshDiskCache open(Path file) {
+        MeshDiskCache cache = new MeshDiskCache(file);
+        if (!Files.isRegularFile(file)) return cache;
+        long t0 = System.nanoTime();
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) throw new IOException("not a mesh cache");
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                long pos = in.getLong(), key = in.getLong();
+                int length = in.getInt();
+                cache.stored.put(pos, new Entry(key, in.slice(in.position(), length)));
+                in.position(in.position() + length);
+            }
+            System.out.println("Mesh cache " + file.getFileName() + ": " + count + " chunks in "
+                    + (System.nanoTime() - t0) / 1_000_000.0 + " ms");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[MeshDiskCache] Ignoring unreadable mesh cache " + file + ": " + e);
+            cache.stored.clear();
+        }
+        return cache;
+    }
+
+    /** The cached mesh of the chunk at {@code pos} ({@link ChunkPos#pack}) if it was built from {@code key}, else null. */
+    public ChunkMesher.MeshData get(long pos, long key) {
+        Entry e = fresh.get(pos);
+        if (e == null || e.key != key) e = stored.get(pos);
+        if (e == null || e.key != key) {
+            EngineMetrics.MESH_DISK_CACHE_MISSES.inc();
+            return null;
+        }
+        EngineMetrics.MESH_DISK_CACHE_HITS.inc();
+        return decode(e.data.duplicate());
+    }
+
+    /** Remember {@code data} as the mesh of {@code pos} built from {@code key}. Meshes the format can't hold are skipped. */
+    public void put(long pos, long key, ChunkMesher.MeshData data) {
+        ByteBuffer encoded = encode(data);
+        if (encoded == null) return;
+        fresh.put(pos, new Entry(key, encoded));
+    }
+
+    /** Number of chunk positions with a cached mesh. */
+    public int size() {
+        int n = stored.size();
+        for (Long pos : fresh.keySet()) if (!stored.containsKey(pos)) n++;
+        return n;
+    }
+
+    /**
+     * Write the cache if anything was added, the newest mesh per chunk, keeping the entries nearest chunk
+     * (cx, cy, cz) that fit in {@code budgetBytes}. Written beside the file and swapped in, like the world save.
+     */
+    public void save(int cx, int cy, int cz, long budgetBytes) {
+        if (fresh.isEmpty()) return;
+        Map<Long, Entry> merged = new HashMap<>(stored);
+        merged.putAll(fresh);
+        List<Map.Entry<Long, Entry>> list = new ArrayList<>(merged.entrySet());
+        list.sort(Comparator.comparingInt(e -> distance(e.getKey(), cx, cy, cz)));
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            long total = 0;
+            int count = 0;
+            for (Map.Entry<Long, Entry> e : list) {
+                long size = 20L + e.getValue().data.remaining();
+                if (total + size > budgetBytes) break;
+                total += size;
+                count++;
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    Map.Entry<Long, Entry> e = list.get(i);
+                    ByteBuffer data = e.getValue().data;
+                    out.writeLong(e.getKey());
+                    out.writeLong(e.getValue().key);
+                    out.writeInt(data.remaining());
+                    out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stored.clear();
+            stored.putAll(merged);
+            fresh.clear();
+        } catch (IOException e) {
+            System.err.println("[MeshDiskCache] Could not write mesh cache " + file + ":");
+            e.printStackTrace();
+        }
+    }
+
+    private static int distance(long pos, int cx, int cy, int cz) {
+        return Math.max(Math.abs(ChunkPos.x(pos) - cx), Math.max(Math.abs(ChunkPos.y(pos) - cy), Math.abs(ChunkPos.z(pos) - cz)));
+    }
+
+    // --- mesh codec ---
+
+    /** Compact form of {@code data}, or null when it isn't made of unit quads in the mesher's layout. */
+    static ByteBuffer encode(ChunkMesher.MeshData data) {
+        int vertices = data.positions.length / 3, quads = vertices / 4;
+        if (vertices % 4 != 0 || data.indices.length != quads * 6) return null;
+
+        ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + vertices * BYTES_PER_VERTEX + quads);
+        out.putInt(vertices);
+        for (int v = 0; v < vertices; v++) {
+            for (int k = 0; k < 3; k++) {
+                float p = data.positions[v * 3 + k];
+                if (p != (int) p || p < 0 || p > 255) return null;
+                out.put((byte) p);
+            }
+            int face = ChunkMesher.faceOf(data.normals[v * 3], data.normals[v * 3 + 1], data.normals[v * 3 + 2]);
+            if (face < 0) return null;
+            out.put((byte) face);
+            out.putFloat(data.texcoords[v * 2]);
+            out.putFloat(data.texcoords[v * 2 + 1]);
+            for (int k = 0; k < 4; k++) {
+                float c = Math.min(Math.max(data.colors[v * 4 + k], 0f), 1f);
+                out.putShort((short) Math.round(c * 65535f));
+            }
+        }
+        for (int q = 0; q < quads; q++) {
+            int[] idx = data.indices;
+            int i = q * 6, b = q * 4;
+            if (idx[i] == b && idx[i + 1] == b + 1 && idx[i + 2] == b + 2
+                    && idx[i + 3] == b + 2 && idx[i + 4] == b + 3 && idx[i + 5] == b) {
+                out.put((byte) 0);
+            } else if (idx[i] == b + 1 && idx[i + 1] == b + 2 && idx[i + 2] == b + 3
+                    && idx[i + 3] == b + 3 && idx[i + 4] == b && idx[i + 5] == b + 1) {
+                out.put((byte) 1);
+            } else {
+                return null;
+            }
+        }
+        return out.flip();
+    }
+
+    static ChunkMesher.MeshData decode(ByteBuffer in) {
+        int vertices = in.getInt(), quads = vertices / 4;
+        float[] positions = new float[vertices * 3];
+        float[] normals = new float[vertices * 3];
+        float[] texcoords = new float[vertices * 2];
+        float[] colors = new float[vertices * 4];
+        int[] indices = new int[quads * 6];
+        for (int v = 0; v < vertices; v++) {
+            positions[v * 3] = in.get() & 0xFF;
+            positions[v * 3 + 1] = in.get() & 0xFF;
+            positions[v * 3 + 2] = in.get() & 0xFF;
+            System.arraycopy(ChunkMesher.normalOf(in.get()), 0, normals, v * 3, 3);
+            texcoords[v * 2] = in.getFloat();
+            texcoords[v * 2 + 1] = in.getFloat();
+            for (int k = 0; k < 4; k++) colors[v * 4 + k] = (in.getShort() & 0xFFFF) / 65535f;
+        }
+        for (int q = 0; q < quads; q++) {
+            int i = q * 6, b = q * 4, s = in.get(); // triangles (s, s+1, s+2) and (s+2, s+3, s), corners mod 4
+            indices[i] = b + s;
+            indices[i + 1] = b + s + 1;
+            indices[i + 2] = b + s + 2;
+            indices[i + 3] = b + s + 2;
+            indices[i + 4] = b + (s + 3) % 4;
+            indices[i + 5] = b + s;
+        }
+        return new ChunkMesher.MeshData(positions, normals, texcoords, colors, indices);
+    }
+}
@@ -5,9 +5,14 @@ import org.joml.Matrix4f;
 /**
  * Lightweight model wrapper around mesh and optional texture.
  * Does NOT own the texture by default.
+ *
+ * A model holds either a {@link Mesh} or a {@link FaceMesh}; the latter also needs the {@link FaceTable} its face
+ * records index and is drawn with the chunk_faces shader (see {@link Renderer#renderModel}).
  */
 public class Model implements AutoCloseable {
     private final Mesh mesh;
+    private final FaceMesh faceMesh;
+    private final FaceTable faceTable;
     private final TextureGL texture;
     private final boolean ownsTexture; // new
 
@@ -17,23 +22,56 @@ public class Model implements AutoCloseable {
 
     public Model(Mesh mesh, TextureGL texture, boolean ownsTexture) {
         this.mesh = mesh;
+        this.faceMesh = null;
+        this.faceTable = null;
         this.texture = texture;
         this.ownsTexture = ownsTexture;
     }
 
+    /** A face-instanced model; owns neither the texture nor the face table. */
+    public Model(FaceMesh faceMesh, TextureGL texture, FaceTable faceTable) {
+        this.mesh = null;
+        this.faceMesh = faceMesh;
+        this.faceTable = faceTable;
+        this.texture = texture;
+        this.ownsTexture = false;
+    }
+
+    /** The classic mesh, null for a face-instanced model. */
+    public Mesh getMesh() { return mesh; }
+
+    /** The face records, null unless {@link #isFaceInstanced()}. */
+    public FaceMesh getFaceMesh() { return faceMesh; }
+
+    public boolean isFaceInstanced() { return faceMesh != null; }
+
+    public int getVertexCount() {
+        return faceMesh != null ? faceMesh.getVertexCount() : mesh.getVertexCount();
+    }
+
+    public long getGpuBytes() {
+        return faceMesh != null ? faceMesh.getGpuBytes() : mesh.getGpuBytes();
+    }
+
     public void render(ShaderProgram shader, Matrix4f modelMatrix) {
         shader.setUniform("uModel", modelMatrix);
+        if (faceMesh != null) {
+            faceTable.bind(1); // before the texture, which leaves unit 0 active
+            shader.setUniform("uFaceTable", 1);
+        }
         if (texture != null) {
             texture.bind(0);
             shader.setUniform("uTexture", 0);
         }
-        mesh.render();
+        if (faceMesh != null) faceMesh.render();
+        else mesh.render();
         if (texture != null) texture.unbind();
     }
 
     @Override
     public void close() {
-        mesh.close();
+        if (faceMesh != null) faceMesh.close();
+        else mesh.close();
         // only close texture if this Model actually owns it
         if (ownsTexture && texture != null) texture.close();
     }
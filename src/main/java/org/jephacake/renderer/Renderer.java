@@ -1,5 +1,6 @@
 package org.jephacake.renderer;
 
+import org.jephacake.configuration.Options;
 import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -8,15 +9,21 @@ import static org.lwjgl.opengl.GL11.*;
 
 /**
  * Top-level rendering facade. Holds shader, projection & view matrices and exposes simple render API.
+ * With {@link Options#FACE_INSTANCED_CHUNKS} it also holds the chunk_faces shader for face-instanced models.
  */
 public class Renderer implements AutoCloseable {
     private final ShaderProgram shader;
+    private final ShaderProgram faceShader; // null unless face-instanced chunks are enabled
+    private ShaderProgram current;
     private final Matrix4f projection = new Matrix4f();
     private final Matrix4f view = new Matrix4f();
     private final FrustumIntersection frustum = new FrustumIntersection();
 
     public Renderer(int width, int height) throws Exception {
         shader = new ShaderProgram("org/jephacake/assets/shaders/voxel.vert", "org/jephacake/assets/shaders/voxel.frag");
+        faceShader = Options.FACE_INSTANCED_CHUNKS
+                ? new ShaderProgram("org/jephacake/assets/shaders/chunk_faces.vert", "org/jephacake/assets/shaders/voxel.frag")
+                : null;
         setProjection(width, height);
 
         glEnable(GL_DEPTH_TEST);
@@ -48,9 +55,15 @@ public class Renderer implements AutoCloseable {
 
         glClearColor(0.2f, 0.6f, 0.9f, 1f);
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+        if (faceShader != null) {
+            faceShader.use();
+            faceShader.setUniform("uProjection", projection);
+            faceShader.setUniform("uView", view);
+        }
         shader.use();
         shader.setUniform("uProjection", projection);
         shader.setUniform("uView", view);
+        current = shader;
 
         // Update frustum from projection * view matrix (JOML expects projection * view)
         Matrix4f vp = new Matrix4f(projection).mul(view);
@@ -62,23 +75,35 @@ public class Renderer implements AutoCloseable {
     }
 
     public void renderModel(Model model, Matrix4f modelMatrix) {
-        model.render(shader, modelMatrix);
+        ShaderProgram s = model.isFaceInstanced() ? faceShader : shader;
+        if (s != current) {
+            s.use();
+            current = s;
+        }
+        model.render(s, modelMatrix);
     }
 
     // NOTE: Directional light will be from the sun and mobile lights...
     public void setDirectionalLight(Vector3f dir, Vector3f color, boolean enabled) {
-        shader.use();
-        shader.setUniform("uDirectionalLightDir", dir.x, dir.y, dir.z);
-        shader.setUniform("uDirectionalLightColor", color.x, color.y, color.z);
-        shader.setUniform("uUseDynamicLight", enabled ? 1f : 0f);
+        if (faceShader != null) setDirectionalLight(faceShader, dir, color, enabled);
+        setDirectionalLight(shader, dir, color, enabled);
+        current = shader;
+    }
+
+    private static void setDirectionalLight(ShaderProgram s, Vector3f dir, Vector3f color, boolean enabled) {
+        s.use();
+        s.setUniform("uDirectionalLightDir", dir.x, dir.y, dir.z);
+        s.setUniform("uDirectionalLightColor", color.x, color.y, color.z);
+        s.setUniform("uUseDynamicLight", enabled ? 1f : 0f);
     }
 
     public void endFrame() {
-        shader.stop();
+        shader.stop(); // unbinds whichever program is current
     }
 
     @Override
     public void close() {
         shader.close();
+        if (faceShader != null) faceShader.close();
     }
 }
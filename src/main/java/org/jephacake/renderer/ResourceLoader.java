@@ -1,7 +1,9 @@
 package org.jephacake.renderer;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLDecoder;
@@ -21,10 +23,52 @@ import java.util.jar.JarFile;
 /**
  * Utility to load resources from the classpath (not the assets package which is for raw assets).
  * Use paths like "org/jephacake/renderer/shaders/voxel.vert" (no leading slash).
+ *
+ * When an {@link AssetPack} named {@value #ASSET_PACK_FILE} sits next to the jar (exported builds), packed assets
+ * are served from it as memory-mapped slices and listed from its index; anything else, and everything when running
+ * from an IDE or {@code gradlew run}, comes from the classpath.
  */
 public final class ResourceLoader {
+    public static final String ASSET_PACK_FILE = "assets.pack";
+
+    private static AssetPack pack;
+    private static boolean packOpened;
+
     private ResourceLoader() {}
 
+    /** The asset pack next to the jar, or null if there isn't one (or it can't be read). */
+    public static synchronized AssetPack getAssetPack() {
+        if (!packOpened) {
+            packOpened = true;
+            File file = new File(getJarDirectory(), ASSET_PACK_FILE);
+            if (file.isFile()) {
+                try {
+                    pack = AssetPack.open(file.toPath());
+                    System.out.println("Using asset pack: " + file.getAbsolutePath());
+                } catch (IOException e) {
+                    System.err.println("[ResourceLoader] Ignoring unreadable asset pack " + file + ":");
+                    e.printStackTrace();
+                }
+            }
+        }
+        return pack;
+    }
+
+    /**
+     * A resource's bytes as a direct buffer (position 0, limit = length), ready for native decoders.
+     * A read-only slice of the mapped asset pack when packed, otherwise copied from the classpath.
+     */
+    public static ByteBuffer getResourceBuffer(String path) throws IOException {
+        AssetPack assets = getAssetPack();
+        ByteBuffer packed = assets == null ? null : assets.get(path);
+        if (packed != null) return packed;
+        try (InputStream is = getResource(path)) {
+            if (is == null) throw new IOException("Resource not found: " + path);
+            byte[] bytes = is.readAllBytes();
+            return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        }
+    }
+
     public static InputStream getResource(String path) {
         InputStream is = ResourceLoader.class.getClassLoader().getResourceAsStream(path);
         if (is != null) return is;
@@ -32,6 +76,9 @@ public final class ResourceLoader {
     }
 
     public static String readResourceAsString(String path) throws IOException {
+        AssetPack assets = getAssetPack();
+        ByteBuffer packed = assets == null ? null : assets.get(path);
+        if (packed != null) return StandardCharsets.UTF_8.decode(packed).toString();
         try (InputStream is = getResource(path)) {
             if (is == null) throw new IOException("Resource not found: " + path);
             try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
@@ -44,6 +91,13 @@ public final class ResourceLoader {
     }
 
     public static byte[] readResourceAsBytes(String path) throws IOException {
+        AssetPack assets = getAssetPack();
+        ByteBuffer packed = assets == null ? null : assets.get(path);
+        if (packed != null) {
+            byte[] bytes = new byte[packed.remaining()];
+            packed.get(bytes);
+            return bytes;
+        }
         try (InputStream is = getResource(path)) {
             if (is == null) throw new IOException("Resource not found: " + path);
             return is.readAllBytes();
@@ -51,14 +105,16 @@ public final class ResourceLoader {
     }
 
     public static byte[] readTexture(String texture) throws IOException {
-        String path = "org/jephacake/assets/textures/" + texture + ".png";
-        try (InputStream is = getResource(path)) {
-            if (is == null) throw new IOException("Texture not found: " + path);
-            return is.readAllBytes();
-        }
+        return readResourceAsBytes("org/jephacake/assets/textures/" + texture + ".png");
     }
 
     public static List<String> listResources(String resourcePath) throws IOException {
+        AssetPack assets = getAssetPack();
+        if (assets != null) {
+            List<String> packed = assets.list(resourcePath);
+            if (!packed.isEmpty()) return packed;
+        }
+
         List<String> result = new ArrayList<>();
         ClassLoader cl = ResourceLoader.class.getClassLoader();
         Enumeration<URL> urls = cl.getResources(resourcePath);
@@ -64,6 +64,11 @@ public class ShaderProgram implements AutoCloseable {
         }
     }
 
+    public void setUniform(String name, float x, float y) {
+        int loc = getUniformLocation(name);
+        glUniform2f(loc, x, y);
+    }
+
     public void setUniform(String name, float x, float y, float z) {
         int loc = getUniformLocation(name);
         glUniform3f(loc, x, y, z);
@@ -1,37 +1,51 @@
 package org.jephacake.renderer;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
 import java.util.List;
 
+import static org.lwjgl.stb.STBImage.*;
+
 /**
  * Lightweight TextureAtlas:
- *  - packs PNG tiles into a grid (cols x rows) where tile size == max tile W/H
- *  - does CPU-only image composition (no Graphics2D draw calls)
+ *  - packs PNG tiles into a grid (cols x rows) of cells; a cell is the tile (max tile W/H) plus an extruded border
+ *    of {@code padding} texels on each side, so filtering and lower mips never pull in a neighbouring tile
+ *  - decodes PNGs with stb_image and composes the atlas directly in GL upload order (RGBA, bottom-to-top rows)
+ *  - builds the mip chain on the CPU (one job per tile, see {@link AtlasMipmapper}) at build time
+ *  - caches the composed atlas, its mips and the tile table in a binary file named by a hash of the source PNGs;
+ *    later starts memory-map that file and upload straight from it, skipping decoding and mip generation entirely
  *  - does NOT create the GL texture until uploadToGL() is called (so you control GL timing)
  */
 public final class TextureAtlas implements AutoCloseable {
+    private static final int CACHE_MAGIC = 0x41544C53; // "ATLS"
+    private static final int CACHE_VERSION = 2;
+
     // CPU-side atlas data
     private final int atlasWidth;
     private final int atlasHeight;
-    private final int tileW;
+    private final int tileW; // cell size, padding included
     private final int tileH;
     private final int tilesPerRow;
     private final int tilesPerColumn;
     private final float padU;
     private final float padV;
     private final List<String> tileNames;
-    private final int[] pixels; // ARGB in Java int form (row-major, top-to-bottom)
+    private final ByteBuffer[] levels; // mip chain, RGBA, bottom-to-top rows (GL order); direct or memory-mapped
     private final int padding;
 
     // GL texture (lazy, created by uploadToGL)
     private TextureGL texture; // null until uploadToGL()
 
     private TextureAtlas(int atlasWidth, int atlasHeight, int tileW, int tileH,
-                         int padding, List<String> tileNames, int[] pixels) {
+                         int padding, List<String> tileNames, ByteBuffer[] levels) {
         this.atlasWidth = atlasWidth;
         this.atlasHeight = atlasHeight;
         this.tileW = tileW;
@@ -41,21 +55,29 @@ public final class TextureAtlas implements AutoCloseable {
         this.padU = padding / (float) atlasWidth;
         this.padV = padding / (float) atlasHeight;
         this.tileNames = Collections.unmodifiableList(new ArrayList<>(tileNames));
-        this.pixels = pixels;
+        this.levels = levels;
         this.padding = padding;
 
         System.out.println("TextureAtlas (CPU) created: " + atlasWidth + "x" + atlasHeight +
-                ", tile " + tileW + "x" + tileH + ", tiles=" + tileNames.size());
+                ", cell " + tileW + "x" + tileH + " (padding " + padding + "), mip levels=" + levels.length +
+                ", tiles=" + tileNames.size());
     }
 
     /**
-     * Build atlas CPU data from package resources. This does NOT create a GL texture.
+     * Build atlas CPU data from package resources, using the atlas cache in {@code cache/} next to the jar.
+     * This does NOT create a GL texture.
      *
      * @param packagePath e.g. "org/jephacake/assets/textures"
      */
     public static TextureAtlas buildFromPackage(String packagePath) throws IOException {
-        int paddingPixels = 0;
-        System.out.println("Building TextureAtlas from package: " + packagePath);
+        return buildFromPackage(packagePath, new File(ResourceLoader.getJarDirectory(), "cache"));
+    }
+
+    /**
+     * @param cacheDir directory for the composed-atlas cache, or null to always decode
+     */
+    public static TextureAtlas buildFromPackage(String packagePath, File cacheDir) throws IOException {
+        long t0 = System.nanoTime();
         List<String> files = ResourceLoader.listResources(packagePath);
         List<String> pngs = new ArrayList<>();
         for (String f : files) {
@@ -66,103 +88,215 @@ public final class TextureAtlas implements AutoCloseable {
 
         if (pngs.isEmpty()) throw new IOException("No PNG textures found in package: " + packagePath);
 
-        List<BufferedImage> images = new ArrayList<>();
+        // the raw PNG bytes are needed either way: to key the cache, and to decode on a miss
+        List<ByteBuffer> sources = new ArrayList<>();
+        for (String filename : pngs) sources.add(ResourceLoader.getResourceBuffer(packagePath + "/" + filename));
+        String hash = contentHash(packagePath, pngs, sources);
+
+        File cacheFile = cacheDir == null ? null : new File(cacheDir, "atlas-" + hash + ".bin");
+        if (cacheFile != null && cacheFile.isFile()) {
+            try {
+                TextureAtlas cached = readCache(cacheFile.toPath());
+                System.out.println("TextureAtlas loaded from cache " + cacheFile.getName() + " in "
+                        + (System.nanoTime() - t0) / 1_000_000.0 + " ms");
+                return cached;
+            } catch (IOException e) {
+                System.err.println("[TextureAtlas] Ignoring unreadable atlas cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        System.out.println("Building TextureAtlas from package: " + packagePath);
+        TextureAtlas atlas = compose(packagePath, pngs, sources);
+        System.out.println("TextureAtlas built in " + (System.nanoTime() - t0) / 1_000_000.0 + " ms");
+
+        if (cacheFile != null) {
+            try {
+                atlas.writeCache(cacheFile.toPath());
+            } catch (IOException e) {
+                System.err.println("[TextureAtlas] Could not write atlas cache " + cacheFile + ":");
+                e.printStackTrace();
+            }
+        }
+        return atlas;
+    }
+
+    private static TextureAtlas compose(String packagePath, List<String> pngs, List<ByteBuffer> sources) throws IOException {
+        int n = pngs.size();
+        ByteBuffer[] images = new ByteBuffer[n];
+        int[] widths = new int[n], heights = new int[n];
         List<String> names = new ArrayList<>();
         int maxW = 0, maxH = 0;
 
-        // Load all images as BufferedImage (ImageIO.read)
-        for (String filename : pngs) {
-            String resource = packagePath + "/" + filename;
-            System.out.println("Loading texture: " + resource);
-            try (InputStream is = ResourceLoader.getResource(resource)) {
-                if (is == null) throw new IOException("Missing texture resource: " + resource);
-                BufferedImage img = ImageIO.read(is);
-                if (img == null) throw new IOException("Failed to decode image: " + resource);
-                // convert to TYPE_INT_ARGB if needed so we can copy pixels easily
-                if (img.getType() != BufferedImage.TYPE_INT_ARGB) {
-                    BufferedImage conv = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_ARGB);
-                    conv.getGraphics().drawImage(img, 0, 0, null);
-                    img = conv;
+        try {
+            // decode every tile to RGBA (top-to-bottom rows) with stb_image
+            for (int i = 0; i < n; i++) {
+                String resource = packagePath + "/" + pngs.get(i);
+                System.out.println("Loading texture: " + resource);
+                try (MemoryStack stack = MemoryStack.stackPush()) {
+                    IntBuffer w = stack.mallocInt(1), h = stack.mallocInt(1), comp = stack.mallocInt(1);
+                    images[i] = stbi_load_from_memory(sources.get(i), w, h, comp, 4);
+                    if (images[i] == null) throw new IOException("Failed to decode image: " + resource + " (" + stbi_failure_reason() + ")");
+                    widths[i] = w.get(0);
+                    heights[i] = h.get(0);
                 }
-                images.add(img);
-                String name = filename;
+                String name = pngs.get(i);
                 if (name.endsWith(".png")) name = name.substring(0, name.length() - 4);
                 names.add(name);
-                maxW = Math.max(maxW, img.getWidth());
-                maxH = Math.max(maxH, img.getHeight());
+                maxW = Math.max(maxW, widths[i]);
+                maxH = Math.max(maxH, heights[i]);
             }
-        }
 
-        int n = images.size();
-        int cols = (int) Math.ceil(Math.sqrt(n));
-        int rows = (int) Math.ceil((double) n / cols);
-
-        int tileW = maxW;
-        int tileH = maxH;
-        int atlasW = cols * tileW;
-        int atlasH = rows * tileH;
-
-        System.out.println("Atlas layout: " + cols + " cols x " + rows + " rows, tile size: " + tileW + "x" + tileH);
-
-        // Create a Java int[] pixel buffer (top-to-bottom)
-        int[] atlasPixels = new int[atlasW * atlasH];
-        // initialize to transparent
-        Arrays.fill(atlasPixels, 0);
-
-        // Copy each image into the atlas pixel buffer (centered in tile cell)
-        for (int i = 0; i < n; i++) {
-            BufferedImage img = images.get(i);
-            int col = i % cols;
-            int row = i / cols;
-            int x0 = col * tileW + (tileW - img.getWidth()) / 2;
-            int y0 = row * tileH + (tileH - img.getHeight()) / 2;
-            int w = img.getWidth();
-            int h = img.getHeight();
-
-            int[] imgPixels = img.getRGB(0, 0, w, h, null, 0, w); // top-to-bottom
-            for (int yy = 0; yy < h; yy++) {
-                int dstOffset = (y0 + yy) * atlasW + x0;
-                int srcOffset = yy * w;
-                System.arraycopy(imgPixels, srcOffset, atlasPixels, dstOffset, w);
+            int cols = (int) Math.ceil(Math.sqrt(n));
+            int rows = (int) Math.ceil((double) n / cols);
+
+            int tileW = maxW;
+            int tileH = maxH;
+            int levelCount = AtlasMipmapper.levelsFor(tileW, tileH);
+            int pad = 1 << (levelCount - 1); // one texel of border left at the smallest level
+            int cellW = tileW + 2 * pad;
+            int cellH = tileH + 2 * pad;
+            int atlasW = cols * cellW;
+            int atlasH = rows * cellH;
+
+            System.out.println("Atlas layout: " + cols + " cols x " + rows + " rows, tile size: " + tileW + "x" + tileH
+                    + ", padding " + pad + ", mip levels " + levelCount);
+
+            // transparent RGBA, bottom-to-top rows so it can be uploaded as is
+            ByteBuffer atlasPixels = ByteBuffer.allocateDirect(atlasW * atlasH * 4);
+
+            // Copy each image into its tile cell (centered inside the padding), flipping rows into GL order
+            for (int i = 0; i < n; i++) {
+                int col = i % cols;
+                int row = i / cols;
+                int x0 = col * cellW + pad + (tileW - widths[i]) / 2;
+                int y0 = row * cellH + pad + (tileH - heights[i]) / 2;
+                int rowBytes = widths[i] * 4;
+                for (int yy = 0; yy < heights[i]; yy++) {
+                    int dst = ((atlasH - 1 - (y0 + yy)) * atlasW + x0) * 4;
+                    atlasPixels.put(dst, images[i], yy * rowBytes, rowBytes);
+                }
+                AtlasMipmapper.extrude(atlasPixels, atlasW, atlasH, rows, col, row, tileW, tileH, pad);
             }
+
+            ByteBuffer[] chain = AtlasMipmapper.buildChain(atlasPixels, atlasW, atlasH, cols, rows, n,
+                    tileW, tileH, pad, levelCount);
+            return new TextureAtlas(atlasW, atlasH, cellW, cellH, pad, names, chain);
+        } finally {
+            for (ByteBuffer image : images) if (image != null) stbi_image_free(image);
         }
+    }
+
+    /**
+     * Hex 64-bit FNV-1a over the cache format, package and every tile's name and bytes. Only keys the cache (a stale
+     * hit would need a collision between two edits of the same texture set), and unlike MessageDigest it doesn't
+     * pull in the security providers at startup.
+     */
+    private static String contentHash(String packagePath, List<String> names, List<ByteBuffer> sources) {
+        long h = 0xcbf29ce484222325L;
+        h = fnv(h, ("v" + CACHE_VERSION + ":" + packagePath).getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < names.size(); i++) {
+            h = fnv(h, (names.get(i) + ":" + sources.get(i).remaining()).getBytes(StandardCharsets.UTF_8));
+            h = fnv(h, sources.get(i));
+        }
+        return Long.toHexString(h);
+    }
 
-        return new TextureAtlas(atlasW, atlasH, tileW, tileH, paddingPixels, names, atlasPixels);
+    private static long fnv(long h, byte[] data) {
+        return fnv(h, ByteBuffer.wrap(data));
+    }
+
+    private static long fnv(long h, ByteBuffer data) {
+        for (int i = data.position(), end = data.limit(); i < end; i++) {
+            h ^= data.get(i) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
     }
 
     /*
-     * Upload the GPU texture. Call only after the GL context/capabilities are current.
+     * Cache file layout (big-endian):
+     *   int magic, int version, int width, int height, int tileW, int tileH, int padding, int tileCount,
+     *   tileCount x (short length, UTF-8 name), int levelCount, zero padding to a multiple of 4,
+     *   then for each level l: (width >> l) * (height >> l) * 4 RGBA bytes.
      */
+
+    private void writeCache(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeInt(CACHE_MAGIC);
+            out.writeInt(CACHE_VERSION);
+            out.writeInt(atlasWidth);
+            out.writeInt(atlasHeight);
+            out.writeInt(tileW);
+            out.writeInt(tileH);
+            out.writeInt(padding);
+            out.writeInt(tileNames.size());
+            for (String name : tileNames) out.writeUTF(name);
+            out.writeInt(levels.length);
+            while (out.size() % 4 != 0) out.writeByte(0);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer h = ByteBuffer.wrap(header.toByteArray());
+            while (h.hasRemaining()) ch.write(h);
+            for (ByteBuffer level : levels) {
+                ByteBuffer p = level.duplicate().clear();
+                while (p.hasRemaining()) ch.write(p);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // drop caches of older texture sets
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(file.getParent(), "atlas-*.bin")) {
+            for (Path p : old) if (!p.equals(file)) Files.deleteIfExists(p);
+        }
+    }
+
+    private static TextureAtlas readCache(Path file) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()); // stays valid after the channel closes
+        }
+        try {
+            if (map.getInt() != CACHE_MAGIC || map.getInt() != CACHE_VERSION) throw new IOException("not an atlas cache");
+            int w = map.getInt(), h = map.getInt(), tileW = map.getInt(), tileH = map.getInt();
+            int padding = map.getInt(), count = map.getInt();
+            List<String> names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] utf = new byte[map.getShort() & 0xFFFF];
+                map.get(utf);
+                names.add(new String(utf, StandardCharsets.UTF_8)); // writeUTF is plain UTF-8 for ordinary names
+            }
+            int levelCount = map.getInt();
+            if (levelCount < 1 || levelCount > 31) throw new IOException("bad mip level count " + levelCount);
+            ByteBuffer[] levels = new ByteBuffer[levelCount];
+            long offset = (map.position() + 3) & ~3;
+            for (int l = 0; l < levelCount; l++) {
+                long length = (long) (w >> l) * (h >> l) * 4;
+                if (offset + length > map.capacity()) throw new IOException("truncated atlas cache");
+                levels[l] = map.slice((int) offset, (int) length);
+                offset += length;
+            }
+            if (offset != map.capacity()) throw new IOException("truncated atlas cache");
+            return new TextureAtlas(w, h, tileW, tileH, padding, names, levels);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("truncated atlas cache", e);
+        }
+    }
+
     /**
      * Upload the GPU texture. Call only after the GL context/capabilities are current.
-     * Uses the TextureGL(ByteBuffer, width, height) constructor so no AWT is used here.
+     * Every mip level is already in GL layout (a mapped cache file on warm starts), so they are handed over as is.
      */
     public void uploadToGL() {
         if (this.texture != null) return; // already uploaded
 
-        final int w = atlasWidth;
-        final int h = atlasHeight;
-
-        // Allocate direct ByteBuffer for RGBA data (bottom-to-top row order for GL).
-        java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocateDirect(w * h * 4);
-
-        // pixels[] contains ARGB ints in top-to-bottom row order.
-        // We iterate rows bottom->top and push r,g,b,a
-        for (int y = h - 1; y >= 0; y--) {
-            int rowBase = y * w;
-            for (int x = 0; x < w; x++) {
-                int argb = pixels[rowBase + x];
-                byte a = (byte) ((argb >> 24) & 0xFF);
-                byte r = (byte) ((argb >> 16) & 0xFF);
-                byte g = (byte) ((argb >> 8) & 0xFF);
-                byte b = (byte) (argb & 0xFF);
-                buf.put(r).put(g).put(b).put(a);
-            }
-        }
-        buf.flip();
-
-        // Create the GL texture via the ByteBuffer constructor
-        this.texture = new TextureGL(buf, w, h);
+        ByteBuffer[] upload = new ByteBuffer[levels.length];
+        for (int l = 0; l < levels.length; l++) upload[l] = levels[l].duplicate().clear();
+        this.texture = new TextureGL(upload, atlasWidth, atlasHeight);
         System.out.println("Texture uploaded to GL: id=" + this.texture.getId());
     }
 
@@ -221,4 +355,9 @@ public final class TextureAtlas implements AutoCloseable {
     public int getTilesPerColumn() { return tilesPerColumn; }
     public int getTileWidth() { return tileW; }
     public int getTileHeight() { return tileH; }
+    public int getPadding() { return padding; }
+    public int getMipLevels() { return levels.length; }
+
+    /** Mip level {@code level} as a read-only view of the CPU data (RGBA bottom-to-top, (width >> level) x (height >> level)). */
+    public ByteBuffer getLevel(int level) { return levels[level].asReadOnlyBuffer().clear(); }
 }
@@ -2,11 +2,10 @@ package org.jephacake.renderer;
 
 import org.lwjgl.BufferUtils;
 
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
 
 import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.*;
 import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL30.*;
 
@@ -37,6 +36,33 @@ public class TextureGL implements AutoCloseable {
         glBindTexture(GL_TEXTURE_2D, 0);
     }
 
+    /**
+     * Creates a mipmapped texture from a precomputed mip chain (level 0 first, each half the size of the one before),
+     * same layout as above. Minification picks the nearest texel and blends between levels; the chain may stop
+     * short of 1x1, the sampler is clamped to the levels given.
+     */
+    public TextureGL(ByteBuffer[] levels, int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        id = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, id);
+
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, levels.length > 1 ? GL_NEAREST_MIPMAP_LINEAR : GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_BASE_LEVEL, 0);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAX_LEVEL, levels.length - 1);
+
+        for (int l = 0; l < levels.length; l++) {
+            glTexImage2D(GL_TEXTURE_2D, l, GL_RGBA8, Math.max(1, width >> l), Math.max(1, height >> l), 0,
+                    GL_RGBA, GL_UNSIGNED_BYTE, levels[l]);
+        }
+
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
     /**
      * Convenience constructor for a BufferedImage.
      * Converts ARGB → RGBA and vertically flips to match GL coords.
@@ -0,0 +1,76 @@
+package org.jephacake.renderer;
+
+import org.jephacake.configuration.Options;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.world.Universe;
+import org.jephacake.world.World;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws every world of a {@link Universe}. One {@link WorldRenderer} per world, all meshing on the universe's
+ * job system and drawing from a single per-frame upload budget (Options.MAX_MESH_UPLOADS_PER_FRAME in total).
+ * The world that gets first pick of the budget rotates every frame so no world can starve the others.
+ * Render thread only.
+ */
+public class UniverseRenderer implements AutoCloseable {
+    private final Universe universe;
+    private final TextureAtlas atlas;
+    private final UploadBudget uploadBudget = new UploadBudget();
+    private final Map<World, WorldRenderer> renderers = new IdentityHashMap<>();
+    private final List<WorldRenderer> order = new ArrayList<>();
+    private int firstPick;
+
+    public UniverseRenderer(Universe universe, TextureAtlas atlas) {
+        this.universe = universe;
+        this.atlas = atlas;
+        syncWorlds();
+    }
+
+    /** Pick up worlds added to or removed from the universe since the last frame. */
+    private void syncWorlds() {
+        List<World> worlds = universe.getWorlds();
+        if (worlds.size() == renderers.size() && renderers.keySet().containsAll(worlds)) return;
+
+        for (WorldRenderer wr : new ArrayList<>(renderers.values())) {
+            if (!worlds.contains(wr.getWorld())) {
+                renderers.remove(wr.getWorld());
+                wr.close();
+            }
+        }
+        for (World w : worlds) {
+            renderers.computeIfAbsent(w, k -> new WorldRenderer(k, atlas, universe.getJobs(), uploadBudget));
+        }
+        order.clear();
+        order.addAll(renderers.values());
+    }
+
+    public void render(Renderer renderer) {
+        syncWorlds();
+        uploadBudget.reset(Options.MAX_MESH_UPLOADS_PER_FRAME);
+
+        int chunks = 0, vertices = 0;
+        int n = order.size();
+        for (int i = 0; i < n; i++) {
+            WorldRenderer wr = order.get((firstPick + i) % n);
+            wr.render(renderer);
+            chunks += wr.getChunkRenderer().getLastRenderedChunks();
+            vertices += wr.getChunkRenderer().getLastRenderedVertices();
+        }
+        if (n > 0) firstPick = (firstPick + 1) % n;
+
+        EngineMetrics.MESH_UPLOADS_LAST_FRAME.set(uploadBudget.getUsed());
+        EngineMetrics.CHUNKS_RENDERED.set(chunks);
+        EngineMetrics.VERTICES_RENDERED.set(vertices);
+    }
+
+    @Override
+    public void close() {
+        for (WorldRenderer wr : renderers.values()) wr.close();
+        renderers.clear();
+        order.clear();
+    }
+}
@@ -0,0 +1,31 @@
+package org.jephacake.renderer;
+
+/**
+ * Per-frame cap on mesh uploads, shared by every {@link WorldRenderer} drawing into one frame so the
+ * total upload cost stays bounded no matter how many worlds are visible. Render thread only.
+ */
+public class UploadBudget {
+    private int limit;
+    private int used;
+
+    /** Start a new frame allowing {@code limit} uploads. */
+    public void reset(int limit) {
+        this.limit = limit;
+        this.used = 0;
+    }
+
+    /** Take one upload slot; false once this frame's budget is spent. */
+    public boolean tryAcquire() {
+        if (used >= limit) return false;
+        used++;
+        return true;
+    }
+
+    public boolean isExhausted() {
+        return used >= limit;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+}
@@ -1,10 +1,13 @@
 package org.jephacake.renderer;
 
+import org.jephacake.configuration.Options;
+import org.jephacake.profiler.Profiler;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.glfw.*;
 import org.lwjgl.system.MemoryStack;
 
+import java.io.File;
 import java.nio.DoubleBuffer;
 import java.nio.IntBuffer;
 import java.util.HashSet;
@@ -28,7 +31,10 @@ import static org.lwjgl.system.MemoryUtil.NULL;
  *  - SPACE: up
  *  - LEFT_SHIFT: down
  *  - ESC: window close (press)
+ *  - F3: toggle the performance overlay
+ *  - F4: start/stop a profiler capture (written to traces/ next to the jar)
  *  - RIGHT_MOUSE button toggles cursor grab (when grabbed, mouse moves camera)
+ *  - LEFT_MOUSE: break the block under the crosshair (see consumeLeftClick())
  */
 public class WindowManager implements AutoCloseable {
     private long window;
@@ -45,6 +51,7 @@ public class WindowManager implements AutoCloseable {
     private boolean firstMouse = true;
     private boolean cursorGrabbed = true;
     private boolean rightMouseDown = false;
+    private int leftClicks = 0;
     private float mouseDeltaX = 0f;
     private float mouseDeltaY = 0f;
 
@@ -114,6 +121,13 @@ public class WindowManager implements AutoCloseable {
                     if (key == GLFW_KEY_ESCAPE) {
                         glfwSetWindowShouldClose(win, true);
                     }
+                    if (key == GLFW_KEY_F3) {
+                        Options.debugMode = !Options.debugMode;
+                    }
+                    if (key == GLFW_KEY_F4) {
+                        Profiler.toggleCapture(new File(ResourceLoader.getJarDirectory()
+                                + "/traces/trace-" + System.currentTimeMillis() + ".json"));
+                    }
                 } else if (action == GLFW_RELEASE) {
                     keysDown.remove(key);
                 }
@@ -138,10 +152,13 @@ public class WindowManager implements AutoCloseable {
         };
         glfwSetCursorPosCallback(window, cursorPosCallback);
 
-        // mouse button callback (toggle grab on RMB)
+        // mouse button callback (toggle grab on RMB, count LMB presses)
         mouseButtonCallback = new GLFWMouseButtonCallback() {
             @Override
             public void invoke(long win, int button, int action, int mods) {
+                if (button == GLFW_MOUSE_BUTTON_LEFT && action == GLFW_PRESS) {
+                    leftClicks++;
+                }
                 if (button == GLFW_MOUSE_BUTTON_RIGHT) {
                     if (action == GLFW_PRESS) {
                         rightMouseDown = true;
@@ -166,6 +183,13 @@ public class WindowManager implements AutoCloseable {
         return keysDown.contains(key);
     }
 
+    /** True (once per press) if the left mouse button was pressed since the last call. */
+    public boolean consumeLeftClick() {
+        if (leftClicks == 0) return false;
+        leftClicks--;
+        return true;
+    }
+
     public void pollEvents() {
         glfwPollEvents();
     }
@@ -0,0 +1,293 @@
+package org.jephacake.renderer;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.configuration.Options;
+import org.jephacake.jobs.Job;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.profiler.Profiler;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.ChunkPos;
+import org.jephacake.world.UnloadedCache;
+import org.jephacake.world.World;
+import org.jephacake.world.WorldListener;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Client-side view of a {@link World}: meshes chunks on worker threads and owns their GPU models.
+ * Listener callbacks may arrive on any thread; all GL work happens in {@link #render(Renderer)} on the render thread.
+ *
+ * Meshing runs as "mesh" jobs on a {@link JobSystem}; a newly loaded chunk's job waits for any neighbour still
+ * being generated so its border faces are culled correctly, and remeshes after edits go ahead of streaming work.
+ * Standalone (one world) it uses the shared job system and owns its upload budget. Inside a {@link UniverseRenderer}
+ * the per-frame upload budget is shared with the other worlds' renderers.
+ *
+ * A mesh job records the chunk's version and load token before reading it; a result whose chunk has changed since
+ * (a newer job is already queued for it) or was unloaded is dropped instead of uploaded, in constant time.
+ *
+ * Models of unloaded chunks are not closed right away but parked in an {@link UnloadedCache} bounded by
+ * {@link Options#MESH_CACHE_BYTES}. A chunk loading again at the same position gets its old model back at once, so
+ * it is drawn immediately and its remesh refills the existing buffers instead of allocating new ones.
+ *
+ * Finished meshes are also kept across runs in a {@link MeshDiskCache} beside the world save; after a restart, mesh
+ * jobs for chunks whose content and borders are unchanged decode the stored mesh instead of meshing.
+ *
+ * With {@link Options#FACE_INSTANCED_CHUNKS} chunks are meshed into {@link ChunkMesher.FaceData} instead and drawn
+ * as {@link FaceMesh}es, 8 bytes per face instead of 4 vertices and 6 indices; the disk cache is not used then.
+ */
+public class WorldRenderer implements WorldListener, AutoCloseable {
+    private static final int Z_APPLY_MESHES = Profiler.zone("WorldRenderer.applyMeshes");
+    private static final int Z_RENDER = Profiler.zone("WorldRenderer.render");
+    private static final int Z_MESH_JOB = Profiler.zone("WorldRenderer.meshJob");
+
+    private final World world;
+    private final TextureAtlas atlas;
+    private final FaceTable faceTable; // null = classic meshes
+    private final ChunkRenderer chunkRenderer = new ChunkRenderer();
+
+    // render thread only
+    private final Map<Chunk, Model> models = new HashMap<>();
+    private final MeshDiskCache diskCache; // null = disabled
+    private final UnloadedCache<Model> modelCache = new UnloadedCache<>(Options.MESH_CACHE_BYTES, EngineMetrics.MESH_CACHE_BYTES);
+
+    // async meshing
+    private final JobQueue meshQueue;
+    private final UploadBudget uploadBudget;
+    private final boolean standalone;
+    private final ConcurrentLinkedQueue<MeshJobResult> completedMeshes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Chunk> unloadedChunks = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Chunk> loadedChunks = new ConcurrentLinkedQueue<>(); // to match with modelCache
+    private final Set<Chunk> meshQueued = ConcurrentHashMap.newKeySet(); // jobs submitted but not yet started
+
+    /** Exactly one of {@code data} and {@code faces} is set, depending on the mesh format. */
+    private record MeshJobResult(Chunk chunk, long version, long loadToken, ChunkMesher.MeshData data,
+                                 ChunkMesher.FaceData faces) {}
+
+    public WorldRenderer(World world, TextureAtlas atlas) {
+        this(world, atlas, JobSystem.shared(), new UploadBudget(), true);
+    }
+
+    /** A renderer sharing {@code jobs} and {@code uploadBudget} with others; the caller owns both. */
+    public WorldRenderer(World world, TextureAtlas atlas, JobSystem jobs, UploadBudget uploadBudget) {
+        this(world, atlas, jobs, uploadBudget, false);
+    }
+
+    private WorldRenderer(World world, TextureAtlas atlas, JobSystem jobs,
+                          UploadBudget uploadBudget, boolean standalone) {
+        this.world = world;
+        this.atlas = atlas;
+        this.meshQueue = jobs.queue("mesh");
+        this.uploadBudget = uploadBudget;
+        this.standalone = standalone;
+        this.faceTable = Options.FACE_INSTANCED_CHUNKS ? new FaceTable(BlockRegistry.table()) : null;
+        File save = world.getSaveFile();
+        this.diskCache = faceTable == null && Options.MESH_DISK_CACHE_BYTES > 0
+                ? MeshDiskCache.open(new File(save.getPath() + ".meshes").toPath()) : null;
+        world.addListener(this);
+        for (Chunk c : world.getChunks()) queueMeshBuild(c, JobSystem.Priority.NORMAL);
+    }
+
+    @Override
+    public void chunkLoaded(Chunk chunk) {
+        loadedChunks.add(chunk);
+        int cx = chunk.getCX(), cy = chunk.getCY(), cz = chunk.getCZ();
+        queueMeshBuild(chunk, JobSystem.Priority.NORMAL,
+                world.getPendingGeneration(cx - 1, cy, cz), world.getPendingGeneration(cx + 1, cy, cz),
+                world.getPendingGeneration(cx, cy - 1, cz), world.getPendingGeneration(cx, cy + 1, cz),
+                world.getPendingGeneration(cx, cy, cz - 1), world.getPendingGeneration(cx, cy, cz + 1));
+    }
+
+    @Override
+    public void chunkChanged(Chunk chunk) {
+        queueMeshBuild(chunk, JobSystem.Priority.HIGH); // edits are what the player is looking at
+    }
+
+    @Override
+    public void chunkUnloaded(Chunk chunk) {
+        unloadedChunks.add(chunk);
+    }
+
+    private void queueMeshBuild(Chunk chunk, JobSystem.Priority priority, Job... dependencies) {
+        // a job that has not started yet will already see this change (e.g. geometry + light edits of one batch)
+        if (!meshQueued.add(chunk)) return;
+        EngineMetrics.MESH_JOBS_PENDING.inc();
+        Job job = meshQueue.submit(priority, () -> {
+            meshQueued.remove(chunk);
+            Profiler.begin(Z_MESH_JOB);
+            try {
+                long version = chunk.getVersion(), loadToken = chunk.getLoadToken(); // read before the data
+                if (loadToken == 0) return; // unloaded while queued
+                MeshJobResult result;
+                if (faceTable != null) {
+                    ChunkMesher.FaceData faces = ChunkMesher.faceDataFromChunk(world, chunk);
+                    result = new MeshJobResult(chunk, version, loadToken, null, faces);
+                } else {
+                    ChunkMesher.MeshData data = ChunkMesher.meshDataFromChunk(world, chunk, atlas, diskCache);
+                    result = new MeshJobResult(chunk, version, loadToken, data, null);
+                }
+                // count before publishing, or the render thread can poll and decrement it first
+                EngineMetrics.MESH_QUEUE_DEPTH.inc();
+                completedMeshes.add(result);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                Profiler.end(Z_MESH_JOB);
+            }
+        }, dependencies);
+        job.future().whenComplete((v, t) -> {
+            EngineMetrics.MESH_JOBS_PENDING.dec();
+            if (t != null) meshQueued.remove(chunk);
+            // a neighbour's generation failed or was cancelled: mesh against whatever is loaded instead
+            if (t instanceof CancellationException && dependencies.length > 0 && world.isLoaded(chunk)) {
+                queueMeshBuild(chunk, priority);
+            }
+        });
+    }
+
+    private void releaseUnloadedChunks() {
+        Chunk c;
+        while ((c = unloadedChunks.poll()) != null) {
+            Model model = models.remove(c);
+            if (model == null) continue;
+            long key = ChunkPos.pack(c.getCX(), c.getCY(), c.getCZ());
+            for (Model evicted : modelCache.put(key, model, model.getGpuBytes(),
+                    world.getCenterX(), world.getCenterY(), world.getCenterZ())) {
+                closeModel(evicted);
+            }
+        }
+    }
+
+    /** Give reloaded chunks the model they had when they unloaded, until their new mesh arrives. */
+    private void restoreCachedModels() {
+        Chunk c;
+        while ((c = loadedChunks.poll()) != null) {
+            if (!world.isLoaded(c) || models.containsKey(c)) continue;
+            Model model = modelCache.take(ChunkPos.pack(c.getCX(), c.getCY(), c.getCZ()));
+            if (model != null) {
+                models.put(c, model);
+                EngineMetrics.MESH_CACHE_HITS.inc();
+            }
+        }
+    }
+
+    private void applyCompletedMeshes() {
+        MeshJobResult res;
+
+        // Process completed meshes gradually to avoid frame spikes
+        while (!uploadBudget.isExhausted() && (res = completedMeshes.poll()) != null) {
+            EngineMetrics.MESH_QUEUE_DEPTH.dec();
+            try {
+                Chunk chunk = res.chunk();
+
+                if (chunk.getLoadToken() != res.loadToken()) {
+                    EngineMetrics.MESH_RESULTS_DROPPED.inc();
+                    continue;
+                }
+                if (chunk.getVersion() != res.version()) { // built from older data; the job for the change follows
+                    EngineMetrics.MESH_RESULTS_STALE.inc();
+                    continue;
+                }
+
+                uploadBudget.tryAcquire();
+                if (res.faces() != null) applyFaceData(chunk, res.faces());
+                else applyMeshData(chunk, res.data());
+
+            } catch (Exception e) {
+                System.err.println("[WorldRenderer] Failed to apply mesh data:");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Upload new GPU data for a chunk (render thread). */
+    private void applyMeshData(Chunk chunk, ChunkMesher.MeshData data) {
+        Model model = models.get(chunk);
+        if (data == null || data.indices == null || data.indices.length == 0) {
+            if (model != null) {
+                models.remove(chunk);
+                closeModel(model);
+            }
+            return;
+        }
+
+        if (model == null) {
+            Mesh mesh = new Mesh(data.positions, data.normals, data.texcoords, data.colors, data.indices);
+            models.put(chunk, new Model(mesh, atlas.getTexture()));
+            EngineMetrics.CHUNKS_MESHED.inc();
+        } else {
+            model.getMesh().update(data.positions, data.normals, data.texcoords, data.colors, data.indices);
+        }
+    }
+
+    /** Upload new face records for a chunk (render thread). */
+    private void applyFaceData(Chunk chunk, ChunkMesher.FaceData data) {
+        Model model = models.get(chunk);
+        if (data.getFaceCount() == 0) {
+            if (model != null) {
+                models.remove(chunk);
+                closeModel(model);
+            }
+            return;
+        }
+
+        if (model == null) {
+            models.put(chunk, new Model(new FaceMesh(data.faces), atlas.getTexture(), faceTable));
+            EngineMetrics.CHUNKS_MESHED.inc();
+        } else {
+            model.getFaceMesh().update(data.faces);
+        }
+    }
+
+    private static void closeModel(Model model) {
+        try { model.close(); } catch (Exception e) { e.printStackTrace(); }
+        EngineMetrics.CHUNKS_MESHED.dec();
+    }
+
+    /** Apply finished meshes (bounded per frame) and draw. Render thread only. */
+    public void render(Renderer renderer) {
+        if (standalone) uploadBudget.reset(Options.MAX_MESH_UPLOADS_PER_FRAME);
+        Profiler.begin(Z_APPLY_MESHES);
+        releaseUnloadedChunks();
+        restoreCachedModels();
+        applyCompletedMeshes();
+        Profiler.end(Z_APPLY_MESHES);
+
+        Profiler.begin(Z_RENDER);
+        chunkRenderer.renderChunks(models, renderer, world.position);
+        Profiler.end(Z_RENDER);
+
+        if (standalone) {
+            EngineMetrics.MESH_UPLOADS_LAST_FRAME.set(uploadBudget.getUsed());
+            EngineMetrics.CHUNKS_RENDERED.set(chunkRenderer.getLastRenderedChunks());
+        }
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public ChunkRenderer getChunkRenderer() {
+        return chunkRenderer;
+    }
+
+    @Override
+    public void close() {
+        world.removeListener(this);
+        releaseUnloadedChunks();
+        for (Model m : models.values()) closeModel(m);
+        models.clear();
+        for (Model m : modelCache.drain()) closeModel(m);
+        if (faceTable != null) faceTable.close();
+        if (diskCache != null) {
+            diskCache.save(world.getCenterX(), world.getCenterY(), world.getCenterZ(), Options.MESH_DISK_CACHE_BYTES);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.jephacake.replay;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A recorded play session: the world it was played in (generator name, seed, render distance) and, per frame,
+ * the camera and the blocks set during that frame. Written by {@link ReplayRecorder}, played back headless by
+ * {@link ReplayRunner}.
+ *
+ * File layout (big-endian): int magic, int version, UTF generator, long seed, int renderDistance, then records,
+ * each a type byte: {@link #EDIT} (int wx, wy, wz, blockId) for a block set since the previous frame,
+ * {@link #FRAME} (long nanos since the first frame, float x, y, z, yaw, pitch) closing a frame, and {@link #END}.
+ * A file cut short (the game was killed) reads up to its last complete frame.
+ */
+public final class ReplayFile {
+    static final int MAGIC = 0x53475250; // "SGRP"
+    static final int VERSION = 1;
+    static final byte END = 0, FRAME = 1, EDIT = 2;
+
+    /**
+     * One frame: where the camera was when the world updated, and the edits applied before that update as
+     * {@code (wx, wy, wz, blockId)} quadruples, in order.
+     */
+    public record Frame(long nanos, float x, float y, float z, float yaw, float pitch, int[] edits) {
+        public int editCount() { return edits.length / 4; }
+    }
+
+    public final String generator;
+    public final long seed;
+    public final int renderDistance;
+    public final List<Frame> frames;
+
+    ReplayFile(String generator, long seed, int renderDistance, List<Frame> frames) {
+        this.generator = generator;
+        this.seed = seed;
+        this.renderDistance = renderDistance;
+        this.frames = frames;
+    }
+
+    public static ReplayFile read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a replay");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("unsupported replay version " + version);
+            String generator = in.readUTF();
+            long seed = in.readLong();
+            int renderDistance = in.readInt();
+
+            List<Frame> frames = new ArrayList<>();
+            int[] edits = new int[64];
+            int editInts = 0;
+            try {
+                for (byte type; (type = in.readByte()) != END; ) {
+                    if (type == EDIT) {
+                        if (editInts + 4 > edits.length) edits = Arrays.copyOf(edits, edits.length * 2);
+                        for (int i = 0; i < 4; i++) edits[editInts++] = in.readInt();
+                    } else if (type == FRAME) {
+                        frames.add(new Frame(in.readLong(), in.readFloat(), in.readFloat(), in.readFloat(),
+                                in.readFloat(), in.readFloat(), Arrays.copyOf(edits, editInts)));
+                        editInts = 0;
+                    } else {
+                        throw new IOException("corrupt replay: record type " + type + " after frame " + frames.size());
+                    }
+                }
+            } catch (EOFException e) {
+                System.err.println("[ReplayFile] " + file + " ends without an end marker; using its "
+                        + frames.size() + " complete frames");
+            }
+            return new ReplayFile(generator, seed, renderDistance, frames);
+        }
+    }
+
+    /** Recorded duration, first to last frame. */
+    public long getDurationNanos() {
+        return frames.isEmpty() ? 0 : frames.get(frames.size() - 1).nanos() - frames.get(0).nanos();
+    }
+
+    public int getEditCount() {
+        int n = 0;
+        for (Frame f : frames) n += f.editCount();
+        return n;
+    }
+}
@@ -0,0 +1,89 @@
+package org.jephacake.replay;
+
+import org.jephacake.configuration.Options;
+import org.jephacake.jobs.Job;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+import org.jephacake.metrics.LatencyHistogram;
+import org.jephacake.metrics.MetricsRegistry;
+import org.jephacake.renderer.ChunkMesher;
+import org.jephacake.renderer.TextureAtlas;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.jephacake.world.WorldListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CPU half of {@link org.jephacake.renderer.WorldRenderer} without a GL context: schedules "mesh" jobs the
+ * same way (waiting on neighbours still generating, edits at high priority, one queued job per chunk, results
+ * checked against the chunk's version and load token) and then throws the mesh away after counting it.
+ * Also measures how long each loaded chunk took from entering the world to its first usable mesh.
+ * Builds face records instead of meshes when {@link Options#FACE_INSTANCED_CHUNKS} is set, as the renderer would.
+ */
+final class ReplayMesher implements WorldListener {
+    private final World world;
+    private final TextureAtlas atlas;
+    private final JobQueue meshQueue;
+    private final Set<Chunk> meshQueued = ConcurrentHashMap.newKeySet();
+    private final Map<Chunk, Long> loadedAt = new ConcurrentHashMap<>(); // chunks still waiting for their first mesh
+
+    final LongAdder meshed = new LongAdder();
+    final LongAdder stale = new LongAdder();
+    final LongAdder faces = new LongAdder();
+    final LatencyHistogram loadToMesh;
+
+    ReplayMesher(World world, TextureAtlas atlas, JobSystem jobs) {
+        this.world = world;
+        this.atlas = atlas;
+        this.meshQueue = jobs.queue("mesh");
+        this.loadToMesh = MetricsRegistry.histogram("replay_chunk_ready_seconds", "Time from a chunk loading to its first finished mesh");
+    }
+
+    @Override
+    public void chunkLoaded(Chunk chunk) {
+        loadedAt.put(chunk, System.nanoTime());
+        int cx = chunk.getCX(), cy = chunk.getCY(), cz = chunk.getCZ();
+        queueMeshBuild(chunk, JobSystem.Priority.NORMAL,
+                world.getPendingGeneration(cx - 1, cy, cz), world.getPendingGeneration(cx + 1, cy, cz),
+                world.getPendingGeneration(cx, cy - 1, cz), world.getPendingGeneration(cx, cy + 1, cz),
+                world.getPendingGeneration(cx, cy, cz - 1), world.getPendingGeneration(cx, cy, cz + 1));
+    }
+
+    @Override
+    public void chunkChanged(Chunk chunk) {
+        queueMeshBuild(chunk, JobSystem.Priority.HIGH);
+    }
+
+    @Override
+    public void chunkUnloaded(Chunk chunk) {
+        loadedAt.remove(chunk);
+    }
+
+    private void queueMeshBuild(Chunk chunk, JobSystem.Priority priority, Job... dependencies) {
+        if (!meshQueued.add(chunk)) return;
+        Job job = meshQueue.submit(priority, () -> {
+            meshQueued.remove(chunk);
+            long version = chunk.getVersion(), loadToken = chunk.getLoadToken();
+            if (loadToken == 0) return;
+            int faceCount = Options.FACE_INSTANCED_CHUNKS
+                    ? ChunkMesher.faceDataFromChunk(world, chunk).getFaceCount()
+                    : ChunkMesher.meshDataFromChunk(world, chunk, atlas).positions.length / 12;
+            if (chunk.getLoadToken() != loadToken || chunk.getVersion() != version) {
+                stale.increment(); // the renderer would drop this result
+                return;
+            }
+            meshed.increment();
+            faces.add(faceCount);
+            Long t0 = loadedAt.remove(chunk);
+            if (t0 != null) loadToMesh.recordSince(t0);
+        }, dependencies);
+        job.future().whenComplete((v, t) -> {
+            if (t != null) meshQueued.remove(chunk);
+            if (t != null && dependencies.length > 0 && world.isLoaded(chunk)) queueMeshBuild(chunk, priority);
+        });
+    }
+}
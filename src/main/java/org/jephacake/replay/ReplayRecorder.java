@@ -0,0 +1,97 @@
+package org.jephacake.replay;
+
+import org.jephacake.world.WorldListener;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a play session into a {@link ReplayFile}: call {@link #frame} once per frame, right before the world
+ * update, and register the recorder as a {@link WorldListener} of the played world so every
+ * {@link org.jephacake.world.World#setBlock} is captured. Bulk region edits are not recorded.
+ *
+ * Replays start from a fresh world, so record in one too (or delete the save first) if the replay should see
+ * exactly the same chunks. Records are streamed to disk through a buffer; thread-safe.
+ */
+public final class ReplayRecorder implements WorldListener, AutoCloseable {
+    private final DataOutputStream out;
+    private final Path file;
+    private long start = -1;
+    private int frames;
+    private boolean closed;
+
+    private ReplayRecorder(Path file, DataOutputStream out) {
+        this.file = file;
+        this.out = out;
+    }
+
+    /**
+     * Create (or overwrite) {@code file} for a world made by generator {@code generator} (a
+     * {@link org.jephacake.world.WorldGenerator#named} name) from {@code seed}.
+     */
+    public static ReplayRecorder start(Path file, String generator, long seed, int renderDistance) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(ReplayFile.MAGIC);
+        out.writeInt(ReplayFile.VERSION);
+        out.writeUTF(generator);
+        out.writeLong(seed);
+        out.writeInt(renderDistance);
+        System.out.println("Recording replay to " + file.toAbsolutePath());
+        return new ReplayRecorder(file, out);
+    }
+
+    /** Close the current frame: the camera (universe coordinates, degrees) the world is about to update around. */
+    public synchronized void frame(long nanoTime, float x, float y, float z, float yaw, float pitch) {
+        if (closed) return;
+        if (start < 0) start = nanoTime;
+        try {
+            out.writeByte(ReplayFile.FRAME);
+            out.writeLong(nanoTime - start);
+            out.writeFloat(x);
+            out.writeFloat(y);
+            out.writeFloat(z);
+            out.writeFloat(yaw);
+            out.writeFloat(pitch);
+            frames++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void blockChanged(int wx, int wy, int wz, int blockId) {
+        if (closed) return;
+        try {
+            out.writeByte(ReplayFile.EDIT);
+            out.writeInt(wx);
+            out.writeInt(wy);
+            out.writeInt(wz);
+            out.writeInt(blockId);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        System.err.println("[ReplayRecorder] Stopped recording " + file + ":");
+        e.printStackTrace();
+        closed = true;
+        try { out.close(); } catch (IOException ignored) {}
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.writeByte(ReplayFile.END);
+            out.close();
+            System.out.println("Recorded " + frames + " frames to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.jephacake.replay;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.configuration.Options;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.metrics.LatencyHistogram;
+import org.jephacake.metrics.MetricsRegistry;
+import org.jephacake.renderer.TextureAtlas;
+import org.jephacake.world.*;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a {@link ReplayFile} back without a window: a fresh world from the recorded generator and seed, streamed
+ * around the recorded camera path with the recorded edits applied, and meshed on the job system by a
+ * {@link ReplayMesher}. Nothing depends on live input, so two builds given the same file see the same inputs and
+ * their reports can be compared directly. Work still varies slightly between runs: generation the camera has
+ * already moved away from is skipped, and how much that is depends on timing.
+ *
+ * By default frames are fed as fast as the world update allows, which measures throughput; {@code --realtime}
+ * keeps the recorded frame timing instead, which measures how far streaming falls behind a real player.
+ * After the last frame the runner waits for all queued work to finish, then prints chunks loaded and meshed
+ * per second, per-frame update times, per-queue wait and run times, and the bytes allocated and GC time spent.
+ * {@code --faces} meshes into face records ({@link Options#FACE_INSTANCED_CHUNKS}) to compare the two mesh formats.
+ *
+ * Usage: {@code ReplayRunner <replayFile> [--realtime] [--faces] [--threads N]}
+ */
+public final class ReplayRunner {
+    private static final long DRAIN_TIMEOUT_NANOS = 120_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        Path file = null;
+        boolean realtime = false;
+        int threads = Options.JOB_THREADS > 0 ? Options.JOB_THREADS : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--realtime" -> realtime = true;
+                case "--faces" -> Options.FACE_INSTANCED_CHUNKS = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> file = Path.of(args[i]);
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: ReplayRunner <replayFile> [--realtime] [--faces] [--threads N]");
+            System.exit(2);
+        }
+
+        ReplayFile replay = ReplayFile.read(file);
+        System.out.println("Replay " + file.getFileName() + ": " + replay.frames.size() + " frames, "
+                + replay.getEditCount() + " edits, " + ms(replay.getDurationNanos()) + " ms recorded, generator "
+                + replay.generator + " seed " + replay.seed + ", render distance " + replay.renderDistance);
+
+        TextureAtlas atlas = TextureAtlas.buildFromPackage("org/jephacake/assets/textures");
+        BlockRegistry.init();
+        BlockRegistry.resolveTextures(atlas::getTileIndex, atlas::getUVRect);
+
+        File save = File.createTempFile("spacegame-replay", ".dat");
+        save.delete(); // a fresh world, as the recording started from
+        try (JobSystem jobs = new JobSystem("replay", threads);
+             Universe universe = new Universe(jobs)) {
+            World world = universe.addWorld(new World(WorldGenerator.named(replay.generator, replay.seed), save, replay.renderDistance));
+            ReplayMesher mesher = new ReplayMesher(world, atlas, jobs);
+            world.addListener(mesher);
+            run(replay, universe, world, mesher, jobs, realtime);
+        } finally {
+            save.delete();
+            new File(save.getPath() + ".tmp").delete();
+        }
+    }
+
+    private static void run(ReplayFile replay, Universe universe, World world, ReplayMesher mesher,
+                            JobSystem jobs, boolean realtime) {
+        LatencyHistogram updateTime = MetricsRegistry.histogram("replay_update_seconds", "World update time per replayed frame");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long loaded0 = chunksLoaded(), cached0 = EngineMetrics.CHUNKS_LOADED_FROM_CACHE.getCount();
+        long alloc0 = threads.getTotalThreadAllocatedBytes();
+        long[] gc0 = gcTotals();
+
+        long start = System.nanoTime();
+        long recordStart = replay.frames.isEmpty() ? 0 : replay.frames.get(0).nanos();
+        for (ReplayFile.Frame f : replay.frames) {
+            if (realtime) {
+                long wait = start + (f.nanos() - recordStart) - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+            int[] e = f.edits();
+            for (int i = 0; i < e.length; i += 4) world.setBlock(e[i], e[i + 1], e[i + 2], e[i + 3]);
+            long t0 = System.nanoTime();
+            universe.update(f.x(), f.y(), f.z());
+            updateTime.recordSince(t0);
+        }
+        long framesDone = System.nanoTime();
+        boolean drained = drain(jobs);
+        long end = System.nanoTime();
+
+        long alloc = threads.getTotalThreadAllocatedBytes() - alloc0;
+        long[] gc = gcTotals();
+        long loaded = chunksLoaded() - loaded0;
+        double seconds = (end - start) / 1e9;
+
+        System.out.println();
+        System.out.println("=== replay report" + (realtime ? " (realtime)" : "") + " ===");
+        row("frames", "%d in %.1f ms, then %.1f ms to drain%s", replay.frames.size(), ms(framesDone - start),
+                ms(end - framesDone), drained ? "" : " (timed out, queues still busy)");
+        row("chunks loaded", "%d (%.1f/s), %d from cache", loaded, loaded / seconds,
+                EngineMetrics.CHUNKS_LOADED_FROM_CACHE.getCount() - cached0);
+        row("chunks meshed", "%d (%.1f/s), %d stale, %d faces%s", mesher.meshed.sum(), mesher.meshed.sum() / seconds,
+                mesher.stale.sum(), mesher.faces.sum(), Options.FACE_INSTANCED_CHUNKS ? " (face records)" : "");
+        row("chunks resident", "%d loaded, %d cached", world.getChunks().size(), world.getUnloadedCache().size());
+        histogram("frame update", updateTime);
+        histogram("load to mesh", mesher.loadToMesh);
+        List<JobQueue> queues = new ArrayList<>(jobs.getQueues());
+        queues.sort((a, b) -> a.getName().compareTo(b.getName()));
+        for (JobQueue q : queues) {
+            row("queue " + q.getName(), "%d jobs, wait p50 %.3f / p99 %.3f / max %.3f ms, run mean %.3f / p99 %.3f ms",
+                    q.getSubmitted(), ms(q.getWaitTime().percentileNanos(0.5)), ms(q.getWaitTime().percentileNanos(0.99)),
+                    ms(q.getWaitTime().getMaxNanos()), q.getRunTime().getMeanMicros() / 1000.0,
+                    ms(q.getRunTime().percentileNanos(0.99)));
+        }
+        row("allocated", "%.1f MB (%.1f MB/s)", alloc / 1e6, alloc / 1e6 / seconds);
+        row("gc", "%d collections, %d ms", gc[0] - gc0[0], gc[1] - gc0[1]);
+    }
+
+    /** Wait until no job of any queue is pending; false if that took longer than the timeout. */
+    private static boolean drain(JobSystem jobs) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (System.nanoTime() < deadline) {
+            boolean idle = true;
+            for (JobQueue q : jobs.getQueues()) idle &= q.getPending() == 0;
+            if (idle) return true;
+            LockSupport.parkNanos(1_000_000);
+        }
+        return false;
+    }
+
+    private static long chunksLoaded() {
+        return EngineMetrics.CHUNKS_GENERATED.getCount() + EngineMetrics.CHUNKS_LOADED_FROM_SAVE.getCount()
+                + EngineMetrics.CHUNKS_LOADED_FROM_CACHE.getCount();
+    }
+
+    /** {collection count, collection millis} summed over all collectors. */
+    private static long[] gcTotals() {
+        long count = 0, time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] { count, time };
+    }
+
+    private static void histogram(String label, LatencyHistogram h) {
+        row(label, "%d samples, p50 %.3f / p99 %.3f / max %.3f ms", h.getCount(), ms(h.percentileNanos(0.5)),
+                ms(h.percentileNanos(0.99)), ms(h.getMaxNanos()));
+    }
+
+    private static void row(String label, String format, Object... values) {
+        System.out.printf(Locale.ROOT, "%-18s %s%n", label, String.format(Locale.ROOT, format, values));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private ReplayRunner() {}
+}
@@ -0,0 +1,110 @@
+package org.jephacake.server;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.configuration.Options;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.metrics.MetricsExporter;
+import org.jephacake.world.FlatWorldGenerator;
+import org.jephacake.world.Universe;
+import org.jephacake.world.World;
+import org.joml.Vector3f;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless server: hosts any number of {@link World}s and ticks them at a fixed rate (Options.SERVER_TICK_RATE).
+ * No GLFW window or GL context is ever created. Worlds live in a {@link Universe}, so each tick updates them
+ * in parallel on the engine job system, which also generates their chunks.
+ *
+ * Usage: {@code DedicatedServer [worldCount] [saveDirectory]}
+ */
+public final class DedicatedServer implements AutoCloseable {
+
+    private final Universe universe = new Universe();
+    /** Per world, the world-local point chunks are kept loaded around (spawn until players exist). */
+    private final Map<World, Vector3f> anchors = new ConcurrentHashMap<>();
+    private volatile boolean running = false;
+
+    public void addWorld(World world, Vector3f anchor) {
+        anchors.put(world, anchor);
+        universe.addWorld(world);
+    }
+
+    public Universe getUniverse() {
+        return universe;
+    }
+
+    /** Run the fixed-rate tick loop on the calling thread until {@link #stop()}. */
+    public void run() {
+        running = true;
+        final long tickNanos = 1_000_000_000L / Options.SERVER_TICK_RATE;
+        final long autosaveTicks = (long) Options.SERVER_AUTOSAVE_SECONDS * Options.SERVER_TICK_RATE;
+        long ticks = 0;
+        long next = System.nanoTime();
+        System.out.println("Server running " + universe.getWorlds().size() + " world(s) at " + Options.SERVER_TICK_RATE + " TPS");
+
+        while (running) {
+            long start = System.nanoTime();
+            tick();
+            EngineMetrics.SERVER_TICKS.inc();
+            EngineMetrics.SERVER_TICK_TIME.recordSince(start);
+            if (autosaveTicks > 0 && ++ticks % autosaveTicks == 0) {
+                for (World w : universe.getWorlds()) w.saveAsync(); // disk writes run on virtual threads
+            }
+
+            next += tickNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (-wait > tickNanos) {
+                // more than a whole tick behind: skip ahead instead of trying to catch up in a burst
+                EngineMetrics.SERVER_TICK_OVERRUNS.inc();
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    private void tick() {
+        universe.forEachParallel(w -> {
+            Vector3f anchor = anchors.get(w);
+            w.update(anchor.x, anchor.y, anchor.z);
+        });
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        universe.close();
+        anchors.clear();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int worldCount = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        File saveDir = new File(args.length > 1 ? args[1] : "saves");
+
+        BlockRegistry.init(); // no atlas: servers never resolve textures
+
+        MetricsExporter metrics = MetricsExporter.start();
+        try (metrics;
+             DedicatedServer server = new DedicatedServer()) {
+            for (int i = 0; i < worldCount; i++) {
+                World w = new World(new FlatWorldGenerator(8), new File(saveDir, "world-" + i + ".dat"), Options.renderDistance);
+                server.addWorld(w, new Vector3f(0, 0, 0));
+            }
+            // on Ctrl+C / SIGTERM: stop ticking and wait for main to save and close every world
+            Thread mainThread = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                try { mainThread.join(); } catch (InterruptedException ignored) {}
+            }, "server-shutdown"));
+            server.run();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.jephacake.world;
+
+/**
+ * Axis-aligned box in world-local block coordinates, as moved by {@link VoxelCollider}. Mutable so a moving entity
+ * can keep one instance and collide it every frame without allocating.
+ */
+public final class Aabb {
+    public float minX, minY, minZ;
+    public float maxX, maxY, maxZ;
+
+    public Aabb() {}
+
+    public Aabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public Aabb set(Aabb other) {
+        minX = other.minX;
+        minY = other.minY;
+        minZ = other.minZ;
+        maxX = other.maxX;
+        maxY = other.maxY;
+        maxZ = other.maxZ;
+        return this;
+    }
+
+    public Aabb translate(float dx, float dy, float dz) {
+        minX += dx;
+        minY += dy;
+        minZ += dz;
+        maxX += dx;
+        maxY += dy;
+        maxZ += dz;
+        return this;
+    }
+}
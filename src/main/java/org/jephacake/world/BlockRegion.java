@@ -0,0 +1,31 @@
+package org.jephacake.world;
+
+/**
+ * A detached box of voxel ids, as produced by {@link World#copyRegion} and consumed by {@link World#pasteRegion}.
+ * Stored x-fastest (index = x + y * sizeX + z * sizeX * sizeY) so rows line up with chunk rows for bulk copies.
+ */
+public class BlockRegion {
+    private final int sizeX, sizeY, sizeZ;
+    private final int[] data;
+
+    public BlockRegion(int sizeX, int sizeY, int sizeZ) {
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0)
+            throw new IllegalArgumentException("Region size must be positive: " + sizeX + "x" + sizeY + "x" + sizeZ);
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.data = new int[sizeX * sizeY * sizeZ];
+    }
+
+    public int index(int x, int y, int z) {
+        return x + y * sizeX + z * sizeX * sizeY;
+    }
+
+    public int getBlock(int x, int y, int z) { return data[index(x, y, z)]; }
+    public void setBlock(int x, int y, int z, int blockId) { data[index(x, y, z)] = blockId; }
+
+    public int[] getData() { return data; }
+    public int getSizeX() { return sizeX; }
+    public int getSizeY() { return sizeY; }
+    public int getSizeZ() { return sizeZ; }
+}
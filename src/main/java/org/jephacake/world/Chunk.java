@@ -1,15 +1,35 @@
 package org.jephacake.world;
 
-import org.jephacake.renderer.*;
+import org.jephacake.block.BlockTable;
 
-public class Chunk implements AutoCloseable {
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 16x16x16 block of voxel ids plus sky and block light levels (0..15, two packed nibble arrays).
+ * Pure data; light is maintained by the world's {@link LightEngine} and GPU meshes are owned by the renderer.
+ *
+ * Per column (x, z) it also keeps the highest solid and the highest opaque block ({@link #getSolidTop},
+ * {@link #getOpaqueTop}); the {@link World} updates them with every edit and combines them across chunks in a
+ * {@link ColumnHeights} index.
+ *
+ * Two counters let derived data (meshes) be checked for staleness without touching the world: the version goes up
+ * every time the chunk is reported changed, and the load token is a per-load id set by the {@link World} while the
+ * chunk is loaded (0 when it is not).
+ */
+public class Chunk {
     public static final int SIZE = 16;
+    /** Heap taken by one chunk's voxel, light and height arrays, for memory budgets. */
+    public static final int BYTES = SIZE * SIZE * SIZE * Integer.BYTES + SIZE * SIZE * SIZE + 2 * SIZE * SIZE;
 
     private final int cx, cy, cz;
     private final int[] voxels;
-
-    private Mesh mesh = null;
-    private Model model = null;
+    private final byte[] skyLight = new byte[SIZE * SIZE * SIZE / 2];
+    private final byte[] blockLight = new byte[SIZE * SIZE * SIZE / 2];
+    private final byte[] solidTop = new byte[SIZE * SIZE];  // [x + z * SIZE] = local y + 1 of the top solid block, 0 = none
+    private final byte[] opaqueTop = new byte[SIZE * SIZE]; // same for opaque blocks
+    private final AtomicLong version = new AtomicLong();
+    private volatile long loadToken; // 0 = not loaded
 
     public Chunk(int cx, int cy, int cz) {
         this.cx = cx;
@@ -35,43 +55,115 @@ public class Chunk implements AutoCloseable {
         return voxels;
     }
 
-    public int getCX() { return cx; }
-    public int getCY() { return cy; }
-    public int getCZ() { return cz; }
+    // --- light (0..15); index = x + y * SIZE + z * SIZE * SIZE ---
+    public int getSkyLight(int x, int y, int z) { return nibble(skyLight, index(x, y, z)); }
+    public int getBlockLight(int x, int y, int z) { return nibble(blockLight, index(x, y, z)); }
 
-    /** Generate new mesh data on background thread. */
-    public ChunkMesher.MeshData generateMeshData(World world, TextureAtlas atlas) {
-        return ChunkMesher.meshDataFromChunk(world, this, atlas);
-    }
+    // --- heightmaps; column index = x + z * SIZE ---
+
+    /** Local y of the highest solid block in column (x, z), or -1 if there is none. */
+    public int getSolidTop(int x, int z) { return solidTop[x + z * SIZE] - 1; }
 
-    /** Apply new GPU data on main thread once async meshing completes. */
-    public synchronized void applyMeshData(ChunkMesher.MeshData data, TextureAtlas atlas) {
-        if (data == null || data.indices == null || data.indices.length == 0) {
-            if (model != null) {
-                try { model.close(); } catch (Exception e) { e.printStackTrace(); }
-                model = null;
-                mesh = null;
+    /** Local y of the highest opaque block in column (x, z), or -1 if there is none. */
+    public int getOpaqueTop(int x, int z) { return opaqueTop[x + z * SIZE] - 1; }
+
+    /** Rebuild both heightmaps from the voxels (after generation or a bulk rewrite). */
+    void recomputeHeights(BlockTable table) {
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                scanColumn(x, z, table);
             }
-            return;
         }
+    }
 
-        if (mesh == null) {
-            mesh = new Mesh(data.positions, data.normals, data.texcoords, data.colors, data.indices);
-            model = new Model(mesh, atlas.getTexture());
-        } else {
-            mesh.update(data.positions, data.normals, data.texcoords, data.colors, data.indices);
+    /**
+     * Keep the heightmaps right after voxel (x, y, z) changed. Only scans when the top block of its column was
+     * removed. Returns true if either top moved.
+     */
+    boolean updateHeights(int x, int y, int z, BlockTable table) {
+        int i = x + z * SIZE;
+        int oldSolid = solidTop[i], oldOpaque = opaqueTop[i];
+        int id = voxels[index(x, y, z)];
+        if (y + 1 > oldSolid || y + 1 > oldOpaque) {
+            if (table.isSolid(id) && y + 1 > oldSolid) solidTop[i] = (byte) (y + 1);
+            if (table.isOpaque(id) && y + 1 > oldOpaque) opaqueTop[i] = (byte) (y + 1);
         }
+        if ((y + 1 == oldSolid && !table.isSolid(id)) || (y + 1 == oldOpaque && !table.isOpaque(id))) {
+            scanColumn(x, z, table);
+        }
+        return solidTop[i] != oldSolid || opaqueTop[i] != oldOpaque;
     }
 
-    public synchronized Model getCachedModel() { return model; }
-    public synchronized Mesh getMesh() { return mesh; }
-
-    @Override
-    public synchronized void close() {
-        if (model != null) {
-            try { model.close(); } catch (Exception e) { e.printStackTrace(); }
-            model = null;
-            mesh = null;
+    /** Recompute the tops of column (x, z), from the top down. */
+    private void scanColumn(int x, int z, BlockTable table) {
+        int i = x + z * SIZE;
+        int solid = 0, opaque = 0;
+        for (int y = SIZE - 1; y >= 0 && (solid == 0 || opaque == 0); y--) {
+            int id = voxels[index(x, y, z)];
+            if (solid == 0 && table.isSolid(id)) solid = y + 1;
+            if (opaque == 0 && table.isOpaque(id)) opaque = y + 1;
         }
+        solidTop[i] = (byte) solid;
+        opaqueTop[i] = (byte) opaque;
+    }
+
+    /** Heightmaps as stored in saves: SIZE^2 solid tops then SIZE^2 opaque tops, each local y + 1 (0 = none). */
+    byte[] copyHeights() {
+        byte[] out = new byte[2 * SIZE * SIZE];
+        System.arraycopy(solidTop, 0, out, 0, SIZE * SIZE);
+        System.arraycopy(opaqueTop, 0, out, SIZE * SIZE, SIZE * SIZE);
+        return out;
+    }
+
+    /** Restore heightmaps saved by {@link #copyHeights}. */
+    void loadHeights(byte[] heights) {
+        System.arraycopy(heights, 0, solidTop, 0, SIZE * SIZE);
+        System.arraycopy(heights, SIZE * SIZE, opaqueTop, 0, SIZE * SIZE);
+    }
+
+    /** Both channels at a voxel index, packed as {@code sky << 4 | block}. */
+    public int getPackedLight(int index) {
+        return nibble(skyLight, index) << 4 | nibble(blockLight, index);
     }
+
+    /** Channel 0 = sky, 1 = block. */
+    int getLight(int channel, int index) {
+        return nibble(channel == 0 ? skyLight : blockLight, index);
+    }
+
+    /** Zero both channels, e.g. before relighting a chunk that is loaded again. */
+    void clearLight() {
+        Arrays.fill(skyLight, (byte) 0);
+        Arrays.fill(blockLight, (byte) 0);
+    }
+
+    void setLight(int channel, int index, int level) {
+        byte[] a = channel == 0 ? skyLight : blockLight;
+        int i = index >> 1;
+        a[i] = (byte) ((index & 1) == 0 ? (a[i] & 0xF0) | level : (a[i] & 0x0F) | (level << 4));
+    }
+
+    private static int nibble(byte[] a, int index) {
+        int b = a[index >> 1];
+        return (index & 1) == 0 ? b & 0x0F : (b >> 4) & 0x0F;
+    }
+
+    // --- versioning ---
+
+    /**
+     * Bumped after a change to voxels or light is complete, before listeners hear about it, so anything that read
+     * the version first and the data after it is stale exactly when the version has moved on.
+     */
+    public long getVersion() { return version.get(); }
+
+    void markChanged() { version.incrementAndGet(); }
+
+    /** Id of the load this instance is part of, or 0 once it was unloaded (or before it was loaded). */
+    public long getLoadToken() { return loadToken; }
+
+    void setLoadToken(long token) { loadToken = token; }
+
+    public int getCX() { return cx; }
+    public int getCY() { return cy; }
+    public int getCZ() { return cz; }
 }
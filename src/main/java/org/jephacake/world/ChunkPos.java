@@ -0,0 +1,24 @@
+package org.jephacake.world;
+
+/**
+ * Packs chunk coordinates into a single long (21 bits per axis, two's complement), e.g. for map keys
+ * and wire formats. Covers chunk coords in [-2^20, 2^20).
+ */
+public final class ChunkPos {
+    private static final int BITS = 21;
+    private static final long MASK = (1L << BITS) - 1;
+
+    private ChunkPos() {}
+
+    public static long pack(int cx, int cy, int cz) {
+        return ((cx & MASK) << (2 * BITS)) | ((cy & MASK) << BITS) | (cz & MASK);
+    }
+
+    public static int x(long packed) { return signExtend(packed >>> (2 * BITS)); }
+    public static int y(long packed) { return signExtend(packed >>> BITS); }
+    public static int z(long packed) { return signExtend(packed); }
+
+    private static int signExtend(long v) {
+        return (int) ((v & MASK) << (64 - BITS) >> (64 - BITS));
+    }
+}
@@ -0,0 +1,81 @@
+package org.jephacake.world;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Surface heights of one chunk column (all loaded chunks sharing cx, cz): per (x, z) the world y of the highest
+ * solid and the highest opaque block, combined from the chunks' own heightmaps. Queries are array reads; a value
+ * is only rescanned (top chunk down, stopping at the first chunk that has one) when the block or chunk holding it
+ * goes away. Guarded by its own monitor.
+ */
+final class ColumnHeights {
+    private static final int AREA = Chunk.SIZE * Chunk.SIZE;
+
+    private final TreeMap<Integer, Chunk> chunks = new TreeMap<>(); // loaded chunks of the column by cy
+    private final int[] solid = new int[AREA];  // [x + z * SIZE], world y or World.NO_HEIGHT
+    private final int[] opaque = new int[AREA];
+
+    ColumnHeights() {
+        Arrays.fill(solid, World.NO_HEIGHT);
+        Arrays.fill(opaque, World.NO_HEIGHT);
+    }
+
+    synchronized void add(Chunk c) {
+        chunks.put(c.getCY(), c);
+        for (int i = 0; i < AREA; i++) raise(c, i);
+    }
+
+    /** Drop {@code c} (if it is the chunk held at its cy); returns true when the column has no chunks left. */
+    synchronized boolean remove(Chunk c) {
+        if (chunks.remove(c.getCY(), c)) {
+            for (int i = 0; i < AREA; i++) {
+                if (inChunk(solid[i], c) || inChunk(opaque[i], c)) rescan(i);
+            }
+        }
+        return chunks.isEmpty();
+    }
+
+    /** Column (x, z) of {@code c} changed (its heightmap is already updated). */
+    synchronized void update(Chunk c, int x, int z) {
+        if (chunks.get(c.getCY()) != c) return;
+        int i = x + z * Chunk.SIZE;
+        if (inChunk(solid[i], c) || inChunk(opaque[i], c)) rescan(i); // may have gone down
+        else raise(c, i);
+    }
+
+    /** Every column of {@code c} may have changed (bulk rewrite). */
+    synchronized void updateAll(Chunk c) {
+        if (chunks.get(c.getCY()) != c) return;
+        for (int i = 0; i < AREA; i++) {
+            if (inChunk(solid[i], c) || inChunk(opaque[i], c)) rescan(i);
+            else raise(c, i);
+        }
+    }
+
+    synchronized int solidTop(int x, int z) { return solid[x + z * Chunk.SIZE]; }
+    synchronized int opaqueTop(int x, int z) { return opaque[x + z * Chunk.SIZE]; }
+
+    private void raise(Chunk c, int i) {
+        int x = i % Chunk.SIZE, z = i / Chunk.SIZE, base = c.getCY() * Chunk.SIZE;
+        int s = c.getSolidTop(x, z), o = c.getOpaqueTop(x, z);
+        if (s >= 0 && base + s > solid[i]) solid[i] = base + s;
+        if (o >= 0 && base + o > opaque[i]) opaque[i] = base + o;
+    }
+
+    private void rescan(int i) {
+        int x = i % Chunk.SIZE, z = i / Chunk.SIZE;
+        solid[i] = World.NO_HEIGHT;
+        opaque[i] = World.NO_HEIGHT;
+        for (Chunk c : chunks.descendingMap().values()) {
+            int base = c.getCY() * Chunk.SIZE;
+            if (solid[i] == World.NO_HEIGHT && c.getSolidTop(x, z) >= 0) solid[i] = base + c.getSolidTop(x, z);
+            if (opaque[i] == World.NO_HEIGHT && c.getOpaqueTop(x, z) >= 0) opaque[i] = base + c.getOpaqueTop(x, z);
+            if (solid[i] != World.NO_HEIGHT && opaque[i] != World.NO_HEIGHT) break;
+        }
+    }
+
+    private static boolean inChunk(int worldY, Chunk c) {
+        return worldY != World.NO_HEIGHT && Math.floorDiv(worldY, Chunk.SIZE) == c.getCY();
+    }
+}
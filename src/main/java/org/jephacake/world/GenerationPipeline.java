@@ -0,0 +1,213 @@
+package org.jephacake.world;
+
+import org.jephacake.jobs.Job;
+import org.jephacake.jobs.JobSystem;
+import org.jephacake.metrics.EngineMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link StagedGenerator} chunk by chunk, keeping chunks that are part way through generation ("proto
+ * chunks") and per-column data until their neighbours are done with them.
+ *
+ * Density, surface and carving run per chunk, one after another. Decoration reads the carved state of the 26
+ * neighbours, so it needs all of them carved first; it writes into a copy, leaving the carved data untouched for
+ * the neighbours that read it concurrently. A proto chunk is dropped once it and all its neighbours have been
+ * decorated. Ones at the edge of the loaded area never get there and are dropped by {@link #retain} as the viewer
+ * moves away; if one is needed again later, its stages simply run again.
+ *
+ * As a {@link WorldGenerator}, {@link #generateChunk} runs whatever stages are missing on the calling thread. A
+ * {@link World} with a job system calls {@link #prepare} first, which schedules the missing stages of the whole
+ * neighbourhood as jobs ({@code gen_density}, {@code gen_surface} and {@code gen_carving} queues). These jobs run in
+ * parallel across chunks, and the World's generate job that depends on them then only decorates. Lighting, the
+ * last stage, is the World's own light job.
+ *
+ * One pipeline per world.
+ */
+public final class GenerationPipeline<C> implements WorldGenerator {
+    private static final String[] QUEUES = { "gen_density", "gen_surface", "gen_carving" };
+    private static final int CARVED = GenerationStage.CARVING.ordinal();
+
+    private final StagedGenerator<C> stages;
+    private final Map<Long, Proto> protos = new ConcurrentHashMap<>(); // keyed by ChunkPos.pack
+    private final Map<Long, C> columns = new ConcurrentHashMap<>();    // keyed by ChunkPos.pack(cx, 0, cz)
+
+    /** A chunk in generation. Its chunk is only written by stages up to carving and never after. */
+    private static final class Proto {
+        final Chunk chunk;
+        volatile int stage = -1; // last finished stage (ordinal)
+        final Job[] jobs = new Job[CARVED + 1]; // guarded by the pipeline
+        final AtomicInteger neighboursDecorated = new AtomicInteger();
+        volatile boolean decorated;
+
+        Proto(int cx, int cy, int cz) {
+            chunk = new Chunk(cx, cy, cz);
+        }
+    }
+
+    public GenerationPipeline(StagedGenerator<C> stages) {
+        this.stages = stages;
+    }
+
+    public StagedGenerator<C> getStages() {
+        return stages;
+    }
+
+    /** Generate the chunk, running its neighbourhood's missing stages on this thread. */
+    @Override
+    public Chunk generateChunk(int cx, int cy, int cz) {
+        Proto[] hood = neighbourhood(cx, cy, cz);
+        for (Proto p : hood) advance(p, CARVED); // no-ops once prepared jobs have run
+        Proto self = hood[13];
+
+        Chunk out = new Chunk(cx, cy, cz);
+        System.arraycopy(self.chunk.getVoxelData(), 0, out.getVoxelData(), 0, out.getVoxelData().length);
+        stages.decorate(out, column(cx, cz), new Region(hood));
+
+        boolean first;
+        synchronized (self) {
+            first = !self.decorated;
+            self.decorated = true;
+        }
+        if (first) {
+            for (Proto p : hood) {
+                if (p != self) p.neighboursDecorated.incrementAndGet();
+                release(p);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Schedule every stage up to carving that chunk (cx, cy, cz) and its neighbours still miss, and return the
+     * jobs {@link #generateChunk} should wait for (null entries for chunks already carved).
+     */
+    public synchronized Job[] prepare(int cx, int cy, int cz, JobSystem.Priority priority, JobSystem jobs) {
+        Proto[] hood = neighbourhood(cx, cy, cz);
+        Job[] carved = new Job[hood.length];
+        for (int i = 0; i < hood.length; i++) carved[i] = schedule(hood[i], CARVED, priority, jobs);
+        return carved;
+    }
+
+    private Job schedule(Proto p, int stage, JobSystem.Priority priority, JobSystem jobs) {
+        if (p.stage >= stage) return null;
+        Job job = p.jobs[stage];
+        if (job != null && !job.future().isCompletedExceptionally()) return job; // pending, running or just done
+        Job previous = stage > 0 ? schedule(p, stage - 1, priority, jobs) : null;
+        job = jobs.queue(QUEUES[stage]).newJob(priority, () -> run(p, stage));
+        p.jobs[stage] = job;
+        return job.schedule(previous);
+    }
+
+    /** Bring {@code p} up to {@code stage} on the calling thread. */
+    private void advance(Proto p, int stage) {
+        for (int s = 0; s <= stage; s++) run(p, s);
+    }
+
+    private void run(Proto p, int stage) {
+        if (p.stage >= stage) return;
+        synchronized (p) {
+            if (p.stage >= stage) return;
+            if (p.stage < stage - 1) throw new IllegalStateException("stage " + stage + " before " + (stage - 1));
+            Chunk c = p.chunk;
+            C column = column(c.getCX(), c.getCZ());
+            switch (GenerationStage.values()[stage]) {
+                case DENSITY -> stages.density(c, column);
+                case SURFACE -> stages.surface(c, column);
+                case CARVING -> stages.carve(c, column);
+                default -> throw new IllegalArgumentException("not a per-chunk stage: " + stage);
+            }
+            p.stage = stage;
+        }
+    }
+
+    /** The 27 proto chunks around (cx, cy, cz), x fastest, centre at index 13. */
+    private Proto[] neighbourhood(int cx, int cy, int cz) {
+        Proto[] hood = new Proto[27];
+        int i = 0;
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    hood[i++] = proto(cx + dx, cy + dy, cz + dz);
+                }
+            }
+        }
+        return hood;
+    }
+
+    private Proto proto(int cx, int cy, int cz) {
+        return protos.computeIfAbsent(ChunkPos.pack(cx, cy, cz), k -> {
+            EngineMetrics.GENERATION_PROTO_CHUNKS.inc();
+            return new Proto(cx, cy, cz);
+        });
+    }
+
+    private C column(int cx, int cz) {
+        return columns.computeIfAbsent(ChunkPos.pack(cx, 0, cz), k -> {
+            EngineMetrics.GENERATION_COLUMNS.inc();
+            return stages.column(cx, cz);
+        });
+    }
+
+    /** Drop {@code p} once nothing can need its carved data any more. */
+    private void release(Proto p) {
+        if (p.decorated && p.neighboursDecorated.get() >= 26) {
+            Chunk c = p.chunk;
+            if (protos.remove(ChunkPos.pack(c.getCX(), c.getCY(), c.getCZ()), p)) EngineMetrics.GENERATION_PROTO_CHUNKS.dec();
+        }
+    }
+
+    /**
+     * Forget proto chunks farther than {@code radius} chunks (Chebyshev) from chunk (cx, cy, cz) and columns farther
+     * than that horizontally; a negative radius forgets everything. Jobs already scheduled still finish.
+     */
+    public void retain(int cx, int cy, int cz, int radius) {
+        for (Map.Entry<Long, Proto> e : protos.entrySet()) {
+            long k = e.getKey();
+            if (radius < 0 || Math.abs(ChunkPos.x(k) - cx) > radius || Math.abs(ChunkPos.y(k) - cy) > radius
+                    || Math.abs(ChunkPos.z(k) - cz) > radius) {
+                if (protos.remove(k, e.getValue())) EngineMetrics.GENERATION_PROTO_CHUNKS.dec();
+            }
+        }
+        for (Map.Entry<Long, C> e : columns.entrySet()) {
+            long k = e.getKey();
+            if (radius < 0 || Math.abs(ChunkPos.x(k) - cx) > radius || Math.abs(ChunkPos.z(k) - cz) > radius) {
+                if (columns.remove(k, e.getValue())) EngineMetrics.GENERATION_COLUMNS.dec();
+            }
+        }
+    }
+
+    /** Proto chunks currently kept. */
+    public int getProtoCount() {
+        return protos.size();
+    }
+
+    private final class Region implements GenerationRegion<C> {
+        private final Proto[] hood;
+        private final int x0, y0, z0; // world coordinates of the neighbourhood's minimum corner
+
+        Region(Proto[] hood) {
+            this.hood = hood;
+            Chunk first = hood[0].chunk;
+            x0 = first.getCX() * Chunk.SIZE;
+            y0 = first.getCY() * Chunk.SIZE;
+            z0 = first.getCZ() * Chunk.SIZE;
+        }
+
+        @Override
+        public int getBlock(int wx, int wy, int wz) {
+            int x = wx - x0, y = wy - y0, z = wz - z0;
+            int span = 3 * Chunk.SIZE;
+            if (x < 0 || y < 0 || z < 0 || x >= span || y >= span || z >= span) return 0;
+            Chunk c = hood[x / Chunk.SIZE + 3 * (y / Chunk.SIZE) + 9 * (z / Chunk.SIZE)].chunk;
+            return c.getBlock(x % Chunk.SIZE, y % Chunk.SIZE, z % Chunk.SIZE);
+        }
+
+        @Override
+        public C getColumn(int cx, int cz) {
+            return column(cx, cz);
+        }
+    }
+}
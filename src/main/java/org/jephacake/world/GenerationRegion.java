@@ -0,0 +1,10 @@
+package org.jephacake.world;
+
+/** Read-only view a chunk's decoration gets of its carved 3x3x3 chunk neighbourhood. */
+public interface GenerationRegion<C> {
+    /** Block at world coordinates as carved (before any decoration), or 0 outside the neighbourhood. */
+    int getBlock(int wx, int wy, int wz);
+
+    /** Column data of chunk column (cx, cz). */
+    C getColumn(int cx, int cz);
+}
@@ -0,0 +1,19 @@
+package org.jephacake.world;
+
+/**
+ * The steps a generated chunk goes through, in order. The first three only touch the chunk itself (and the shared
+ * per-column data of its {@link StagedGenerator}); decoration reads the carved state of all 26 neighbours, so a chunk
+ * is decorated once its whole 3x3x3 neighbourhood has been carved. See {@link GenerationPipeline}.
+ */
+public enum GenerationStage {
+    /** Rock versus air. */
+    DENSITY,
+    /** Surface materials (grass, dirt) over the rock. */
+    SURFACE,
+    /** Caves cut out of the finished terrain. */
+    CARVING,
+    /** Features placed on the carved terrain that may cross chunk borders (boulders, veins, ...). */
+    DECORATION,
+    /** Sky and block light; done by the {@link World}'s {@link LightEngine} once the chunk is inserted. */
+    LIGHTING
+}
@@ -0,0 +1,406 @@
+package org.jephacake.world;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.configuration.Options;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+import org.jephacake.metrics.EngineMetrics;
+
+import java.util.*;
+
+/**
+ * Flood-fill sky and block light for one {@link World}, stored per chunk as nibbles (see {@link Chunk}).
+ *
+ * Light spreads breadth-first through transparent cells, losing one level per step, across chunk borders
+ * into any loaded chunk. Sky light additionally falls straight down at full strength (15). A chunk whose
+ * upper neighbour is not loaded is treated as open to the sky until that neighbour arrives.
+ *
+ * Edits are incremental: a changed cell seeds a removal pass (darkening exactly the cells that depended on it,
+ * and collecting the surviving light at its edge) followed by an add pass, so work is proportional to the
+ * affected volume, not the chunk. With a job queue set, passes run on worker threads in slices of at most
+ * {@link Options#LIGHT_NODES_PER_JOB} cells, continuing in follow-up jobs; without one they run inline.
+ *
+ * All light state is guarded by this object's monitor. Chunks whose light or geometry changed are reported
+ * through chunkChanged once the slice that touched them ends, outside the lock.
+ */
+public class LightEngine {
+    static final int SKY = 0, BLOCK = 1;
+    private static final int[][] DIRS = { {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1} };
+    private static final int DOWN = 3;
+
+    private final World world;
+    private final IntQueue[] addQueue = { new IntQueue(), new IntQueue() };
+    private final IntQueue[] removeQueue = { new IntQueue(), new IntQueue() };
+    private final Set<Chunk> dirty = new LinkedHashSet<>();
+    private JobQueue jobQueue;
+    private boolean jobScheduled;
+
+    // one-entry chunk cache for the BFS, which mostly stays inside one chunk
+    private Chunk cached;
+    private int cachedX = Integer.MIN_VALUE, cachedY, cachedZ;
+
+    LightEngine(World world) {
+        this.world = world;
+    }
+
+    /** Run passes as jobs on {@code jobs} ("light" queue), or inline when null. */
+    synchronized void setJobSystem(JobSystem jobs) {
+        this.jobQueue = jobs != null ? jobs.queue("light") : null;
+    }
+
+    // --- entry points ---
+
+    /**
+     * Light a chunk that just joined the world, pulling light in from (and pushing it out to) loaded neighbours.
+     * Runs on the calling thread (one bounded slice when jobs are enabled, continuing in jobs). {@code c} itself is
+     * not reported changed: the caller announces it with chunkLoaded right after.
+     */
+    void lightNewChunk(Chunk c) {
+        boolean inline;
+        synchronized (this) {
+            resetCache();
+            seedNewChunk(c);
+            inline = jobQueue == null;
+        }
+        if (step(inline ? Integer.MAX_VALUE : Options.LIGHT_NODES_PER_JOB, c)) run(JobSystem.Priority.NORMAL);
+    }
+
+    /** A single cell changed block; {@code geometryDirty} are chunks to remesh regardless of light. */
+    void blockChanged(int wx, int wy, int wz, Collection<Chunk> geometryDirty) {
+        synchronized (this) {
+            dirty.addAll(geometryDirty);
+            resetCache();
+            seedCellChanged(wx, wy, wz);
+        }
+        run(JobSystem.Priority.HIGH);
+    }
+
+    /** Bulk rewrite of {@code edited}: relight them completely. */
+    void chunksRewritten(Collection<Chunk> edited, Collection<Chunk> geometryDirty) {
+        synchronized (this) {
+            dirty.addAll(geometryDirty);
+            resetCache();
+            for (Chunk c : edited) seedRewrittenChunk(c);
+        }
+        run(JobSystem.Priority.HIGH);
+    }
+
+    // --- seeding (caller holds the lock) ---
+
+    private void seedNewChunk(Chunk c) {
+        int bx = c.getCX() * Chunk.SIZE, by = c.getCY() * Chunk.SIZE, bz = c.getCZ() * Chunk.SIZE;
+        int[] voxels = c.getVoxelData();
+        Chunk above = world.getChunk(c.getCX(), c.getCY() + 1, c.getCZ());
+        Chunk below = world.getChunk(c.getCX(), c.getCY() - 1, c.getCZ());
+
+        // sky columns: full strength falls until the first non-transparent cell
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                boolean open = above == null || above.getSkyLight(x, 0, z) == 15;
+                for (int y = Chunk.SIZE - 1; y >= 0 && open; y--) {
+                    int i = x + y * Chunk.SIZE + z * Chunk.SIZE * Chunk.SIZE;
+                    if (!isTransparent(voxels[i])) break;
+                    c.setLight(SKY, i, 15);
+                    addQueue[SKY].add(bx + x, by + y, bz + z, 0);
+                }
+            }
+        }
+
+        // emitters
+        for (int i = 0; i < voxels.length; i++) {
+            int e = emission(voxels[i]);
+            if (e > 0) {
+                c.setLight(BLOCK, i, e);
+                addQueue[BLOCK].add(bx + (i % Chunk.SIZE), by + (i / Chunk.SIZE) % Chunk.SIZE, bz + i / (Chunk.SIZE * Chunk.SIZE), 0);
+            }
+        }
+
+        // light already in neighbouring border cells spreads in
+        for (int[] d : DIRS) seedBorderFrom(c, d[0], d[1], d[2]);
+
+        // the chunk below assumed open sky while this one was missing; take that back where it is not
+        if (below != null) {
+            int top = Chunk.SIZE - 1;
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    if (below.getSkyLight(x, top, z) == 15 && c.getSkyLight(x, 0, z) < 15) {
+                        below.setLight(SKY, x + top * Chunk.SIZE + z * Chunk.SIZE * Chunk.SIZE, 0);
+                        removeQueue[SKY].add(bx + x, by - 1, bz + z, 15);
+                        markDirty(below, x, top, z);
+                    }
+                }
+            }
+        }
+        dirty.add(c);
+    }
+
+    /** Queue the cells of the neighbour at (dx,dy,dz) that touch {@code c} so their light floods into it. */
+    private void seedBorderFrom(Chunk c, int dx, int dy, int dz) {
+        Chunk n = world.getChunk(c.getCX() + dx, c.getCY() + dy, c.getCZ() + dz);
+        if (n == null) return;
+        int nbx = n.getCX() * Chunk.SIZE, nby = n.getCY() * Chunk.SIZE, nbz = n.getCZ() * Chunk.SIZE;
+        int last = Chunk.SIZE - 1;
+        for (int a = 0; a < Chunk.SIZE; a++) {
+            for (int b = 0; b < Chunk.SIZE; b++) {
+                int x, y, z;
+                if (dx != 0) { x = dx > 0 ? 0 : last; y = a; z = b; }
+                else if (dy != 0) { x = a; y = dy > 0 ? 0 : last; z = b; }
+                else { x = a; y = b; z = dz > 0 ? 0 : last; }
+                int i = x + y * Chunk.SIZE + z * Chunk.SIZE * Chunk.SIZE;
+                for (int ch = SKY; ch <= BLOCK; ch++) {
+                    if (n.getLight(ch, i) > 1) addQueue[ch].add(nbx + x, nby + y, nbz + z, 0);
+                }
+            }
+        }
+    }
+
+    private void seedCellChanged(int wx, int wy, int wz) {
+        Chunk c = chunkAt(wx, wy, wz);
+        if (c == null) return;
+        int i = localIndex(wx, wy, wz);
+        int id = c.getVoxelData()[i];
+
+        for (int ch = SKY; ch <= BLOCK; ch++) {
+            int old = c.getLight(ch, i);
+            if (old > 0) {
+                c.setLight(ch, i, 0);
+                removeQueue[ch].add(wx, wy, wz, old);
+            }
+            // neighbours re-flood the cell if it is now transparent (their removal pass re-adds as needed)
+            if (isTransparent(id)) {
+                for (int[] d : DIRS) {
+                    Chunk n = chunkAt(wx + d[0], wy + d[1], wz + d[2]);
+                    if (n != null && n.getLight(ch, localIndex(wx + d[0], wy + d[1], wz + d[2])) > 0) {
+                        addQueue[ch].add(wx + d[0], wy + d[1], wz + d[2], 0);
+                    }
+                }
+            }
+        }
+        int e = emission(id);
+        if (e > 0) {
+            c.setLight(BLOCK, i, e);
+            addQueue[BLOCK].add(wx, wy, wz, 0);
+        }
+        if (isTransparent(id) && Math.floorMod(wy, Chunk.SIZE) == Chunk.SIZE - 1 && chunkAt(wx, wy + 1, wz) == null) {
+            // top cell of a chunk whose upper neighbour is missing: open sky, as in seedNewChunk
+            c.setLight(SKY, i, 15);
+            addQueue[SKY].add(wx, wy, wz, 0);
+        }
+        markDirty(c, Math.floorMod(wx, Chunk.SIZE), Math.floorMod(wy, Chunk.SIZE), Math.floorMod(wz, Chunk.SIZE));
+    }
+
+    private void seedRewrittenChunk(Chunk c) {
+        int bx = c.getCX() * Chunk.SIZE, by = c.getCY() * Chunk.SIZE, bz = c.getCZ() * Chunk.SIZE;
+        int n = Chunk.SIZE * Chunk.SIZE * Chunk.SIZE;
+        for (int i = 0; i < n; i++) {
+            for (int ch = SKY; ch <= BLOCK; ch++) {
+                int old = c.getLight(ch, i);
+                if (old > 0) {
+                    c.setLight(ch, i, 0);
+                    removeQueue[ch].add(bx + (i % Chunk.SIZE), by + (i / Chunk.SIZE) % Chunk.SIZE, bz + i / (Chunk.SIZE * Chunk.SIZE), old);
+                }
+            }
+        }
+        seedNewChunk(c);
+    }
+
+    // --- propagation ---
+
+    /** Run queued passes inline, or make sure a job will. */
+    private void run(JobSystem.Priority priority) {
+        JobQueue q;
+        synchronized (this) {
+            q = jobQueue;
+            if (q != null) {
+                if (jobScheduled) return;
+                jobScheduled = true;
+            }
+        }
+        if (q == null) {
+            step(Integer.MAX_VALUE, null);
+        } else {
+            q.submit(priority, this::jobStep);
+        }
+    }
+
+    private void jobStep() {
+        synchronized (this) {
+            jobScheduled = false;
+        }
+        if (step(Options.LIGHT_NODES_PER_JOB, null)) run(JobSystem.Priority.NORMAL);
+    }
+
+    /** Process up to {@code budget} cells, then report dirty chunks (except {@code quiet}). Returns true if work remains. */
+    private boolean step(int budget, Chunk quiet) {
+        long t0 = System.nanoTime();
+        List<Chunk> changed;
+        boolean more;
+        synchronized (this) {
+            resetCache();
+            int processed = 0;
+            for (int ch = SKY; ch <= BLOCK; ch++) processed += drainRemovals(ch, budget - processed);
+            for (int ch = SKY; ch <= BLOCK; ch++) processed += drainAdds(ch, budget - processed);
+            more = !isIdle();
+            dirty.remove(quiet);
+            changed = new ArrayList<>(dirty);
+            dirty.clear();
+            EngineMetrics.LIGHT_NODES.add(processed);
+        }
+        EngineMetrics.LIGHT_STEP_TIME.recordSince(t0);
+        for (Chunk c : changed) {
+            if (world.getChunk(c.getCX(), c.getCY(), c.getCZ()) == c) world.notifyChanged(c);
+        }
+        return more;
+    }
+
+    private boolean isIdle() {
+        for (int ch = SKY; ch <= BLOCK; ch++) {
+            if (!addQueue[ch].isEmpty() || !removeQueue[ch].isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private int drainRemovals(int ch, int budget) {
+        IntQueue q = removeQueue[ch];
+        int n = 0;
+        while (n < budget && !q.isEmpty()) {
+            int x = q.x(), y = q.y(), z = q.z(), level = q.value();
+            q.pop();
+            n++;
+            for (int d = 0; d < DIRS.length; d++) {
+                int nx = x + DIRS[d][0], ny = y + DIRS[d][1], nz = z + DIRS[d][2];
+                Chunk c = chunkAt(nx, ny, nz);
+                if (c == null) continue;
+                int i = localIndex(nx, ny, nz);
+                int nl = c.getLight(ch, i);
+                if (nl == 0) continue;
+                boolean skyFall = ch == SKY && d == DOWN && level == 15 && nl == 15;
+                if (nl < level || skyFall) {
+                    c.setLight(ch, i, 0);
+                    q.add(nx, ny, nz, nl);
+                    markDirty(c, nx, ny, nz);
+                    int e = ch == BLOCK ? emission(c.getVoxelData()[i]) : 0;
+                    if (e > 0) {
+                        c.setLight(BLOCK, i, e);
+                        addQueue[BLOCK].add(nx, ny, nz, 0);
+                    }
+                } else {
+                    addQueue[ch].add(nx, ny, nz, 0); // independently lit: re-flood from here
+                }
+            }
+        }
+        return n;
+    }
+
+    private int drainAdds(int ch, int budget) {
+        if (!removeQueue[ch].isEmpty()) return 0; // removals must settle first
+        IntQueue q = addQueue[ch];
+        int n = 0;
+        while (n < budget && !q.isEmpty()) {
+            int x = q.x(), y = q.y(), z = q.z();
+            q.pop();
+            n++;
+            Chunk src = chunkAt(x, y, z);
+            if (src == null) continue;
+            int level = src.getLight(ch, localIndex(x, y, z));
+            if (level <= 1) continue;
+            for (int d = 0; d < DIRS.length; d++) {
+                int nx = x + DIRS[d][0], ny = y + DIRS[d][1], nz = z + DIRS[d][2];
+                Chunk c = chunkAt(nx, ny, nz);
+                if (c == null) continue;
+                int i = localIndex(nx, ny, nz);
+                if (!isTransparent(c.getVoxelData()[i])) continue;
+                int target = ch == SKY && d == DOWN && level == 15 ? 15 : level - 1;
+                if (c.getLight(ch, i) >= target) continue;
+                c.setLight(ch, i, target);
+                q.add(nx, ny, nz, 0);
+                markDirty(c, nx, ny, nz);
+            }
+        }
+        return n;
+    }
+
+    // --- helpers ---
+
+    /** Chunks load and unload between passes, so the cache only lives for one. */
+    private void resetCache() {
+        cached = null;
+        cachedX = Integer.MIN_VALUE;
+    }
+
+    private Chunk chunkAt(int wx, int wy, int wz) {
+        int cx = Math.floorDiv(wx, Chunk.SIZE), cy = Math.floorDiv(wy, Chunk.SIZE), cz = Math.floorDiv(wz, Chunk.SIZE);
+        if (cx != cachedX || cy != cachedY || cz != cachedZ) {
+            cached = world.getChunk(cx, cy, cz);
+            cachedX = cx;
+            cachedY = cy;
+            cachedZ = cz;
+        }
+        return cached;
+    }
+
+    private static int localIndex(int wx, int wy, int wz) {
+        return Math.floorMod(wx, Chunk.SIZE) + Math.floorMod(wy, Chunk.SIZE) * Chunk.SIZE
+                + Math.floorMod(wz, Chunk.SIZE) * Chunk.SIZE * Chunk.SIZE;
+    }
+
+    /** Mark {@code c} for remeshing, plus the neighbour whose faces a border cell lights. */
+    private void markDirty(Chunk c, int wx, int wy, int wz) {
+        dirty.add(c);
+        int lx = Math.floorMod(wx, Chunk.SIZE), ly = Math.floorMod(wy, Chunk.SIZE), lz = Math.floorMod(wz, Chunk.SIZE);
+        int last = Chunk.SIZE - 1;
+        if (lx == 0) addLoaded(c, -1, 0, 0);
+        if (lx == last) addLoaded(c, 1, 0, 0);
+        if (ly == 0) addLoaded(c, 0, -1, 0);
+        if (ly == last) addLoaded(c, 0, 1, 0);
+        if (lz == 0) addLoaded(c, 0, 0, -1);
+        if (lz == last) addLoaded(c, 0, 0, 1);
+    }
+
+    private void addLoaded(Chunk c, int dx, int dy, int dz) {
+        Chunk n = world.getChunk(c.getCX() + dx, c.getCY() + dy, c.getCZ() + dz);
+        if (n != null) dirty.add(n);
+    }
+
+    static boolean isTransparent(int blockId) {
+        return !BlockRegistry.table().isOpaque(blockId);
+    }
+
+    private static int emission(int blockId) {
+        return BlockRegistry.table().lightEmission(blockId);
+    }
+
+    /** Growable FIFO of (x, y, z, value) int quadruples. */
+    private static final class IntQueue {
+        private int[] data = new int[4 * 1024];
+        private int head, tail; // in ints
+
+        void add(int x, int y, int z, int value) {
+            if (tail + 4 > data.length) {
+                if (head > data.length / 2) {
+                    System.arraycopy(data, head, data, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+            }
+            data[tail] = x;
+            data[tail + 1] = y;
+            data[tail + 2] = z;
+            data[tail + 3] = value;
+            tail += 4;
+        }
+
+        boolean isEmpty() { return head == tail; }
+        int x() { return data[head]; }
+        int y() { return data[head + 1]; }
+        int z() { return data[head + 2]; }
+        int value() { return data[head + 3]; }
+
+        void pop() {
+            head += 4;
+            if (head == tail) head = tail = 0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.jephacake.world;
+
+import org.jephacake.block.BlockFace;
+
+/**
+ * Result of a {@link World#raycast} call. Mutable so callers casting every frame (or thousands of sight lines a
+ * tick) can reuse one instance per ray; fields are only meaningful while {@link #hit} is true.
+ */
+public final class RaycastHit {
+    public boolean hit;
+    /** World block coordinates of the hit block. */
+    public int x, y, z;
+    public int blockId;
+    /** Face the ray entered through (place a block against it at x/y/z + its normal); null if the ray started inside. */
+    public BlockFace face;
+    /** Distance from the origin along the ray, in blocks. */
+    public float distance;
+
+    /** The cell in front of the hit face, i.e. where a block placed against it would go. */
+    public int adjacentX() { return x + (face == BlockFace.WEST ? -1 : face == BlockFace.EAST ? 1 : 0); }
+    public int adjacentY() { return y + (face == BlockFace.BOTTOM ? -1 : face == BlockFace.TOP ? 1 : 0); }
+    public int adjacentZ() { return z + (face == BlockFace.NORTH ? -1 : face == BlockFace.SOUTH ? 1 : 0); }
+}
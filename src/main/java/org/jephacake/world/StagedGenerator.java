@@ -0,0 +1,31 @@
+package org.jephacake.world;
+
+/**
+ * A world generator split into {@link GenerationStage}s, run by a {@link GenerationPipeline}. Every method must be a
+ * pure function of the seed, the position and its inputs: stages run on worker threads in any order across chunks,
+ * and a chunk's early stages may be repeated when it is needed again after being dropped.
+ *
+ * @param <C> per-column data (heightmaps, biomes, ...) computed once per chunk column and shared, read-only, by
+ *            every chunk of that column and by its neighbours' decoration
+ */
+public interface StagedGenerator<C> {
+    /** Data for chunk column (cx, cz). May be called concurrently; the result must not be modified afterwards. */
+    C column(int cx, int cz);
+
+    /** Fill the empty {@code chunk} with the base terrain. */
+    void density(Chunk chunk, C column);
+
+    /** Replace the top of the terrain with surface blocks. */
+    void surface(Chunk chunk, C column);
+
+    /** Carve caves and the like out of the chunk. */
+    void carve(Chunk chunk, C column);
+
+    /**
+     * Place features into {@code chunk}, which starts as a copy of its carved state. Only {@code chunk} may be
+     * written; a feature that crosses a border is placed by every chunk it reaches, each writing its own part, so
+     * features must be derived from their origin's position and from {@code region}, never from the chunk being
+     * decorated.
+     */
+    void decorate(Chunk chunk, C column, GenerationRegion<C> region);
+}
@@ -3,11 +3,29 @@ package org.jephacake.world;
 import java.util.Random;
 
 public class StressTester implements WorldGenerator {
-    private final Random random = new Random();
+    private final long seed;
+
+    public StressTester() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Seeded variant so benchmark and replay runs produce identical terrain. Each chunk draws from its own
+     * generator seeded by {@code seed} and its position, so the result does not depend on the order chunks are
+     * generated in (which varies between runs once generation runs on worker threads).
+     */
+    public StressTester(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
 
     @Override
     public Chunk generateChunk(int cx, int cy, int cz) {
         Chunk c = new Chunk(cx, cy, cz);
+        Random random = new Random(seed ^ ChunkPos.pack(cx, cy, cz) * 0x9E3779B97F4A7C15L);
 
         if(random.nextBoolean()) return c;
 
@@ -0,0 +1,171 @@
+package org.jephacake.world;
+
+import java.util.Random;
+
+/**
+ * Rolling hills from value noise, generated in {@link GenerationStage}s (wrap it in a {@link GenerationPipeline}):
+ * a stone heightmap, a grass and dirt surface, spaghetti caves where two noise isosurfaces cross, and as
+ * decoration stone boulders on the grass and dirt veins in the stone, which freely cross chunk borders.
+ *
+ * Every feature belongs to the chunk that holds its anchor block (a boulder's base, a vein's centre) and is derived
+ * from that chunk's seed and carved blocks only, so all chunks it reaches place identical parts of it. Boulders
+ * only fill carved air and veins only replace carved stone, so overlapping features come out the same whatever
+ * order a chunk applies them in.
+ */
+public class TerrainGenerator implements StagedGenerator<TerrainGenerator.Column> {
+    private static final int STONE = 2, DIRT = 3, GRASS = 4;
+    private static final int BASE_HEIGHT = 4, HEIGHT_RANGE = 28;
+    private static final long SALT_HEIGHT = 0x48454947L, SALT_CAVE_A = 0x43415641L, SALT_CAVE_B = 0x43415642L;
+
+    /** Surface height (world y of the top stone or grass block) per column, index {@code x + z * SIZE}. */
+    public record Column(int[] heights) {
+        public int height(int x, int z) { return heights[x + z * Chunk.SIZE]; }
+    }
+
+    private final long seed;
+
+    public TerrainGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public Column column(int cx, int cz) {
+        int[] heights = new int[Chunk.SIZE * Chunk.SIZE];
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int wx = cx * Chunk.SIZE + x, wz = cz * Chunk.SIZE + z;
+                double n = 0.6 * noise(wx / 64.0, 0, wz / 64.0, SALT_HEIGHT)
+                        + 0.3 * noise(wx / 24.0, 0, wz / 24.0, SALT_HEIGHT + 1)
+                        + 0.1 * noise(wx / 8.0, 0, wz / 8.0, SALT_HEIGHT + 2);
+                heights[x + z * Chunk.SIZE] = BASE_HEIGHT + (int) (n * HEIGHT_RANGE);
+            }
+        }
+        return new Column(heights);
+    }
+
+    @Override
+    public void density(Chunk chunk, Column column) {
+        int y0 = chunk.getCY() * Chunk.SIZE;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int top = Math.min(column.height(x, z) - y0, Chunk.SIZE - 1);
+                for (int y = 0; y <= top; y++) chunk.setBlock(x, y, z, STONE);
+            }
+        }
+    }
+
+    @Override
+    public void surface(Chunk chunk, Column column) {
+        int y0 = chunk.getCY() * Chunk.SIZE;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int h = column.height(x, z) - y0;
+                for (int y = Math.max(h - 3, 0); y <= Math.min(h, Chunk.SIZE - 1); y++) {
+                    chunk.setBlock(x, y, z, y == h ? GRASS : DIRT);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void carve(Chunk chunk, Column column) {
+        int x0 = chunk.getCX() * Chunk.SIZE, y0 = chunk.getCY() * Chunk.SIZE, z0 = chunk.getCZ() * Chunk.SIZE;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int roof = column.height(x, z) - 4 - y0; // keep the surface layer closed
+                for (int y = 0; y < Math.min(roof, Chunk.SIZE); y++) {
+                    double a = noise((x0 + x) / 24.0, (y0 + y) / 12.0, (z0 + z) / 24.0, SALT_CAVE_A);
+                    if (Math.abs(a - 0.5) > 0.04) continue;
+                    double b = noise((x0 + x) / 24.0, (y0 + y) / 12.0, (z0 + z) / 24.0, SALT_CAVE_B);
+                    if (Math.abs(b - 0.5) < 0.06) chunk.setBlock(x, y, z, 0);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void decorate(Chunk chunk, Column column, GenerationRegion<Column> region) {
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    decorateFrom(chunk, chunk.getCX() + dx, chunk.getCY() + dy, chunk.getCZ() + dz, region);
+                }
+            }
+        }
+    }
+
+    /** Write into {@code chunk} its part of the features anchored in chunk (ox, oy, oz). */
+    private void decorateFrom(Chunk chunk, int ox, int oy, int oz, GenerationRegion<Column> region) {
+        Random r = new Random(seed ^ ChunkPos.pack(ox, oy, oz) * 0x9E3779B97F4A7C15L);
+
+        // a boulder on the grass of this chunk's surface, anchored at the grass block
+        if (r.nextInt(3) == 0) {
+            int lx = r.nextInt(Chunk.SIZE), lz = r.nextInt(Chunk.SIZE), radius = 2 + r.nextInt(2);
+            int wx = ox * Chunk.SIZE + lx, wz = oz * Chunk.SIZE + lz;
+            int h = region.getColumn(ox, oz).height(lx, lz);
+            if (Math.floorDiv(h, Chunk.SIZE) == oy && region.getBlock(wx, h, wz) == GRASS) {
+                sphere(chunk, region, wx, h + 1, wz, radius, STONE, 0);
+            }
+        }
+        // dirt veins anywhere in the chunk, shown only where they cut through stone
+        for (int i = 0; i < 2; i++) {
+            int wx = ox * Chunk.SIZE + r.nextInt(Chunk.SIZE), wy = oy * Chunk.SIZE + r.nextInt(Chunk.SIZE);
+            int wz = oz * Chunk.SIZE + r.nextInt(Chunk.SIZE), radius = 2 + r.nextInt(2);
+            sphere(chunk, region, wx, wy, wz, radius, DIRT, STONE);
+        }
+    }
+
+    /** Set {@code block} in the part of the ball inside {@code chunk} wherever the carved block is {@code replace}. */
+    private static void sphere(Chunk chunk, GenerationRegion<Column> region, int cx, int cy, int cz,
+                               int radius, int block, int replace) {
+        int x0 = chunk.getCX() * Chunk.SIZE, y0 = chunk.getCY() * Chunk.SIZE, z0 = chunk.getCZ() * Chunk.SIZE;
+        int r2 = radius * radius + radius; // a bit rounder than a plain r^2 test
+        for (int wz = Math.max(cz - radius, z0); wz <= Math.min(cz + radius, z0 + Chunk.SIZE - 1); wz++) {
+            for (int wy = Math.max(cy - radius, y0); wy <= Math.min(cy + radius, y0 + Chunk.SIZE - 1); wy++) {
+                for (int wx = Math.max(cx - radius, x0); wx <= Math.min(cx + radius, x0 + Chunk.SIZE - 1); wx++) {
+                    int ddx = wx - cx, ddy = wy - cy, ddz = wz - cz;
+                    if (ddx * ddx + ddy * ddy + ddz * ddz > r2) continue;
+                    if (region.getBlock(wx, wy, wz) == replace) chunk.setBlock(wx - x0, wy - y0, wz - z0, block);
+                }
+            }
+        }
+    }
+
+    // --- value noise ---
+
+    /** Smoothly interpolated lattice noise in [0, 1). */
+    private double noise(double x, double y, double z, long salt) {
+        int xi = (int) Math.floor(x), yi = (int) Math.floor(y), zi = (int) Math.floor(z);
+        double fx = fade(x - xi), fy = fade(y - yi), fz = fade(z - zi);
+        double x00 = lerp(fx, lattice(xi, yi, zi, salt), lattice(xi + 1, yi, zi, salt));
+        double x10 = lerp(fx, lattice(xi, yi + 1, zi, salt), lattice(xi + 1, yi + 1, zi, salt));
+        double x01 = lerp(fx, lattice(xi, yi, zi + 1, salt), lattice(xi + 1, yi, zi + 1, salt));
+        double x11 = lerp(fx, lattice(xi, yi + 1, zi + 1, salt), lattice(xi + 1, yi + 1, zi + 1, salt));
+        return lerp(fz, lerp(fy, x00, x10), lerp(fy, x01, x11));
+    }
+
+    private double lattice(int x, int y, int z, long salt) {
+        long h = seed ^ salt * 0xD6E8FEB86659FD93L;
+        h ^= x * 0x9E3779B97F4A7C15L;
+        h ^= y * 0xC2B2AE3D27D4EB4FL;
+        h ^= z * 0x165667B19E3779F9L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    private static double fade(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+}
@@ -0,0 +1,73 @@
+package org.jephacake.world;
+
+import org.jephacake.jobs.Job;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A set of independent {@link World}s (planets, vehicles, ...) placed in one space by their {@code position}
+ * offsets. Every world shares one {@link JobSystem}: worlds update in parallel on it each tick, their chunk
+ * generation is scheduled on it, and renderers mesh on it, instead of every world bringing its own threads.
+ */
+public class Universe implements AutoCloseable {
+    private final List<World> worlds = new CopyOnWriteArrayList<>();
+    private final JobSystem jobs;
+    private final JobQueue updateQueue;
+
+    public Universe() {
+        this(JobSystem.shared());
+    }
+
+    public Universe(JobSystem jobs) {
+        this.jobs = jobs;
+        this.updateQueue = jobs.queue("world_update");
+    }
+
+    /** Adds the world and moves its chunk generation onto the shared job system. */
+    public World addWorld(World world) {
+        world.setJobSystem(jobs);
+        worlds.add(world);
+        return world;
+    }
+
+    /** Detach a world without closing it. */
+    public void removeWorld(World world) {
+        worlds.remove(world);
+    }
+
+    /** Live, thread-safe view. */
+    public List<World> getWorlds() {
+        return worlds;
+    }
+
+    public JobSystem getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Stream chunks of every world around an observer at universe coordinates (x, y, z),
+     * each world seeing the point relative to its own position. Worlds update in parallel.
+     */
+    public void update(float x, float y, float z) {
+        forEachParallel(w -> w.update(x - w.position.x, y - w.position.y, z - w.position.z));
+    }
+
+    /** Run {@code action} once per world as high-priority jobs and wait for all of them. */
+    public void forEachParallel(Consumer<World> action) {
+        List<Job> running = new ArrayList<>(worlds.size());
+        for (World w : worlds) running.add(updateQueue.submit(JobSystem.Priority.HIGH, () -> action.accept(w)));
+        for (Job job : running) job.awaitQuietly(); // failures are already logged by the job
+    }
+
+    /** Save and close every world. The job system is shared and stays up. */
+    @Override
+    public void close() {
+        for (World w : worlds) w.close();
+        worlds.clear();
+    }
+}
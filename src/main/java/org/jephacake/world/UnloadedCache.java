@@ -0,0 +1,108 @@
+package org.jephacake.world;
+
+import org.jephacake.metrics.Gauge;
+
+import java.util.*;
+
+/**
+ * Per-chunk values (chunk data, GPU meshes) kept for a while after their chunk unloads, so crossing back over the
+ * unload radius picks them up again instead of rebuilding them. Keys are {@link ChunkPos#pack} positions.
+ *
+ * Bounded by a byte budget: when an insert goes over it, entries are evicted farthest (Chebyshev distance in
+ * chunks from the given centre) first, the least recently inserted among equals. Evicted values are handed back
+ * to the caller, which releases them outside the lock. Thread-safe.
+ */
+public final class UnloadedCache<V> {
+    private record Entry<V>(V value, long bytes) {}
+
+    private final LinkedHashMap<Long, Entry<V>> entries = new LinkedHashMap<>(); // oldest insert first
+    private final Gauge bytesGauge; // may be null
+    private long budget;
+    private long bytes;
+
+    /** @param bytesGauge gauge adjusted by the bytes this cache holds (shared between caches), or null */
+    public UnloadedCache(long budgetBytes, Gauge bytesGauge) {
+        this.budget = Math.max(0, budgetBytes);
+        this.bytesGauge = bytesGauge;
+    }
+
+    /**
+     * Cache {@code value} (costing {@code size} bytes) at {@code key}, then evict until within budget.
+     *
+     * @return evicted values, possibly including {@code value} itself or one it replaced; empty when nothing was
+     */
+    public synchronized List<V> put(long key, V value, long size, int centerX, int centerY, int centerZ) {
+        List<V> evicted = new ArrayList<>(0);
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            adjust(-old.bytes);
+            evicted.add(old.value);
+        }
+        entries.put(key, new Entry<>(value, size));
+        adjust(size);
+        trim(centerX, centerY, centerZ, evicted);
+        return evicted;
+    }
+
+    public synchronized boolean contains(long key) {
+        return entries.containsKey(key);
+    }
+
+    /** Remove and return the value at {@code key}, or null. */
+    public synchronized V take(long key) {
+        Entry<V> e = entries.remove(key);
+        if (e == null) return null;
+        adjust(-e.bytes);
+        return e.value;
+    }
+
+    /** Change the budget; returns what no longer fits (see {@link #put}). */
+    public synchronized List<V> setBudget(long budgetBytes, int centerX, int centerY, int centerZ) {
+        budget = Math.max(0, budgetBytes);
+        List<V> evicted = new ArrayList<>(0);
+        trim(centerX, centerY, centerZ, evicted);
+        return evicted;
+    }
+
+    /** Remove everything, e.g. on close; returns the values for the caller to release. */
+    public synchronized List<V> drain() {
+        List<V> all = new ArrayList<>(entries.size());
+        for (Entry<V> e : entries.values()) all.add(e.value);
+        entries.clear();
+        adjust(-bytes);
+        return all;
+    }
+
+    /** Copy of the cached values by key, for callers that need to read without taking (e.g. saving). */
+    public synchronized Map<Long, V> snapshot() {
+        Map<Long, V> copy = new HashMap<>(entries.size() * 2);
+        for (Map.Entry<Long, Entry<V>> e : entries.entrySet()) copy.put(e.getKey(), e.getValue().value);
+        return copy;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getBytes() { return bytes; }
+    public synchronized long getBudget() { return budget; }
+
+    private void trim(int cx, int cy, int cz, List<V> evicted) {
+        while (bytes > budget && !entries.isEmpty()) {
+            long farthestKey = 0;
+            int farthest = -1;
+            for (long k : entries.keySet()) {
+                int d = Math.max(Math.abs(ChunkPos.x(k) - cx), Math.max(Math.abs(ChunkPos.y(k) - cy), Math.abs(ChunkPos.z(k) - cz)));
+                if (d > farthest) { // strict: the oldest of equally far entries wins
+                    farthest = d;
+                    farthestKey = k;
+                }
+            }
+            Entry<V> e = entries.remove(farthestKey);
+            adjust(-e.bytes);
+            evicted.add(e.value);
+        }
+    }
+
+    private void adjust(long delta) {
+        bytes += delta;
+        if (bytesGauge != null) bytesGauge.add(delta);
+    }
+}
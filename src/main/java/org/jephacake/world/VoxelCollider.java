@@ -0,0 +1,211 @@
+package org.jephacake.world;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.block.BlockTable;
+import org.joml.Vector3f;
+
+/**
+ * Swept AABB against the voxel grid of a {@link World}. Motion is resolved one axis at a time (Y, then X, then Z)
+ * by clipping it at the nearest solid cell layer the box would sweep into, so boxes slide along walls and never
+ * tunnel regardless of speed. Blocked horizontal motion can step up onto ledges no higher than the step height.
+ *
+ * Solidity comes from the {@link BlockTable}; cells in unloaded chunks are solid too, so nothing falls into terrain that hasn't
+ * arrived yet. Block reads go through a small chunk cache that is reset per {@link #move} call; a collider allocates
+ * nothing per query. Not thread-safe: use one per simulating thread (or per entity).
+ */
+public final class VoxelCollider {
+    /** Keeps boxes from snagging on cells they only touch along a face. */
+    private static final float EPSILON = 1e-4f;
+
+    private final World world;
+
+    // chunk cache, valid for one move() call
+    private Chunk cachedChunk;
+    private int cachedCX, cachedCY, cachedCZ;
+    private boolean cacheValid;
+
+    private BlockTable table;
+    private final Aabb stepBox = new Aabb();
+
+    /** Results of the last {@link #move} call. */
+    public boolean collidedX, collidedY, collidedZ, onGround;
+
+    public VoxelCollider(World world) {
+        this.world = world;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Move {@code box} (world-local block coordinates, in place) by {@code motion}. On return {@code motion} holds the distance
+     * actually travelled on each axis and the collided/onGround flags describe what stopped it.
+     *
+     * @param stepHeight highest ledge horizontal motion may climb; 0 disables stepping
+     */
+    public void move(Aabb box, Vector3f motion, float stepHeight) {
+        cacheValid = false;
+        table = BlockRegistry.table();
+        float wantX = motion.x, wantY = motion.y, wantZ = motion.z;
+
+        float dy = sweepY(box, wantY);
+        box.translate(0, dy, 0);
+        float dx = sweepX(box, wantX);
+        box.translate(dx, 0, 0);
+        float dz = sweepZ(box, wantZ);
+        box.translate(0, 0, dz);
+
+        boolean landed = wantY < 0 && dy != wantY;
+        boolean blockedSideways = dx != wantX || dz != wantZ;
+
+        if (stepHeight > 0 && blockedSideways && (landed || wantY == 0)) {
+            // retry from the start position: up by at most stepHeight, across, then back down onto the ledge
+            stepBox.set(box).translate(-dx, -dy, -dz);
+            float up = sweepY(stepBox, stepHeight);
+            stepBox.translate(0, up, 0);
+            float sx = sweepX(stepBox, wantX);
+            stepBox.translate(sx, 0, 0);
+            float sz = sweepZ(stepBox, wantZ);
+            stepBox.translate(0, 0, sz);
+            float drop = Math.min(wantY, 0) - up;
+            float down = sweepY(stepBox, drop);
+            stepBox.translate(0, down, 0);
+
+            if (sx * sx + sz * sz > dx * dx + dz * dz) {
+                box.set(stepBox);
+                dx = sx;
+                dy = up + down;
+                dz = sz;
+                landed = down != drop;
+            }
+        }
+
+        collidedX = dx != wantX;
+        collidedY = dy != wantY;
+        collidedZ = dz != wantZ;
+        onGround = landed;
+        motion.set(dx, dy, dz);
+        cachedChunk = null;
+    }
+
+    /** True if any cell overlapping {@code box} is solid. */
+    public boolean intersects(Aabb box) {
+        cacheValid = false;
+        table = BlockRegistry.table();
+        int x0 = lowCell(box.minX), x1 = highCell(box.maxX);
+        int y0 = lowCell(box.minY), y1 = highCell(box.maxY);
+        int z0 = lowCell(box.minZ), z1 = highCell(box.maxZ);
+        try {
+            for (int x = x0; x <= x1; x++) {
+                for (int y = y0; y <= y1; y++) {
+                    for (int z = z0; z <= z1; z++) {
+                        if (isSolid(x, y, z)) return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            cachedChunk = null;
+        }
+    }
+
+    // Each sweep walks the cell layers the leading face passes through, nearest first, and stops at the first
+    // layer with a solid cell in the box's cross-section.
+
+    private float sweepX(Aabb b, float d) {
+        if (d == 0) return 0;
+        int y0 = lowCell(b.minY), y1 = highCell(b.maxY), z0 = lowCell(b.minZ), z1 = highCell(b.maxZ);
+        if (d > 0) {
+            for (int x = highCell(b.maxX) + 1, end = highCell(b.maxX + d); x <= end; x++) {
+                if (layerSolidX(x, y0, y1, z0, z1)) return Math.max(0, Math.min(d, x - b.maxX));
+            }
+        } else {
+            for (int x = lowCell(b.minX) - 1, end = lowCell(b.minX + d); x >= end; x--) {
+                if (layerSolidX(x, y0, y1, z0, z1)) return Math.min(0, Math.max(d, x + 1 - b.minX));
+            }
+        }
+        return d;
+    }
+
+    private float sweepY(Aabb b, float d) {
+        if (d == 0) return 0;
+        int x0 = lowCell(b.minX), x1 = highCell(b.maxX), z0 = lowCell(b.minZ), z1 = highCell(b.maxZ);
+        if (d > 0) {
+            for (int y = highCell(b.maxY) + 1, end = highCell(b.maxY + d); y <= end; y++) {
+                if (layerSolidY(y, x0, x1, z0, z1)) return Math.max(0, Math.min(d, y - b.maxY));
+            }
+        } else {
+            for (int y = lowCell(b.minY) - 1, end = lowCell(b.minY + d); y >= end; y--) {
+                if (layerSolidY(y, x0, x1, z0, z1)) return Math.min(0, Math.max(d, y + 1 - b.minY));
+            }
+        }
+        return d;
+    }
+
+    private float sweepZ(Aabb b, float d) {
+        if (d == 0) return 0;
+        int x0 = lowCell(b.minX), x1 = highCell(b.maxX), y0 = lowCell(b.minY), y1 = highCell(b.maxY);
+        if (d > 0) {
+            for (int z = highCell(b.maxZ) + 1, end = highCell(b.maxZ + d); z <= end; z++) {
+                if (layerSolidZ(z, x0, x1, y0, y1)) return Math.max(0, Math.min(d, z - b.maxZ));
+            }
+        } else {
+            for (int z = lowCell(b.minZ) - 1, end = lowCell(b.minZ + d); z >= end; z--) {
+                if (layerSolidZ(z, x0, x1, y0, y1)) return Math.min(0, Math.max(d, z + 1 - b.minZ));
+            }
+        }
+        return d;
+    }
+
+    private boolean layerSolidX(int x, int y0, int y1, int z0, int z1) {
+        for (int y = y0; y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                if (isSolid(x, y, z)) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean layerSolidY(int y, int x0, int x1, int z0, int z1) {
+        for (int x = x0; x <= x1; x++) {
+            for (int z = z0; z <= z1; z++) {
+                if (isSolid(x, y, z)) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean layerSolidZ(int z, int x0, int x1, int y0, int y1) {
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                if (isSolid(x, y, z)) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Cell containing a box's min face (a face lying exactly on a cell boundary belongs to the upper cell). */
+    private static int lowCell(float min) {
+        return (int) Math.floor(min + EPSILON);
+    }
+
+    /** Cell containing a box's max face (a face lying exactly on a cell boundary belongs to the lower cell). */
+    private static int highCell(float max) {
+        return (int) Math.floor(max - EPSILON);
+    }
+
+    private boolean isSolid(int wx, int wy, int wz) {
+        int cx = wx >> 4, cy = wy >> 4, cz = wz >> 4; // Chunk.SIZE == 16
+        if (!cacheValid || cx != cachedCX || cy != cachedCY || cz != cachedCZ) {
+            cachedChunk = world.getChunk(cx, cy, cz);
+            cachedCX = cx;
+            cachedCY = cy;
+            cachedCZ = cz;
+            cacheValid = true;
+        }
+        Chunk c = cachedChunk;
+        if (c == null) return true;
+        return table.isSolid(c.getVoxelData()[(wx & 15) + (wy & 15) * Chunk.SIZE + (wz & 15) * Chunk.SIZE * Chunk.SIZE]);
+    }
+}
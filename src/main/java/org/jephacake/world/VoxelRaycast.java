@@ -0,0 +1,101 @@
+package org.jephacake.world;
+
+import org.jephacake.block.BlockFace;
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.block.BlockTable;
+
+/**
+ * Amanatides-Woo grid traversal: steps voxel to voxel along a ray, always crossing the nearest cell boundary next,
+ * so every cell the ray touches is visited exactly once. Block reads keep the current chunk and only look up a new
+ * one when the ray crosses a chunk boundary. One instance serves a whole batch of rays (the cache carries over,
+ * which helps when rays start near each other).
+ */
+final class VoxelRaycast {
+    private final World world;
+
+    private Chunk chunk;
+    private int chunkX, chunkY, chunkZ;
+    private boolean chunkValid;
+
+    VoxelRaycast(World world) {
+        this.world = world;
+    }
+
+    /** Cast from (ox,oy,oz) along (dx,dy,dz) (need not be normalized) up to maxDistance; fills {@code out}. */
+    boolean cast(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance, RaycastHit out) {
+        out.hit = false;
+        float len = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (len == 0) return false;
+        dx /= len;
+        dy /= len;
+        dz /= len;
+
+        int x = (int) Math.floor(ox), y = (int) Math.floor(oy), z = (int) Math.floor(oz);
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+
+        // ray distance between successive x/y/z boundaries, and to the first one
+        float deltaX = stepX == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dx);
+        float deltaY = stepY == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dy);
+        float deltaZ = stepZ == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dz);
+        float maxX = stepX == 0 ? Float.POSITIVE_INFINITY : (stepX > 0 ? x + 1 - ox : ox - x) * deltaX;
+        float maxY = stepY == 0 ? Float.POSITIVE_INFINITY : (stepY > 0 ? y + 1 - oy : oy - y) * deltaY;
+        float maxZ = stepZ == 0 ? Float.POSITIVE_INFINITY : (stepZ > 0 ? z + 1 - oz : oz - z) * deltaZ;
+
+        BlockTable table = BlockRegistry.table();
+        BlockFace face = null;
+        float t = 0;
+        while (t <= maxDistance) {
+            int id = blockAt(x, y, z);
+            if (table.isSolid(id)) {
+                out.hit = true;
+                out.x = x;
+                out.y = y;
+                out.z = z;
+                out.blockId = id;
+                out.face = face;
+                out.distance = t;
+                return true;
+            }
+            if (maxX < maxY && maxX < maxZ) {
+                x += stepX;
+                t = maxX;
+                maxX += deltaX;
+                face = stepX > 0 ? BlockFace.WEST : BlockFace.EAST;
+            } else if (maxY < maxZ) {
+                y += stepY;
+                t = maxY;
+                maxY += deltaY;
+                face = stepY > 0 ? BlockFace.BOTTOM : BlockFace.TOP;
+            } else {
+                z += stepZ;
+                t = maxZ;
+                maxZ += deltaZ;
+                face = stepZ > 0 ? BlockFace.NORTH : BlockFace.SOUTH;
+            }
+        }
+        return false;
+    }
+
+    /** Drop the cached chunk reference (call when done so an unloaded chunk isn't kept alive). */
+    void reset() {
+        chunk = null;
+        chunkValid = false;
+    }
+
+    /** Block id at a world cell; unloaded chunks read as air. */
+    private int blockAt(int wx, int wy, int wz) {
+        int cx = wx >> 4, cy = wy >> 4, cz = wz >> 4; // Chunk.SIZE == 16
+        if (!chunkValid || cx != chunkX || cy != chunkY || cz != chunkZ) {
+            chunk = world.getChunk(cx, cy, cz);
+            chunkX = cx;
+            chunkY = cy;
+            chunkZ = cz;
+            chunkValid = true;
+        }
+        Chunk c = chunk;
+        if (c == null) return 0;
+        return c.getVoxelData()[(wx & 15) + (wy & 15) * Chunk.SIZE + (wz & 15) * Chunk.SIZE * Chunk.SIZE];
+    }
+}
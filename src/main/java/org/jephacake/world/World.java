@@ -1,125 +1,314 @@
 package org.jephacake.world;
 
+import org.jephacake.block.BlockRegistry;
 import org.jephacake.configuration.Options;
-import org.jephacake.renderer.*;
+import org.jephacake.jobs.Job;
+import org.jephacake.jobs.JobQueue;
+import org.jephacake.jobs.JobSystem;
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.profiler.Profiler;
 import org.joml.Vector3f;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.*;
-
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulation side of a voxel world: chunk storage, generation, persistence and edits.
+ * Has no GL dependencies so it can run headless (see org.jephacake.server.DedicatedServer).
+ * Rendering attaches as a {@link WorldListener} (see org.jephacake.renderer.WorldRenderer).
+ *
+ * Without a {@link JobSystem} chunks are loaded or generated synchronously inside {@link #update}. Once one is
+ * set (a {@link Universe} does this), update only schedules generate -> light job pairs, nearest chunks first, and
+ * chunks appear (with a chunkLoaded callback on a worker thread) as the pairs finish. Light is kept by a
+ * {@link LightEngine}; edits relight incrementally before their chunks are reported changed. With a staged
+ * generator ({@link GenerationPipeline}) the generate job also waits for the earlier stages of the chunk and its
+ * neighbours, which are scheduled as jobs of their own.
+ *
+ * Chunks load within renderDistance but only unload beyond renderDistance + {@link Options#CHUNK_UNLOAD_MARGIN},
+ * so moving back and forth across the edge does not churn them. Unloaded chunks (voxels and light) then wait in an
+ * {@link UnloadedCache} bounded by {@link Options#CHUNK_CACHE_BYTES}; reloading one from there skips generation
+ * and save decoding. Chunks evicted from it fall back to the saved voxel data.
+ *
+ * Surface queries ({@link #getSolidHeight}, {@link #getOpaqueHeight}) are O(1): every chunk keeps per-column
+ * heightmaps, updated by setBlock, region edits and generation and saved with its voxels ({@link WorldSave}), and
+ * the loaded chunks of each chunk column are combined in a {@link ColumnHeights} index.
+ */
 public class World implements AutoCloseable {
+    /** Height returned for columns with no solid (or opaque) block in any loaded chunk. */
+    public static final int NO_HEIGHT = Integer.MIN_VALUE;
+
+    private static final int Z_UNLOAD = Profiler.zone("World.unload");
+    private static final int Z_LOAD = Profiler.zone("World.load");
+    private static final int Z_GENERATE = Profiler.zone("World.generateChunk");
 
-    private final Map<String, Chunk> chunks = new ConcurrentHashMap<>();
-    private final Map<String, int[]> savedChunkData = new ConcurrentHashMap<>();
-    private final TextureAtlas atlas;
+    private final Map<Long, Chunk> chunks = new ConcurrentHashMap<>(); // keyed by ChunkPos.pack
+    private final Map<Long, WorldSave.SavedChunk> savedChunkData = new ConcurrentHashMap<>(); // keyed by ChunkPos.pack
+    private final Map<Long, ColumnHeights> columns = new ConcurrentHashMap<>(); // keyed by ChunkPos.pack(cx, 0, cz)
     private final WorldGenerator generator;
+    private final GenerationPipeline<?> pipeline; // generator, when staged
     private final File saveFile;
     private final int renderDistance;
+    private final int unloadDistance;
+    private final UnloadedCache<Chunk> recentlyUnloaded = new UnloadedCache<>(Options.CHUNK_CACHE_BYTES, EngineMetrics.CHUNK_CACHE_BYTES);
+    private final List<WorldListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Long, Job> generating = new ConcurrentHashMap<>();
+    private final AtomicLong loadTokens = new AtomicLong(); // source of Chunk.loadToken, never hands out 0
+    private final LightEngine light = new LightEngine(this);
+    private final Object saveLock = new Object();
+    private JobSystem jobs;
+    private JobQueue generateQueue;
+    private JobQueue lightQueue;
+    private volatile int centerX, centerY, centerZ;
 
-    private final ChunkRenderer chunkRenderer = new ChunkRenderer();
     public Vector3f position;
 
-    // async meshing
-    private final ExecutorService meshingPool =
-            Executors.newFixedThreadPool(Math.max(2, 4));
-    private final ConcurrentLinkedQueue<MeshJobResult> completedMeshes = new ConcurrentLinkedQueue<>();
-
-    private record MeshJobResult(Chunk chunk, ChunkMesher.MeshData data) {}
-
-    public World(TextureAtlas atlas, WorldGenerator generator, File saveFile, int renderDistance) {
-        this(atlas, generator, saveFile, renderDistance, new Vector3f(0, 0, 0));
+    public World(WorldGenerator generator, File saveFile, int renderDistance) {
+        this(generator, saveFile, renderDistance, new Vector3f(0, 0, 0));
     }
 
-    public World(TextureAtlas atlas, WorldGenerator generator, File saveFile,
+    public World(WorldGenerator generator, File saveFile,
                  int renderDistance, Vector3f position) {
-        this.atlas = atlas;
         this.generator = generator;
+        this.pipeline = generator instanceof GenerationPipeline<?> p ? p : null;
         this.saveFile = saveFile;
         this.renderDistance = renderDistance;
+        this.unloadDistance = renderDistance + Math.max(0, Options.CHUNK_UNLOAD_MARGIN);
         this.position = position;
         loadFromDisk();
         System.out.println("World save file: " + saveFile.getAbsolutePath());
     }
 
-    private static String key(int cx, int cy, int cz) {
-        return cx + "," + cy + "," + cz;
-    }
+    public void addListener(WorldListener listener) { listeners.add(listener); }
+    public void removeListener(WorldListener listener) { listeners.remove(listener); }
 
     private void loadFromDisk() {
         if (!saveFile.exists()) return;
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(saveFile))) {
-            Object obj = in.readObject();
-            if (obj instanceof Map<?,?> m) {
-                for (var e : m.entrySet()) {
-                    savedChunkData.put((String) e.getKey(), (int[]) e.getValue());
-                }
-            }
+        try {
+            savedChunkData.putAll(WorldSave.read(saveFile));
         } catch (Exception e) { e.printStackTrace(); }
     }
 
-    private void saveToDisk() {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(saveFile))) {
-            out.writeObject(savedChunkData);
-        } catch (IOException e) { e.printStackTrace(); }
+    /** Switch update() to asynchronous generation on {@code jobs} (null = synchronous). */
+    public void setJobSystem(JobSystem jobs) {
+        this.jobs = jobs;
+        this.generateQueue = jobs != null ? jobs.queue("generate") : null;
+        this.lightQueue = jobs != null ? jobs.queue("light") : null;
+        light.setJobSystem(jobs);
     }
 
-    public Chunk loadOrGenerateChunk(int cx, int cy, int cz) {
-        String k = key(cx, cy, cz);
-        Chunk existing = chunks.get(k);
-        if (existing != null) return existing;
+    /** The last in-flight job (generation, then lighting) for a chunk, or null; lets meshing depend on it. */
+    public Job getPendingGeneration(int cx, int cy, int cz) {
+        return generating.get(ChunkPos.pack(cx, cy, cz));
+    }
 
-        int[] saved = savedChunkData.get(k);
-        Chunk c = new Chunk(cx, cy, cz);
+    /** Saved data for every chunk, with loaded chunks copied at their current state. */
+    private Map<Long, WorldSave.SavedChunk> snapshotForSave() {
+        Map<Long, WorldSave.SavedChunk> snapshot = new HashMap<>(savedChunkData);
+        for (Chunk c : recentlyUnloaded.snapshot().values()) snapshot.put(key(c), savedCopy(c));
+        for (Chunk c : chunks.values()) snapshot.put(key(c), savedCopy(c));
+        return snapshot;
+    }
 
-        if (saved != null) System.arraycopy(saved, 0, c.getVoxelData(), 0, saved.length);
-        else c = generator.generateChunk(cx, cy, cz);
+    private static long key(Chunk c) {
+        return ChunkPos.pack(c.getCX(), c.getCY(), c.getCZ());
+    }
 
-        chunks.put(k, c);
-        queueMeshBuild(c);
-        return c;
+    private static WorldSave.SavedChunk savedCopy(Chunk c) {
+        return new WorldSave.SavedChunk(c.getVoxelData().clone(), c.copyHeights());
     }
 
-    private void unloadChunk(int cx, int cy, int cz) {
-        String k = key(cx, cy, cz);
-        Chunk c = chunks.remove(k);
-        if (c != null) {
-            savedChunkData.put(k, c.getVoxelData().clone());
-            c.close();
-        }
+    /**
+     * Write the world without unloading anything. The chunk copy is taken on the calling thread; the disk write
+     * runs on the job system's "save" I/O queue (a virtual thread).
+     */
+    public Job saveAsync() {
+        Map<Long, WorldSave.SavedChunk> snapshot = snapshotForSave();
+        JobSystem js = jobs != null ? jobs : JobSystem.shared();
+        return js.ioQueue("save").submit(JobSystem.Priority.NORMAL, () -> writeSave(snapshot));
     }
 
-    private void queueMeshBuild(Chunk chunk) {
-        meshingPool.submit(() -> {
+    private void writeSave(Map<Long, WorldSave.SavedChunk> data) {
+        File dir = saveFile.getAbsoluteFile().getParentFile();
+        if (dir != null) dir.mkdirs();
+        synchronized (saveLock) {
+            // write beside the save and swap it in, so a crash mid-write never leaves a truncated world
+            File tmp = new File(saveFile.getPath() + ".tmp");
             try {
-                ChunkMesher.MeshData data = chunk.generateMeshData(this, atlas);
-                completedMeshes.add(new MeshJobResult(chunk, data));
-            } catch (Exception e) {
+                WorldSave.write(data, tmp);
+            } catch (IOException e) {
                 e.printStackTrace();
+                return;
             }
-        });
+            try {
+                Files.move(tmp.toPath(), saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
-    private void applyCompletedMeshes() {
-        int applied = 0;
-        MeshJobResult res;
+    public Chunk loadOrGenerateChunk(int cx, int cy, int cz) {
+        Chunk existing = chunks.get(ChunkPos.pack(cx, cy, cz));
+        if (existing != null) return existing;
 
-        // Process completed meshes gradually to avoid frame spikes
-        while (applied < Options.MAX_MESH_UPLOADS_PER_FRAME && (res = completedMeshes.poll()) != null) {
-            try {
-                Chunk chunk = res.chunk();
+        Chunk c = produceChunk(cx, cy, cz);
+        Chunk raced = insertChunk(c);
+        if (raced != null) return raced;
+        finishLoading(c);
+        return c;
+    }
+
+    /** Take a chunk back from the unload cache, restore it from saved data or generate it. Not yet part of the world. */
+    private Chunk produceChunk(int cx, int cy, int cz) {
+        Chunk recent = recentlyUnloaded.take(ChunkPos.pack(cx, cy, cz));
+        if (recent != null) {
+            recent.clearLight(); // neighbours may have changed meanwhile; lightNewChunk starts from dark
+            EngineMetrics.CHUNKS_LOADED_FROM_CACHE.inc();
+            return recent;
+        }
+        WorldSave.SavedChunk saved = savedChunkData.get(ChunkPos.pack(cx, cy, cz));
+        if (saved != null) {
+            Chunk c = new Chunk(cx, cy, cz);
+            System.arraycopy(saved.voxels(), 0, c.getVoxelData(), 0, saved.voxels().length);
+            if (saved.heights() != null) c.loadHeights(saved.heights());
+            else c.recomputeHeights(BlockRegistry.table()); // save from before heightmaps
+            EngineMetrics.CHUNKS_LOADED_FROM_SAVE.inc();
+            return c;
+        }
+        long t0 = System.nanoTime();
+        Profiler.begin(Z_GENERATE);
+        Chunk c;
+        try {
+            c = generator.generateChunk(cx, cy, cz);
+            c.recomputeHeights(BlockRegistry.table());
+        } finally {
+            Profiler.end(Z_GENERATE);
+        }
+        EngineMetrics.CHUNK_GENERATE_TIME.recordSince(t0);
+        EngineMetrics.CHUNKS_GENERATED.inc();
+        return c;
+    }
+
+    /** Add {@code c} to the loaded set; returns the chunk already there if another thread won the race. */
+    private Chunk insertChunk(Chunk c) {
+        c.setLoadToken(loadTokens.incrementAndGet()); // before it is visible, so a loaded chunk never reads as 0
+        Chunk raced = chunks.putIfAbsent(ChunkPos.pack(c.getCX(), c.getCY(), c.getCZ()), c);
+        if (raced == null) {
+            EngineMetrics.CHUNKS_LOADED.inc();
+            columns.compute(columnKey(c.getCX(), c.getCZ()), (k, col) -> { // atomic with removeFromColumn dropping it
+                if (col == null) col = new ColumnHeights();
+                col.add(c);
+                return col;
+            });
+        } else {
+            c.setLoadToken(0);
+        }
+        return raced;
+    }
 
-                if (!chunks.containsValue(chunk))
-                    continue;
+    private static long columnKey(int cx, int cz) {
+        return ChunkPos.pack(cx, 0, cz);
+    }
 
-                chunk.applyMeshData(res.data(), atlas);
-                applied++;
+    private void removeFromColumn(Chunk c) {
+        columns.computeIfPresent(columnKey(c.getCX(), c.getCZ()), (k, col) -> col.remove(c) ? null : col);
+    }
 
-            } catch (Exception e) {
-                System.err.println("[World] Failed to apply mesh data:");
-                e.printStackTrace();
+    // --- surface queries ---
+
+    /** World y of the highest solid block in column (wx, wz) among loaded chunks, or {@link #NO_HEIGHT}. O(1). */
+    public int getSolidHeight(int wx, int wz) {
+        ColumnHeights col = columns.get(columnKey(Math.floorDiv(wx, Chunk.SIZE), Math.floorDiv(wz, Chunk.SIZE)));
+        return col == null ? NO_HEIGHT : col.solidTop(Math.floorMod(wx, Chunk.SIZE), Math.floorMod(wz, Chunk.SIZE));
+    }
+
+    /** World y of the highest opaque block in column (wx, wz) among loaded chunks, or {@link #NO_HEIGHT}. O(1). */
+    public int getOpaqueHeight(int wx, int wz) {
+        ColumnHeights col = columns.get(columnKey(Math.floorDiv(wx, Chunk.SIZE), Math.floorDiv(wz, Chunk.SIZE)));
+        return col == null ? NO_HEIGHT : col.opaqueTop(Math.floorMod(wx, Chunk.SIZE), Math.floorMod(wz, Chunk.SIZE));
+    }
+
+    /**
+     * True if every column of the loaded chunk at (cx, cy, cz) has an opaque block above the chunk's top, i.e.
+     * nothing in it can see the sky (e.g. to skip it for sky-dependent work). O(SIZE^2).
+     */
+    public boolean isUnderground(int cx, int cy, int cz) {
+        ColumnHeights col = columns.get(columnKey(cx, cz));
+        if (col == null) return false;
+        int top = cy * Chunk.SIZE + Chunk.SIZE - 1;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int h = col.opaqueTop(x, z);
+                if (h == NO_HEIGHT || h <= top) return false;
             }
         }
+        return true;
+    }
+
+    /** Light a freshly inserted chunk, then announce it. */
+    private void finishLoading(Chunk c) {
+        light.lightNewChunk(c);
+        for (WorldListener l : listeners) l.chunkLoaded(c);
+    }
+
+    /** The loaded chunk at chunk coords, or null. Never loads or generates. */
+    public Chunk getChunk(int cx, int cy, int cz) {
+        return chunks.get(ChunkPos.pack(cx, cy, cz));
+    }
+
+    /** Live view of loaded chunks. */
+    public Collection<Chunk> getChunks() {
+        return chunks.values();
+    }
+
+    /** True while {@code chunk} is the instance held for its position (false once unloaded). Constant time. */
+    public boolean isLoaded(Chunk chunk) {
+        return chunk.getLoadToken() != 0;
+    }
+
+    private void unloadChunk(int cx, int cy, int cz) {
+        long k = ChunkPos.pack(cx, cy, cz);
+        Chunk c = chunks.remove(k);
+        if (c != null) {
+            c.setLoadToken(0);
+            removeFromColumn(c);
+            EngineMetrics.CHUNKS_LOADED.dec();
+            EngineMetrics.CHUNKS_UNLOADED.inc();
+            for (WorldListener l : listeners) l.chunkUnloaded(c);
+            for (Chunk evicted : recentlyUnloaded.put(k, c, Chunk.BYTES, centerX, centerY, centerZ)) save(evicted);
+        }
+    }
+
+    /** Keep the voxels and heightmaps of a chunk leaving memory; nothing else references its voxel array any more. */
+    private void save(Chunk c) {
+        savedChunkData.put(key(c), new WorldSave.SavedChunk(c.getVoxelData(), c.copyHeights()));
+    }
+
+    /** Resize the unloaded-chunk cache; chunks that no longer fit are moved to the saved data. */
+    public void setChunkCacheBudget(long bytes) {
+        for (Chunk evicted : recentlyUnloaded.setBudget(bytes, centerX, centerY, centerZ)) save(evicted);
+    }
+
+    /** The cache of recently unloaded chunks (read-only use: sizes and budget). */
+    public UnloadedCache<Chunk> getUnloadedCache() {
+        return recentlyUnloaded;
+    }
+
+    /**
+     * Light at a world cell packed as {@code sky << 4 | block} (used by mesher). Cells in unloaded chunks read as
+     * full sky light, matching the light engine's open-sky assumption.
+     */
+    public int getLightGlobal(int wx, int wy, int wz) {
+        Chunk c = chunks.get(ChunkPos.pack(Math.floorDiv(wx, Chunk.SIZE), Math.floorDiv(wy, Chunk.SIZE), Math.floorDiv(wz, Chunk.SIZE)));
+        if (c == null) return 15 << 4;
+        int lx = Math.floorMod(wx, Chunk.SIZE);
+        int ly = Math.floorMod(wy, Chunk.SIZE);
+        int lz = Math.floorMod(wz, Chunk.SIZE);
+        return c.getSkyLight(lx, ly, lz) << 4 | c.getBlockLight(lx, ly, lz);
     }
 
     /** Retrieve a block globally, across chunks (used by mesher). */
@@ -127,7 +316,7 @@ public class World implements AutoCloseable {
         int cx = Math.floorDiv(wx, Chunk.SIZE);
         int cy = Math.floorDiv(wy, Chunk.SIZE);
         int cz = Math.floorDiv(wz, Chunk.SIZE);
-        Chunk c = chunks.get(key(cx, cy, cz));
+        Chunk c = chunks.get(ChunkPos.pack(cx, cy, cz));
         if (c == null) return 0;
         int lx = Math.floorMod(wx, Chunk.SIZE);
         int ly = Math.floorMod(wy, Chunk.SIZE);
@@ -135,7 +324,37 @@ public class World implements AutoCloseable {
         return c.getBlock(lx, ly, lz);
     }
 
-    /** Sets a block and queues remeshing for this and neighbor chunks if edge touched. */
+    /**
+     * First solid ({@link org.jephacake.block.BlockTable#isSolid}) block along a ray from (ox,oy,oz) in direction (dx,dy,dz) within {@code maxDistance} blocks
+     * (world-local coordinates). Unloaded chunks are treated as air. Returns {@code out.hit}.
+     */
+    public boolean raycast(float ox, float oy, float oz, float dx, float dy, float dz,
+                           float maxDistance, RaycastHit out) {
+        VoxelRaycast ray = new VoxelRaycast(this);
+        boolean hit = ray.cast(ox, oy, oz, dx, dy, dz, maxDistance, out);
+        ray.reset();
+        return hit;
+    }
+
+    /**
+     * Cast {@code count} rays sharing one chunk cache (e.g. sight lines from nearby entities). Ray i is
+     * {@code rays[6i..6i+5]} = origin xyz, direction xyz; its result goes to {@code out[i]}.
+     *
+     * @return the number of rays that hit something
+     */
+    public int raycast(float[] rays, int count, float maxDistance, RaycastHit[] out) {
+        VoxelRaycast ray = new VoxelRaycast(this);
+        int hits = 0;
+        for (int i = 0, o = 0; i < count; i++, o += 6) {
+            if (ray.cast(rays[o], rays[o + 1], rays[o + 2], rays[o + 3], rays[o + 4], rays[o + 5], maxDistance, out[i])) {
+                hits++;
+            }
+        }
+        ray.reset();
+        return hits;
+    }
+
+    /** Sets a block and marks this and neighbor chunks changed if an edge is touched. */
     public void setBlock(int wx, int wy, int wz, int blockId) {
         int cx = Math.floorDiv(wx, Chunk.SIZE);
         int cy = Math.floorDiv(wy, Chunk.SIZE);
@@ -147,67 +366,257 @@ public class World implements AutoCloseable {
 
         Chunk c = loadOrGenerateChunk(cx, cy, cz);
         c.setBlock(lx, ly, lz, blockId);
-        queueMeshBuild(c);
+        if (c.updateHeights(lx, ly, lz, BlockRegistry.table())) {
+            ColumnHeights col = columns.get(columnKey(cx, cz));
+            if (col != null) col.update(c, lx, lz);
+        }
+        for (WorldListener l : listeners) l.blockChanged(wx, wy, wz, blockId);
+
+        // Neighbors need remeshing if this block touches a chunk boundary
+        List<Chunk> dirty = new ArrayList<>(4);
+        dirty.add(c);
+        if (lx == 0) addIfLoaded(dirty, cx - 1, cy, cz);
+        if (lx == Chunk.SIZE - 1) addIfLoaded(dirty, cx + 1, cy, cz);
+        if (ly == 0) addIfLoaded(dirty, cx, cy - 1, cz);
+        if (ly == Chunk.SIZE - 1) addIfLoaded(dirty, cx, cy + 1, cz);
+        if (lz == 0) addIfLoaded(dirty, cx, cy, cz - 1);
+        if (lz == Chunk.SIZE - 1) addIfLoaded(dirty, cx, cy, cz + 1);
+
+        // relight, then report every chunk whose geometry or light changed
+        light.blockChanged(wx, wy, wz, dirty);
+    }
 
-        // Regenerate neighbors if this block touches a chunk boundary
-        if (lx == 0) queueIfLoaded(cx - 1, cy, cz);
-        if (lx == Chunk.SIZE - 1) queueIfLoaded(cx + 1, cy, cz);
-        if (ly == 0) queueIfLoaded(cx, cy - 1, cz);
-        if (ly == Chunk.SIZE - 1) queueIfLoaded(cx, cy + 1, cz);
-        if (lz == 0) queueIfLoaded(cx, cy, cz - 1);
-        if (lz == Chunk.SIZE - 1) queueIfLoaded(cx, cy, cz + 1);
+    // --- bulk region edits ---
+
+    /** Applied to the part of a region that falls inside one chunk; bounds are chunk-local and inclusive. */
+    private interface RegionOp {
+        void apply(Chunk chunk, int lx0, int lx1, int ly0, int ly1, int lz0, int lz1);
+    }
+
+    /**
+     * Set every voxel in the inclusive box [x0..x1] x [y0..y1] x [z0..z1] (world coords, any corner order)
+     * to {@code blockId}. Works one chunk at a time with row fills; every touched chunk (and each loaded
+     * neighbour sharing an edited face) is reported changed exactly once.
+     */
+    public void fillRegion(int x0, int y0, int z0, int x1, int y1, int z1, int blockId) {
+        forEachChunkInRegion(Math.min(x0, x1), Math.min(y0, y1), Math.min(z0, z1),
+                Math.max(x0, x1), Math.max(y0, y1), Math.max(z0, z1), true,
+                (chunk, lx0, lx1, ly0, ly1, lz0, lz1) -> {
+                    int[] voxels = chunk.getVoxelData();
+                    for (int lz = lz0; lz <= lz1; lz++) {
+                        for (int ly = ly0; ly <= ly1; ly++) {
+                            int row = ly * Chunk.SIZE + lz * Chunk.SIZE * Chunk.SIZE;
+                            Arrays.fill(voxels, row + lx0, row + lx1 + 1, blockId);
+                        }
+                    }
+                });
     }
 
-    private void queueIfLoaded(int cx, int cy, int cz) {
-        Chunk neighbor = chunks.get(key(cx, cy, cz));
-        if (neighbor != null) queueMeshBuild(neighbor);
+    /**
+     * Copy the inclusive box [x0..x1] x [y0..y1] x [z0..z1] into a new {@link BlockRegion}.
+     * Chunks that are not loaded are loaded or generated, as with setBlock.
+     */
+    public BlockRegion copyRegion(int x0, int y0, int z0, int x1, int y1, int z1) {
+        int minX = Math.min(x0, x1), minY = Math.min(y0, y1), minZ = Math.min(z0, z1);
+        int maxX = Math.max(x0, x1), maxY = Math.max(y0, y1), maxZ = Math.max(z0, z1);
+        BlockRegion region = new BlockRegion(maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+        int[] dst = region.getData();
+        forEachChunkInRegion(minX, minY, minZ, maxX, maxY, maxZ, false,
+                (chunk, lx0, lx1, ly0, ly1, lz0, lz1) -> {
+                    int[] voxels = chunk.getVoxelData();
+                    int ox = chunk.getCX() * Chunk.SIZE - minX;
+                    int oy = chunk.getCY() * Chunk.SIZE - minY;
+                    int oz = chunk.getCZ() * Chunk.SIZE - minZ;
+                    for (int lz = lz0; lz <= lz1; lz++) {
+                        for (int ly = ly0; ly <= ly1; ly++) {
+                            System.arraycopy(voxels, lx0 + ly * Chunk.SIZE + lz * Chunk.SIZE * Chunk.SIZE,
+                                    dst, region.index(lx0 + ox, ly + oy, lz + oz), lx1 - lx0 + 1);
+                        }
+                    }
+                });
+        return region;
     }
 
-    public void updateAndRender(Renderer renderer, float camX, float camY, float camZ) {
-        int cx = (int) Math.floor(camX / Chunk.SIZE);
-        int cy = (int) Math.floor(camY / Chunk.SIZE);
-        int cz = (int) Math.floor(camZ / Chunk.SIZE);
+    /** Write {@code region} with its minimum corner at world coords (x, y, z). Same batching as fillRegion. */
+    public void pasteRegion(BlockRegion region, int x, int y, int z) {
+        int[] src = region.getData();
+        forEachChunkInRegion(x, y, z, x + region.getSizeX() - 1, y + region.getSizeY() - 1, z + region.getSizeZ() - 1, true,
+                (chunk, lx0, lx1, ly0, ly1, lz0, lz1) -> {
+                    int[] voxels = chunk.getVoxelData();
+                    int ox = chunk.getCX() * Chunk.SIZE - x;
+                    int oy = chunk.getCY() * Chunk.SIZE - y;
+                    int oz = chunk.getCZ() * Chunk.SIZE - z;
+                    for (int lz = lz0; lz <= lz1; lz++) {
+                        for (int ly = ly0; ly <= ly1; ly++) {
+                            System.arraycopy(src, region.index(lx0 + ox, ly + oy, lz + oz),
+                                    voxels, lx0 + ly * Chunk.SIZE + lz * Chunk.SIZE * Chunk.SIZE, lx1 - lx0 + 1);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Run {@code op} on the intersection of the (ordered, inclusive) world box with every chunk it covers.
+     * When {@code write} is set, listeners get one regionChanged per edited chunk, and (after relighting) one
+     * chunkChanged per edited chunk, per loaded neighbour whose shared face was touched and per chunk whose light changed.
+     */
+    private void forEachChunkInRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                      boolean write, RegionOp op) {
+        Set<Chunk> edited = write ? new LinkedHashSet<>() : null;
+        Set<Chunk> dirty = write ? new LinkedHashSet<>() : null;
+
+        for (int cz = Math.floorDiv(minZ, Chunk.SIZE); cz <= Math.floorDiv(maxZ, Chunk.SIZE); cz++) {
+            int lz0 = Math.max(minZ - cz * Chunk.SIZE, 0), lz1 = Math.min(maxZ - cz * Chunk.SIZE, Chunk.SIZE - 1);
+            for (int cy = Math.floorDiv(minY, Chunk.SIZE); cy <= Math.floorDiv(maxY, Chunk.SIZE); cy++) {
+                int ly0 = Math.max(minY - cy * Chunk.SIZE, 0), ly1 = Math.min(maxY - cy * Chunk.SIZE, Chunk.SIZE - 1);
+                for (int cx = Math.floorDiv(minX, Chunk.SIZE); cx <= Math.floorDiv(maxX, Chunk.SIZE); cx++) {
+                    int lx0 = Math.max(minX - cx * Chunk.SIZE, 0), lx1 = Math.min(maxX - cx * Chunk.SIZE, Chunk.SIZE - 1);
+
+                    Chunk c = loadOrGenerateChunk(cx, cy, cz);
+                    op.apply(c, lx0, lx1, ly0, ly1, lz0, lz1);
+                    if (!write) continue;
+
+                    edited.add(c);
+                    dirty.add(c);
+                    if (lx0 == 0) addIfLoaded(dirty, cx - 1, cy, cz);
+                    if (lx1 == Chunk.SIZE - 1) addIfLoaded(dirty, cx + 1, cy, cz);
+                    if (ly0 == 0) addIfLoaded(dirty, cx, cy - 1, cz);
+                    if (ly1 == Chunk.SIZE - 1) addIfLoaded(dirty, cx, cy + 1, cz);
+                    if (lz0 == 0) addIfLoaded(dirty, cx, cy, cz - 1);
+                    if (lz1 == Chunk.SIZE - 1) addIfLoaded(dirty, cx, cy, cz + 1);
+                }
+            }
+        }
+
+        if (!write) return;
+        for (Chunk c : edited) {
+            c.recomputeHeights(BlockRegistry.table());
+            ColumnHeights col = columns.get(columnKey(c.getCX(), c.getCZ()));
+            if (col != null) col.updateAll(c);
+        }
+        for (Chunk c : edited) {
+            for (WorldListener l : listeners) l.regionChanged(c);
+        }
+        light.chunksRewritten(edited, dirty);
+    }
+
+    private void addIfLoaded(Collection<Chunk> out, int cx, int cy, int cz) {
+        Chunk neighbor = chunks.get(ChunkPos.pack(cx, cy, cz));
+        if (neighbor != null) out.add(neighbor);
+    }
+
+    /** Called by the light engine once a chunk's light or geometry settled; bumps its version first. */
+    void notifyChanged(Chunk chunk) {
+        chunk.markChanged();
+        for (WorldListener l : listeners) l.chunkChanged(chunk);
+    }
+
+    /**
+     * Stream chunks around a point (world-local coordinates): unload those beyond the unload distance
+     * (renderDistance + margin), then load or generate everything within renderDistance (or schedule it, with a job
+     * system).
+     */
+    public void update(float x, float y, float z) {
+        int cx = (int) Math.floor(x / Chunk.SIZE);
+        int cy = (int) Math.floor(y / Chunk.SIZE);
+        int cz = (int) Math.floor(z / Chunk.SIZE);
+        centerX = cx;
+        centerY = cy;
+        centerZ = cz;
 
         // unload chunks out of range immediately
-        for (Iterator<Map.Entry<String, Chunk>> it = chunks.entrySet().iterator(); it.hasNext();) {
-            Chunk c = it.next().getValue();
+        Profiler.begin(Z_UNLOAD);
+        for (Chunk c : chunks.values()) { // unloadChunk removes it; the map's iterators tolerate that
             int dx = c.getCX() - cx;
             int dy = c.getCY() - cy;
             int dz = c.getCZ() - cz;
-            if (Math.abs(dx) > renderDistance || Math.abs(dy) > renderDistance || Math.abs(dz) > renderDistance) {
+            if (Math.abs(dx) > unloadDistance || Math.abs(dy) > unloadDistance || Math.abs(dz) > unloadDistance) {
                 unloadChunk(c.getCX(), c.getCY(), c.getCZ());
-                it.remove();
             }
         }
-
-        // load chunks in range (meshing async)
-        for (int x = cx - renderDistance; x <= cx + renderDistance; x++) {
-            for (int y = cy - renderDistance; y <= cy + renderDistance; y++) {
-                for (int z = cz - renderDistance; z <= cz + renderDistance; z++) {
-                    loadOrGenerateChunk(x, y, z);
+        Profiler.end(Z_UNLOAD);
+
+        // load chunks in range
+        Profiler.begin(Z_LOAD);
+        for (int lx = cx - renderDistance; lx <= cx + renderDistance; lx++) {
+            for (int ly = cy - renderDistance; ly <= cy + renderDistance; ly++) {
+                for (int lz = cz - renderDistance; lz <= cz + renderDistance; lz++) {
+                    if (generateQueue == null) loadOrGenerateChunk(lx, ly, lz);
+                    else scheduleGeneration(lx, ly, lz, Math.max(Math.abs(lx - cx), Math.max(Math.abs(ly - cy), Math.abs(lz - cz))));
                 }
             }
         }
+        Profiler.end(Z_LOAD);
 
-        // apply finished meshes
-        applyCompletedMeshes();
+        // chunks just outside render distance keep their generation stages for their neighbours' decoration
+        if (pipeline != null) pipeline.retain(cx, cy, cz, renderDistance + 1);
+    }
 
-        // render
-        chunkRenderer.renderChunks(chunks.values(), renderer, this);
+    private void scheduleGeneration(int cx, int cy, int cz, int distance) {
+        long k = ChunkPos.pack(cx, cy, cz);
+        if (chunks.containsKey(k) || generating.containsKey(k)) return;
+
+        JobSystem.Priority priority = distance <= 1 ? JobSystem.Priority.HIGH
+                : distance <= renderDistance / 2 ? JobSystem.Priority.NORMAL : JobSystem.Priority.LOW;
+        Chunk[] inserted = new Chunk[1]; // handed from the generate job to the light job
+        Job generate = generateQueue.newJob(priority, () -> {
+            if (!inRange(cx, cy, cz) || chunks.containsKey(k)) return; // the viewer moved on, or an edit loaded it
+            Chunk c = produceChunk(cx, cy, cz);
+            if (insertChunk(c) == null) inserted[0] = c;
+        });
+        Job lit = lightQueue.newJob(priority, () -> {
+            Chunk c = inserted[0];
+            if (c != null && chunks.get(k) == c) finishLoading(c); // skip if unloaded in between
+        });
+        generating.put(k, lit);
+        lit.future().whenComplete((v, t) -> generating.remove(k, lit));
+        lit.schedule(generate);
+        // produceChunk restores cached and saved chunks without generating; a cached one can only move to the saved data
+        if (pipeline != null && !recentlyUnloaded.contains(k) && !savedChunkData.containsKey(k)) {
+            generate.schedule(pipeline.prepare(cx, cy, cz, priority, jobs)); // carve the neighbourhood first
+        } else {
+            generate.schedule();
+        }
+    }
+
+    private boolean inRange(int cx, int cy, int cz) {
+        return Math.abs(cx - centerX) <= renderDistance
+                && Math.abs(cy - centerY) <= renderDistance
+                && Math.abs(cz - centerZ) <= renderDistance;
+    }
+
+    public int getRenderDistance() {
+        return renderDistance;
+    }
+
+    public File getSaveFile() {
+        return saveFile;
     }
 
+    public int getUnloadDistance() {
+        return unloadDistance;
+    }
+
+    /** Chunk coords of the last {@link #update} centre. */
+    public int getCenterX() { return centerX; }
+    public int getCenterY() { return centerY; }
+    public int getCenterZ() { return centerZ; }
+
     @Override
     public void close() {
-        meshingPool.shutdownNow();
+        for (Job job : generating.values()) job.cancel();
+        for (Job job : generating.values()) job.awaitQuietly();
+
         for (Chunk c : chunks.values()) {
-            savedChunkData.put(key(c.getCX(), c.getCY(), c.getCZ()), c.getVoxelData().clone());
-            c.close();
+            savedChunkData.put(key(c), savedCopy(c));
+            c.setLoadToken(0);
+            for (WorldListener l : listeners) l.chunkUnloaded(c);
         }
+        EngineMetrics.CHUNKS_LOADED.add(-chunks.size());
         chunks.clear();
-        saveToDisk();
-    }
-
-    public ChunkRenderer getChunkRenderer() {
-        return chunkRenderer;
+        columns.clear();
+        for (Chunk c : recentlyUnloaded.drain()) save(c);
+        if (pipeline != null) pipeline.retain(0, 0, 0, -1);
+        writeSave(savedChunkData);
     }
 }
@@ -2,4 +2,14 @@ package org.jephacake.world;
 
 public interface WorldGenerator {
     Chunk generateChunk(int cx, int cy, int cz);
+
+    /** Generator by name, as stored in options and replays: "terrain" (staged), "stress" or "flat". */
+    static WorldGenerator named(String name, long seed) {
+        return switch (name) {
+            case "terrain" -> new GenerationPipeline<>(new TerrainGenerator(seed));
+            case "stress" -> new StressTester(seed);
+            case "flat" -> new FlatWorldGenerator(8);
+            default -> throw new IllegalArgumentException("Unknown generator: " + name);
+        };
+    }
 }
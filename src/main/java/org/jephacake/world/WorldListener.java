@@ -0,0 +1,24 @@
+package org.jephacake.world;
+
+/**
+ * Observer of chunk lifecycle and edits. Callbacks run on whichever thread drove the World
+ * (the render thread on the client, tick workers on a server), so implementations that touch GL
+ * must hand work over to their own thread.
+ */
+public interface WorldListener {
+    default void chunkLoaded(Chunk chunk) {}
+
+    default void chunkUnloaded(Chunk chunk) {}
+
+    /** Voxels in or bordering {@code chunk} changed; anything derived from them (e.g. its mesh) is stale. */
+    default void chunkChanged(Chunk chunk) {}
+
+    /** A single voxel was set through {@link World#setBlock}; fired once, before the chunkChanged callbacks. */
+    default void blockChanged(int wx, int wy, int wz, int blockId) {}
+
+    /**
+     * Voxels of {@code chunk} were rewritten by a bulk edit (World.fillRegion / pasteRegion); fired once per
+     * edited chunk per batch, before the chunkChanged callbacks. No per-voxel blockChanged is sent for these.
+     */
+    default void regionChanged(Chunk chunk) {}
+}
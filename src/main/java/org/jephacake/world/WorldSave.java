@@ -0,0 +1,87 @@
+package org.jephacake.world;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The world save file: every saved chunk's voxels and heightmaps, keyed by {@link ChunkPos#pack}.
+ *
+ * Format version 2 (big-endian): int magic, int version, int count, then count x (long pos,
+ * {@code SIZE^3} int voxels, int heightsLength, heightsLength bytes of {@link Chunk#copyHeights} data).
+ * Version 1 saves (a serialized {@code Map<String "cx,cy,cz", int[]>}) are still read; their chunks come
+ * back without heightmaps, which are then rebuilt from the voxels on load.
+ */
+final class WorldSave {
+    private static final int MAGIC = 0x53475744; // "SGWD"
+    private static final int VERSION = 2;
+    private static final int VOXELS = Chunk.SIZE * Chunk.SIZE * Chunk.SIZE;
+
+    /** Saved state of one chunk; {@code heights} is null when it must be recomputed. */
+    record SavedChunk(int[] voxels, byte[] heights) {}
+
+    private WorldSave() {}
+
+    static Map<Long, SavedChunk> read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            in.mark(4);
+            if (in.readInt() != MAGIC) {
+                in.reset();
+                return readLegacy(in);
+            }
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("unsupported world save version " + version);
+            int count = in.readInt();
+            Map<Long, SavedChunk> chunks = new HashMap<>(count * 2);
+            byte[] raw = new byte[VOXELS * Integer.BYTES];
+            for (int i = 0; i < count; i++) {
+                long pos = in.readLong();
+                in.readFully(raw);
+                int[] voxels = new int[VOXELS];
+                ByteBuffer.wrap(raw).asIntBuffer().get(voxels);
+                byte[] heights = new byte[in.readInt()];
+                in.readFully(heights);
+                chunks.put(pos, new SavedChunk(voxels, heights.length == 2 * Chunk.SIZE * Chunk.SIZE ? heights : null));
+            }
+            return chunks;
+        }
+    }
+
+    private static Map<Long, SavedChunk> readLegacy(InputStream stream) throws IOException {
+        Map<Long, SavedChunk> chunks = new HashMap<>();
+        try {
+            Object obj = new ObjectInputStream(stream).readObject();
+            if (obj instanceof Map<?, ?> m) {
+                for (var e : m.entrySet()) {
+                    String[] c = ((String) e.getKey()).split(",");
+                    long pos = ChunkPos.pack(Integer.parseInt(c[0]), Integer.parseInt(c[1]), Integer.parseInt(c[2]));
+                    chunks.put(pos, new SavedChunk((int[]) e.getValue(), null));
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("unreadable legacy world save", e);
+        }
+        System.out.println("Read legacy world save (" + chunks.size() + " chunks); it is rewritten in the current format on save");
+        return chunks;
+    }
+
+    static void write(Map<Long, SavedChunk> chunks, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(chunks.size());
+            ByteBuffer raw = ByteBuffer.allocate(VOXELS * Integer.BYTES);
+            for (Map.Entry<Long, SavedChunk> e : chunks.entrySet()) {
+                SavedChunk c = e.getValue();
+                out.writeLong(e.getKey());
+                raw.clear();
+                raw.asIntBuffer().put(c.voxels());
+                out.write(raw.array());
+                byte[] heights = c.heights() != null ? c.heights() : new byte[0];
+                out.writeInt(heights.length);
+                out.write(heights);
+            }
+        }
+    }
+}
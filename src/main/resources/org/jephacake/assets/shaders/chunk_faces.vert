@@ -0,0 +1,49 @@
+#version 330 core
+// One instance per visible block face (ChunkMesher.FaceData), expanded into its quad from gl_VertexID (0..5).
+// Produces the same outputs per vertex as voxel.vert fed with ChunkMesher.MeshData, so it pairs with voxel.frag.
+layout(location = 0) in uvec2 aFace; // x | y<<4 | z<<8 | face<<12 | light<<15 | ao0..3<<19..25, tile | block<<16
+
+out vec2 vUV;
+out vec3 vNormal;
+out vec4 vLight;
+
+uniform mat4 uProjection;
+uniform mat4 uView;
+uniform mat4 uModel;
+uniform sampler2D uFaceTable; // row 0: tile UV rects, row 1: block tints, row 2: (light curve, AO curve) (see FaceTable)
+
+const vec3 NORMALS[6] = vec3[](
+    vec3(0, 0, -1), vec3(0, 0, 1), vec3(0, -1, 0), vec3(0, 1, 0), vec3(-1, 0, 0), vec3(1, 0, 0));
+
+// per face (BlockFace order) and corner: offset from the block's min corner, then 1 = u1 (else u0) | 2 = v1 (else v0)
+const ivec4 CORNERS[24] = ivec4[](
+    ivec4(1, 0, 0, 1), ivec4(0, 0, 0, 0), ivec4(0, 1, 0, 2), ivec4(1, 1, 0, 3),  // NORTH
+    ivec4(0, 0, 1, 0), ivec4(1, 0, 1, 1), ivec4(1, 1, 1, 3), ivec4(0, 1, 1, 2),  // SOUTH
+    ivec4(0, 0, 0, 0), ivec4(1, 0, 0, 1), ivec4(1, 0, 1, 3), ivec4(0, 0, 1, 2),  // BOTTOM
+    ivec4(0, 1, 1, 0), ivec4(1, 1, 1, 1), ivec4(1, 1, 0, 3), ivec4(0, 1, 0, 2),  // TOP
+    ivec4(0, 0, 0, 1), ivec4(0, 0, 1, 0), ivec4(0, 1, 1, 2), ivec4(0, 1, 0, 3),  // WEST
+    ivec4(1, 0, 1, 1), ivec4(1, 0, 0, 0), ivec4(1, 1, 0, 2), ivec4(1, 1, 1, 3)); // EAST
+
+// corners of the two triangles: split along the diagonal with the brighter ends, as ChunkMesher does
+const int TRIANGLES[12] = int[](0, 1, 2, 2, 3, 0, 1, 2, 3, 3, 0, 1);
+
+void main() {
+    uint w = aFace.x;
+    int face = int((w >> 12) & 7u);
+    int light = int((w >> 15) & 15u);
+    ivec4 ao = ivec4((w >> 19) & 3u, (w >> 21) & 3u, (w >> 23) & 3u, (w >> 25) & 3u);
+    int corner = TRIANGLES[(ao.x + ao.z < ao.y + ao.w ? 6 : 0) + gl_VertexID];
+    ivec4 c = CORNERS[face * 4 + corner];
+    vec3 pos = vec3(float(w & 15u), float((w >> 4) & 15u), float((w >> 8) & 15u)) + vec3(c.xyz);
+
+    int tile = int(aFace.y & 65535u);
+    int block = int(aFace.y >> 16);
+    vec4 rect = tile == 65535 ? vec4(0.0) : texelFetch(uFaceTable, ivec2(tile, 0), 0);
+    vec4 tint = texelFetch(uFaceTable, ivec2(block, 1), 0);
+    float brightness = texelFetch(uFaceTable, ivec2(light, 2), 0).r * texelFetch(uFaceTable, ivec2(ao[corner], 2), 0).g;
+
+    gl_Position = uProjection * uView * uModel * vec4(pos, 1.0);
+    vUV = vec2((c.w & 1) != 0 ? rect.z : rect.x, (c.w & 2) != 0 ? rect.w : rect.y);
+    vNormal = mat3(uModel) * NORMALS[face];
+    vLight = vec4(tint.rgb, tint.a * brightness);
+}
@@ -0,0 +1,11 @@
+#version 330 core
+in vec2 vUV;
+in vec4 vColor;
+
+out vec4 fragColor;
+
+uniform sampler2D uTexture; // font atlas: white RGB, coverage in alpha
+
+void main() {
+    fragColor = vColor * texture(uTexture, vUV);
+}
@@ -16,10 +16,10 @@ void main() {
     // per-vertex precomputed light RGB + alpha as intensity multiplier
     vec3 prelight = vLight.rgb * vLight.a;
 
-    // simple lambert directional light (optional)
+    // simple lambert directional light (optional), scaled by the baked light so caves stay dark
     vec3 n = normalize(vNormal);
     float lambert = max(dot(n, normalize(-uDirectionalLightDir)), 0.0);
-    vec3 dyn = uDirectionalLightColor * lambert * uUseDynamicLight;
+    vec3 dyn = uDirectionalLightColor * lambert * uUseDynamicLight * vLight.a;
 
     vec3 finalColor = tex.rgb * (prelight + dyn);
     float finalAlpha = tex.a;
@@ -0,0 +1,144 @@
+package org.jephacake.renderer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CPU mip generation on a synthetic atlas of two 4x4 tiles side by side (one row, 4 texels of padding, 3 levels).
+ * Tile 0 never has blue and tile 1 never has red, so any texel one tile takes from the other shows up as a
+ * colour channel that should be zero.
+ */
+class AtlasMipmapperTest {
+    private static final int TILE = 4, PAD = 4, COLS = 2, ROWS = 1, LEVELS = 3;
+    private static final int CELL = TILE + 2 * PAD, ATLAS_W = COLS * CELL, ATLAS_H = ROWS * CELL;
+
+    private ByteBuffer[] chain;
+
+    @BeforeEach
+    void buildChain() {
+        assertEquals(LEVELS, AtlasMipmapper.levelsFor(TILE, TILE));
+        chain = new ByteBuffer[LEVELS];
+        chain[0] = ByteBuffer.allocate(ATLAS_W * ATLAS_H * 4);
+        for (int y = 0; y < TILE; y++) {
+            for (int x = 0; x < TILE; x++) {
+                put(chain[0], 0, 0, x, y, tile0(x, y));
+                put(chain[0], 0, 1, x, y, tile1(x, y));
+            }
+        }
+        for (int col = 0; col < COLS; col++) AtlasMipmapper.extrude(chain[0], ATLAS_W, ATLAS_H, ROWS, col, 0, TILE, TILE, PAD);
+
+        // as AtlasMipmapper.buildChain does per tile job
+        for (int l = 1; l < LEVELS; l++) {
+            chain[l] = ByteBuffer.allocate((ATLAS_W >> l) * (ATLAS_H >> l) * 4);
+            for (int col = 0; col < COLS; col++) {
+                AtlasMipmapper.downsampleTile(chain[l - 1], chain[l], ATLAS_W >> (l - 1), ATLAS_W >> l, ATLAS_H >> l, ROWS,
+                        col, 0, TILE >> l, TILE >> l, PAD >> l);
+                AtlasMipmapper.extrude(chain[l], ATLAS_W >> l, ATLAS_H >> l, ROWS, col, 0, TILE >> l, TILE >> l, PAD >> l);
+            }
+        }
+    }
+
+    /** Tile 0, GL-space texel (row 0 = bottom): a hand-checked 2x2 block, a fully transparent one, then a gradient. */
+    private static int[] tile0(int x, int y) {
+        if (y < 2) {
+            if (x == 0 && y == 0) return new int[] { 200, 40, 0, 255 };
+            if (x == 0) return new int[] { 100, 240, 0, 85 };
+            if (x == 1) return new int[] { 255, 255, 0, 0 }; // transparent: its colour must not count
+            return new int[] { 90, 90, 0, 0 };
+        }
+        return new int[] { 20 + 60 * x, 30 + 50 * y, 0, 128 + 40 * x };
+    }
+
+    private static int[] tile1(int x, int y) {
+        return new int[] { 0, 20 + 15 * x, 40 + 50 * y + 10 * x, x == 3 && y == 3 ? 0 : 255 };
+    }
+
+    @Test
+    void downsampleWeightsByAlpha() {
+        // (200,40)@255 + (100,240)@85 + two transparent texels; a plain average would give red 202
+        assertArrayEquals(new int[] { 175, 90, 0, 85 }, get(chain[1], 1, 0, 0, 0));
+        assertArrayEquals(new int[] { 0, 0, 0, 0 }, get(chain[1], 1, 0, 1, 0), "fully transparent block");
+
+        for (int l = 1; l < LEVELS; l++) {
+            int tile = TILE >> l;
+            for (int col = 0; col < COLS; col++) {
+                for (int y = 0; y < tile; y++) {
+                    for (int x = 0; x < tile; x++) {
+                        double r = 0, g = 0, b = 0, a = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int[] s = get(chain[l - 1], l - 1, col, 2 * x + (k & 1), 2 * y + (k >> 1));
+                            r += s[0] * s[3];
+                            g += s[1] * s[3];
+                            b += s[2] * s[3];
+                            a += s[3];
+                        }
+                        int[] t = get(chain[l], l, col, x, y);
+                        String at = "level " + l + " tile " + col + " texel " + x + "," + y;
+                        if (a == 0) {
+                            assertArrayEquals(new int[] { 0, 0, 0, 0 }, t, at);
+                            continue;
+                        }
+                        assertEquals(r / a, t[0], 1, at + " red");
+                        assertEquals(g / a, t[1], 1, at + " green");
+                        assertEquals(b / a, t[2], 1, at + " blue");
+                        assertEquals(a / 4, t[3], 1, at + " alpha");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void paddingRepeatsClampedEdgeTexels() {
+        for (int l = 0; l < LEVELS; l++) {
+            int tile = TILE >> l, pad = PAD >> l;
+            for (int col = 0; col < COLS; col++) {
+                for (int y = -pad; y < tile + pad; y++) {
+                    for (int x = -pad; x < tile + pad; x++) {
+                        int sx = Math.min(Math.max(x, 0), tile - 1), sy = Math.min(Math.max(y, 0), tile - 1);
+                        assertArrayEquals(get(chain[l], l, col, sx, sy), get(chain[l], l, col, x, y),
+                                "level " + l + " tile " + col + " texel " + x + "," + y);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void noLevelMixesTiles() {
+        for (int l = 0; l < LEVELS; l++) {
+            int tile = TILE >> l, pad = PAD >> l;
+            boolean sawBlue = false;
+            for (int y = -pad; y < tile + pad; y++) {
+                for (int x = -pad; x < tile + pad; x++) {
+                    String at = "level " + l + " texel " + x + "," + y;
+                    assertEquals(0, get(chain[l], l, 0, x, y)[2], at + " of tile 0 has blue from tile 1");
+                    int[] t1 = get(chain[l], l, 1, x, y);
+                    assertEquals(0, t1[0], at + " of tile 1 has red from tile 0");
+                    sawBlue |= t1[2] != 0;
+                }
+            }
+            assertTrue(sawBlue, "level " + l + " tile 1 lost its colour");
+        }
+    }
+
+    /** Texel (x, y) relative to a tile's bottom-left texel at level l; may reach into the padding. */
+    private static int offset(int l, int col, int x, int y) {
+        int tile = TILE >> l, pad = PAD >> l;
+        return ((pad + y) * (ATLAS_W >> l) + col * (tile + 2 * pad) + pad + x) * 4;
+    }
+
+    private static void put(ByteBuffer level, int l, int col, int x, int y, int[] rgba) {
+        int o = offset(l, col, x, y);
+        for (int k = 0; k < 4; k++) level.put(o + k, (byte) rgba[k]);
+    }
+
+    private static int[] get(ByteBuffer level, int l, int col, int x, int y) {
+        int o = offset(l, col, x, y);
+        return new int[] { level.get(o) & 0xFF, level.get(o + 1) & 0xFF, level.get(o + 2) & 0xFF, level.get(o + 3) & 0xFF };
+    }
+}
@@ -0,0 +1,125 @@
+package org.jephacake.renderer;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Face records ({@link ChunkMesher.FaceData}) must draw exactly the geometry of the classic mesh: expanded on the
+ * CPU they equal {@link ChunkMesher#meshDataFromChunk}, and the chunk_faces shader's corner and triangle tables,
+ * fed from a {@link FaceTable}, produce the same vertices as that expansion.
+ */
+class FaceDataTest {
+    private static final String[] GENERATORS = { "stress", "terrain", "flat" };
+
+    @Test
+    void expandedFacesEqualClassicMesh() {
+        int flipped = 0;
+        for (String generator : GENERATORS) {
+            try (World world = TestWorlds.world(generator)) {
+                for (Chunk c : chunksAroundOrigin(world)) {
+                    String at = generator + " chunk " + c.getCX() + "," + c.getCY() + "," + c.getCZ();
+                    ChunkMesher.MeshData expected = ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas());
+                    ChunkMesher.FaceData faces = ChunkMesher.faceDataFromChunk(world, c);
+                    ChunkMesher.MeshData actual = ChunkMesher.expandFaces(faces);
+
+                    assertEquals(expected.positions.length / 12, faces.getFaceCount(), at + " face count");
+                    assertArrayEquals(expected.positions, actual.positions, at + " positions");
+                    assertArrayEquals(expected.normals, actual.normals, at + " normals");
+                    assertArrayEquals(expected.texcoords, actual.texcoords, at + " texcoords");
+                    assertArrayEquals(expected.colors, actual.colors, at + " colors");
+                    assertArrayEquals(expected.indices, actual.indices, at + " indices");
+                    for (int q = 0; q < faces.getFaceCount(); q++) if (actual.indices[q * 6] == q * 4 + 1) flipped++;
+                }
+            }
+        }
+        assertTrue(flipped > 0, "no quad had its diagonal flipped for ambient occlusion");
+    }
+
+    @Test
+    void shaderTablesMatchExpansion() throws IOException {
+        String shader = shaderSource();
+        int[][] corners = new int[24][];
+        Matcher m = Pattern.compile("ivec4\\((\\d), (\\d), (\\d), (\\d)\\)").matcher(shader.substring(shader.indexOf("CORNERS[24]")));
+        for (int i = 0; i < corners.length; i++) {
+            assertTrue(m.find(), "CORNERS entry " + i);
+            corners[i] = new int[] { digit(m, 1), digit(m, 2), digit(m, 3), digit(m, 4) };
+        }
+        Matcher t = Pattern.compile("TRIANGLES\\[12] = int\\[]\\(([^)]*)\\)").matcher(shader);
+        assertTrue(t.find(), "TRIANGLES table");
+        int[] triangles = Arrays.stream(t.group(1).split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+        assertEquals(12, triangles.length);
+
+        TestWorlds.atlas();
+        int width = FaceTable.width(BlockRegistry.table());
+        float[] table = FaceTable.build(BlockRegistry.table(), width);
+
+        try (World world = TestWorlds.world("stress")) {
+            for (Chunk c : chunksAroundOrigin(world)) {
+                ChunkMesher.FaceData faces = ChunkMesher.faceDataFromChunk(world, c);
+                ChunkMesher.MeshData mesh = ChunkMesher.expandFaces(faces);
+                for (int q = 0; q < faces.getFaceCount(); q++) {
+                    int w = faces.faces[2 * q], tile = faces.faces[2 * q + 1] & 0xFFFF, block = faces.faces[2 * q + 1] >>> 16;
+                    int face = w >> 12 & 7, light = w >> 15 & 15;
+                    int[] ao = { w >> 19 & 3, w >> 21 & 3, w >> 23 & 3, w >> 25 & 3 };
+                    for (int vertexId = 0; vertexId < 6; vertexId++) {
+                        // as chunk_faces.vert computes it
+                        int corner = triangles[(ao[0] + ao[2] < ao[1] + ao[3] ? 6 : 0) + vertexId];
+                        int[] cc = corners[face * 4 + corner];
+                        float[] rect = tile == ChunkMesher.NO_TILE ? new float[4] : Arrays.copyOfRange(table, tile * 4, tile * 4 + 4);
+                        float alpha = table[(width + block) * 4 + 3]
+                                * (table[(2 * width + light) * 4] * table[(2 * width + ao[corner]) * 4 + 1]);
+
+                        int v = mesh.indices[q * 6 + vertexId];
+                        String at = "face " + q + " vertex " + vertexId;
+                        assertEquals(q * 4 + corner, v, at + " corner");
+                        assertEquals(mesh.positions[v * 3], (w & 15) + cc[0], 0, at + " x");
+                        assertEquals(mesh.positions[v * 3 + 1], (w >> 4 & 15) + cc[1], 0, at + " y");
+                        assertEquals(mesh.positions[v * 3 + 2], (w >> 8 & 15) + cc[2], 0, at + " z");
+                        assertEquals(mesh.texcoords[v * 2], (cc[3] & 1) != 0 ? rect[2] : rect[0], 0, at + " u");
+                        assertEquals(mesh.texcoords[v * 2 + 1], (cc[3] & 2) != 0 ? rect[3] : rect[1], 0, at + " v");
+                        for (int k = 0; k < 3; k++) {
+                            assertEquals(mesh.colors[v * 4 + k], table[(width + block) * 4 + k], 0, at + " tint " + k);
+                        }
+                        assertEquals(mesh.colors[v * 4 + 3], alpha, 1e-6f, at + " alpha");
+                    }
+                }
+            }
+        }
+    }
+
+    private static Chunk[] chunksAroundOrigin(World world) {
+        Chunk[] chunks = new Chunk[27];
+        int i = 0;
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    chunks[i++] = world.getChunk(x, y, z);
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private static String shaderSource() throws IOException {
+        try (InputStream in = FaceDataTest.class.getClassLoader()
+                .getResourceAsStream("org/jephacake/assets/shaders/chunk_faces.vert")) {
+            assertNotNull(in, "chunk_faces.vert on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int digit(Matcher m, int group) {
+        return Integer.parseInt(m.group(group));
+    }
+}
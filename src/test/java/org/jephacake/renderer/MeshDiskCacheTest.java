@@ -0,0 +1,126 @@
+package org.jephacake.renderer;
+
+import org.jephacake.metrics.EngineMetrics;
+import org.jephacake.world.Chunk;
+import org.jephacake.world.World;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The on-disk mesh codec must give back exactly what the mesher built (colours are stored as 16-bit fixed point),
+ * otherwise warm starts draw corrupted chunks; and the cache key must change whenever the mesh input does.
+ */
+class MeshDiskCacheTest {
+    private static final float COLOR_TOLERANCE = 1e-5f;
+
+    @Test
+    void roundTripsGeneratedChunks() {
+        int[] diagonals = new int[2];
+        for (String generator : new String[] { "stress", "terrain" }) {
+            try (World world = TestWorlds.world(generator)) {
+                for (int x = -1; x <= 1; x++) {
+                    for (int y = -1; y <= 1; y++) {
+                        for (int z = -1; z <= 1; z++) {
+                            Chunk c = world.getChunk(x, y, z);
+                            ChunkMesher.MeshData mesh = ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas());
+                            String at = generator + " chunk " + x + "," + y + "," + z;
+                            assertRoundTrips(mesh, at);
+                            for (int q = 0; q < mesh.indices.length / 6; q++) diagonals[mesh.indices[q * 6] - q * 4]++;
+                        }
+                    }
+                }
+            }
+        }
+        // quads whose triangles were split along the other diagonal for ambient occlusion start at corner 1
+        assertTrue(diagonals[0] > 0 && diagonals[1] > 0, "both diagonals covered: " + diagonals[0] + " / " + diagonals[1]);
+    }
+
+    @Test
+    void roundTripsBothDiagonals() {
+        float[] positions = { 1, 0, 0, 0, 0, 0, 0, 1, 0, 1, 1, 0, /* */ 3, 4, 6, 4, 4, 6, 4, 5, 6, 3, 5, 6 };
+        float[] normals = { 0, 0, -1, 0, 0, -1, 0, 0, -1, 0, 0, -1, /* */ 0, 0, 1, 0, 0, 1, 0, 0, 1, 0, 0, 1 };
+        float[] texcoords = { 0.25f, 0.5f, 0.125f, 0.5f, 0.125f, 0.375f, 0.25f, 0.375f, 0, 0, 1, 0, 1, 1, 0, 1 };
+        float[] colors = new float[32];
+        for (int i = 0; i < colors.length; i++) colors[i] = (i * 37 % 101) / 100f;
+        int[] indices = { 0, 1, 2, 2, 3, 0, /* */ 5, 6, 7, 7, 4, 5 };
+        assertRoundTrips(new ChunkMesher.MeshData(positions, normals, texcoords, colors, indices), "hand-built quads");
+    }
+
+    @Test
+    void rejectsMeshesThatAreNotUnitQuads() {
+        assertNull(MeshDiskCache.encode(quad(0.5f, new float[] { 0, 1, 0 }, new int[] { 0, 1, 2, 2, 3, 0 })),
+                "fractional position");
+        assertNull(MeshDiskCache.encode(quad(0, new float[] { 0.6f, 0.8f, 0 }, new int[] { 0, 1, 2, 2, 3, 0 })),
+                "normal not along an axis");
+        assertNull(MeshDiskCache.encode(quad(0, new float[] { 0, 1, 0 }, new int[] { 0, 1, 2, 0, 2, 3 })),
+                "triangles not in the mesher's order");
+        assertNull(MeshDiskCache.encode(quad(0, new float[] { 0, 1, 0 }, new int[] { 0, 1, 2 })),
+                "not six indices per quad");
+        ChunkMesher.MeshData triangle = new ChunkMesher.MeshData(new float[9], new float[] { 0, 1, 0, 0, 1, 0, 0, 1, 0 },
+                new float[6], new float[12], new int[] { 0, 1, 2 });
+        assertNull(MeshDiskCache.encode(triangle), "vertex count not a multiple of four");
+        assertNotNull(MeshDiskCache.encode(quad(0, new float[] { 0, 1, 0 }, new int[] { 0, 1, 2, 2, 3, 0 })), "valid quad");
+    }
+
+    @Test
+    void keyChangesWithBorderButNotWithHiddenNeighbourCells() throws IOException {
+        File file = File.createTempFile("spacegame-meshes", ".cache");
+        file.delete();
+        try (World world = TestWorlds.world("stress")) {
+            Chunk c = world.getChunk(0, 0, 0);
+            MeshDiskCache cache = MeshDiskCache.open(file.toPath());
+            ChunkMesher.MeshData built = ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas(), cache);
+            assertEquals(1, cache.size());
+            long hits = EngineMetrics.MESH_DISK_CACHE_HITS.getCount();
+            assertMeshEquals(built, ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas(), cache), "mesh from the cache");
+            assertEquals(hits + 1, EngineMetrics.MESH_DISK_CACHE_HITS.getCount(), "unchanged chunk");
+
+            cache.save(0, 0, 0, Long.MAX_VALUE);
+            MeshDiskCache reopened = MeshDiskCache.open(file.toPath());
+            ChunkMesher.MeshData warm = ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas(), reopened);
+            assertMeshEquals(built, warm, "mesh from the reopened cache");
+
+            // a cell two blocks into the east neighbour is outside the copied border: same key, still a hit
+            Chunk east = world.getChunk(1, 0, 0);
+            east.setBlock(2, 5, 5, east.getBlock(2, 5, 5) == 0 ? 2 : 0);
+            hits = EngineMetrics.MESH_DISK_CACHE_HITS.getCount();
+            ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas(), reopened);
+            assertEquals(hits + 1, EngineMetrics.MESH_DISK_CACHE_HITS.getCount(), "hidden neighbour edit");
+
+            // the neighbour's border cell is: the key changes, so it is a miss
+            east.setBlock(0, 5, 5, east.getBlock(0, 5, 5) == 0 ? 2 : 0);
+            long misses = EngineMetrics.MESH_DISK_CACHE_MISSES.getCount();
+            ChunkMesher.meshDataFromChunk(world, c, TestWorlds.atlas(), reopened);
+            assertEquals(misses + 1, EngineMetrics.MESH_DISK_CACHE_MISSES.getCount(), "border edit");
+        } finally {
+            file.delete();
+        }
+    }
+
+    /** One unit quad in the z = 0 plane at x offset {@code dx}, with the given normal and indices. */
+    private static ChunkMesher.MeshData quad(float dx, float[] normal, int[] indices) {
+        float[] positions = { dx, 0, 0, dx + 1, 0, 0, dx + 1, 1, 0, dx, 1, 0 };
+        float[] normals = new float[12];
+        for (int v = 0; v < 4; v++) System.arraycopy(normal, 0, normals, v * 3, 3);
+        return new ChunkMesher.MeshData(positions, normals, new float[8], new float[16], indices);
+    }
+
+    private static void assertRoundTrips(ChunkMesher.MeshData mesh, String at) {
+        ByteBuffer encoded = MeshDiskCache.encode(mesh);
+        assertNotNull(encoded, at + ": mesher output must be encodable");
+        assertMeshEquals(mesh, MeshDiskCache.decode(encoded), at);
+    }
+
+    private static void assertMeshEquals(ChunkMesher.MeshData expected, ChunkMesher.MeshData actual, String at) {
+        assertArrayEquals(expected.positions, actual.positions, at + " positions");
+        assertArrayEquals(expected.normals, actual.normals, at + " normals");
+        assertArrayEquals(expected.texcoords, actual.texcoords, at + " texcoords");
+        assertArrayEquals(expected.colors, actual.colors, COLOR_TOLERANCE, at + " colors");
+        assertArrayEquals(expected.indices, actual.indices, at + " indices");
+    }
+}
@@ -0,0 +1,59 @@
+package org.jephacake.renderer;
+
+import org.jephacake.block.BlockRegistry;
+import org.jephacake.world.World;
+import org.jephacake.world.WorldGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Shared headless setup for the renderer tests, like the benchmarks' BenchmarkSupport: the CPU side of the texture
+ * atlas, registered blocks, and small generated worlds. Nothing in here touches GLFW or OpenGL.
+ */
+final class TestWorlds {
+    static final long SEED = 42;
+
+    private static TextureAtlas atlas;
+
+    private TestWorlds() {}
+
+    static synchronized TextureAtlas atlas() {
+        if (atlas == null) {
+            try {
+                atlas = TextureAtlas.buildFromPackage("org/jephacake/assets/textures");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            BlockRegistry.init();
+            BlockRegistry.resolveTextures(atlas::getTileIndex, atlas::getUVRect);
+        }
+        return atlas;
+    }
+
+    /**
+     * A fresh world from generator {@code name} ({@link WorldGenerator#named}) with every chunk within 2 of the
+     * origin loaded, so the chunks within 1 have all their neighbours. Its save file is deleted on exit.
+     */
+    static World world(String name) {
+        atlas();
+        File save;
+        try {
+            save = File.createTempFile("spacegame-test", ".dat");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        save.delete(); // World treats a missing file as a fresh world
+        save.deleteOnExit();
+        World world = new World(WorldGenerator.named(name, SEED), save, 2);
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -2; y <= 2; y++) {
+                for (int z = -2; z <= 2; z++) {
+                    world.loadOrGenerateChunk(x, y, z);
+                }
+            }
+        }
+        return world;
+    }
+}